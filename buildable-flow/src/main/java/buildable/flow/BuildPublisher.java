@@ -0,0 +1,153 @@
+package buildable.flow;
+
+import buildable.Builder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.ObjLongConsumer;
+import java.util.function.Supplier;
+
+/**
+ * Publishes a number of instances, each built by a new builder that the customizers are given along with the
+ * instance's index, returned by the publisher() methods of builders generated with <code>-Abuildable.flow=true</code>.
+ * <p>
+ * Instances are only built once a subscriber requests them, on the thread that requests them, so no more are ever held
+ * than the subscriber asked for. Every subscriber is sent its own instances, starting from index 0. A builder that
+ * returns null, or a customizer that throws, ends the subscription with onError.
+ * </p>
+ *
+ * @param <T> the type of the instances published.
+ * @param <B> the type of the builders that build them.
+ */
+public final class BuildPublisher<T, B extends Builder<T>> implements Flow.Publisher<T> {
+
+    private final long count;
+    private final Supplier<? extends B> builders;
+    private final List<ObjLongConsumer<? super B>> customizers;
+
+    /**
+     * @param count       the number of instances each subscriber is sent.
+     * @param builders    creates the builder of each instance, such as the builder's factory method.
+     * @param customizers applied in order to each builder, with the index of the instance it builds.
+     */
+    public BuildPublisher(long count, Supplier<? extends B> builders, List<? extends ObjLongConsumer<? super B>> customizers) {
+        if (count < 0) {
+            throw new IllegalArgumentException("Can't publish " + count + " instances");
+        }
+        this.count = count;
+        this.builders = Objects.requireNonNull(builders);
+        this.customizers = new ArrayList<>(customizers);
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super T> subscriber) {
+        final Emission emission = new Emission(Objects.requireNonNull(subscriber));
+        subscriber.onSubscribe(emission);
+        emission.drain();
+    }
+
+    T build(long index) {
+        final B builder = builders.get();
+        for (ObjLongConsumer<? super B> each : customizers) {
+            each.accept(builder, index);
+        }
+        final T built = builder.build();
+        if (built == null) {
+            throw new NullPointerException(builder.getClass().getSimpleName() + " built null at index " + index);
+        }
+        return built;
+    }
+
+    /**
+     * The subscription of one subscriber. Whichever thread raises the demand emits, and one that requests more while
+     * another is emitting, or from within onNext, only adds to the demand the emitting thread works through.
+     */
+    private final class Emission implements Flow.Subscription {
+
+        private final Flow.Subscriber<? super T> subscriber;
+        private final AtomicLong requested = new AtomicLong();
+        private final AtomicInteger emitters = new AtomicInteger();
+        private volatile boolean cancelled;
+        private volatile IllegalArgumentException invalidRequest;
+        private long index;
+
+        Emission(Flow.Subscriber<? super T> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                invalidRequest = new IllegalArgumentException("Requests must be positive, not " + n);
+            } else {
+                requested.getAndUpdate(current -> current + n < 0 ? Long.MAX_VALUE : current + n);
+            }
+            drain();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+        }
+
+        void drain() {
+            if (emitters.getAndIncrement() != 0) {
+                return;
+            }
+            int missed = 1;
+            do {
+                if (emit()) {
+                    return;
+                }
+                missed = emitters.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        /**
+         * Emits as many instances as were requested, returning whether the subscription has ended.
+         */
+        private boolean emit() {
+            final long demand = requested.get();
+            long emitted = 0;
+            while (!cancelled) {
+                if (invalidRequest != null) {
+                    return terminate(invalidRequest);
+                }
+                if (index == count) {
+                    cancelled = true;
+                    subscriber.onComplete();
+                    return true;
+                }
+                if (emitted == demand) {
+                    break;
+                }
+                final T built;
+                try {
+                    built = build(index);
+                } catch (RuntimeException e) {
+                    return terminate(e);
+                }
+                index++;
+                emitted++;
+                subscriber.onNext(built);
+            }
+            if (cancelled) {
+                return true;
+            }
+            if (demand != Long.MAX_VALUE) {
+                requested.addAndGet(-emitted);
+            }
+            return false;
+        }
+
+        private boolean terminate(Throwable error) {
+            cancelled = true;
+            subscriber.onError(error);
+            return true;
+        }
+    }
+}
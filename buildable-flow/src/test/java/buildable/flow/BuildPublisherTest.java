@@ -0,0 +1,143 @@
+package buildable.flow;
+
+import buildable.Builder;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Flow;
+import java.util.function.ObjLongConsumer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class BuildPublisherTest {
+
+    @Test public void buildsOnlyWhatIsRequested() {
+        final Recorder recorder = new Recorder();
+        publisher(10).subscribe(recorder);
+        assertTrue(recorder.received.isEmpty());
+
+        recorder.subscription.request(3);
+        assertEquals(List.of("0", "1", "2"), recorder.received);
+        assertEquals(3, LabelBuilder.built);
+
+        recorder.subscription.request(100);
+        assertEquals(10, recorder.received.size());
+        assertEquals("9", recorder.received.get(9));
+        assertTrue(recorder.completed);
+    }
+
+    @Test public void requestingFromOnNextDoesNotRecurse() {
+        final Recorder recorder = new Recorder() {
+            @Override
+            public void onNext(String item) {
+                super.onNext(item);
+                subscription.request(1);
+            }
+        };
+        publisher(100000).subscribe(recorder);
+        recorder.subscription.request(1);
+
+        assertEquals(100000, recorder.received.size());
+        assertTrue(recorder.completed);
+    }
+
+    @Test public void stopsOnceCancelled() {
+        final Recorder recorder = new Recorder() {
+            @Override
+            public void onNext(String item) {
+                super.onNext(item);
+                if (received.size() == 2) {
+                    subscription.cancel();
+                }
+            }
+        };
+        publisher(10).subscribe(recorder);
+        recorder.subscription.request(Long.MAX_VALUE);
+
+        assertEquals(2, recorder.received.size());
+        assertTrue(!recorder.completed);
+    }
+
+    @Test public void completesAnEmptyPublisherWithoutDemand() {
+        final Recorder recorder = new Recorder();
+        publisher(0).subscribe(recorder);
+
+        assertTrue(recorder.completed);
+    }
+
+    @Test public void signalsErrorsInsteadOfThrowing() {
+        final Recorder invalid = new Recorder();
+        publisher(10).subscribe(invalid);
+        invalid.subscription.request(0);
+        assertTrue(invalid.error instanceof IllegalArgumentException);
+
+        final Recorder nullBuilt = new Recorder();
+        publisher(10, (builder, index) -> builder.label = index == 1 ? null : builder.label).subscribe(nullBuilt);
+        nullBuilt.subscription.request(5);
+        assertEquals(1, nullBuilt.received.size());
+        assertTrue(nullBuilt.error instanceof NullPointerException);
+        nullBuilt.subscription.request(5);
+        assertEquals(1, nullBuilt.received.size());
+    }
+
+    @Test public void appliesCustomizersInOrderForEachIndex() {
+        final Recorder recorder = new Recorder();
+        publisher(3, (builder, index) -> builder.label = "item", (builder, index) -> builder.label += "-" + index * 10).subscribe(recorder);
+        recorder.subscription.request(3);
+
+        assertEquals(List.of("item-0", "item-10", "item-20"), recorder.received);
+        assertNull(recorder.error);
+    }
+
+    @SafeVarargs
+    private static BuildPublisher<String, LabelBuilder> publisher(long count, ObjLongConsumer<? super LabelBuilder>... customizers) {
+        LabelBuilder.built = 0;
+        final List<ObjLongConsumer<? super LabelBuilder>> all = new ArrayList<>();
+        all.add((builder, index) -> builder.label = Long.toString(index));
+        for (ObjLongConsumer<? super LabelBuilder> each : customizers) {
+            all.add(each);
+        }
+        return new BuildPublisher<>(count, LabelBuilder::new, all);
+    }
+
+    private static class LabelBuilder implements Builder<String> {
+        static int built;
+        String label;
+
+        @Override
+        public String build() {
+            built++;
+            return label;
+        }
+    }
+
+    private static class Recorder implements Flow.Subscriber<String> {
+        final List<String> received = new ArrayList<>();
+        Flow.Subscription subscription;
+        boolean completed;
+        Throwable error;
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+        }
+
+        @Override
+        public void onNext(String item) {
+            received.add(item);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            error = throwable;
+        }
+
+        @Override
+        public void onComplete() {
+            completed = true;
+        }
+    }
+}
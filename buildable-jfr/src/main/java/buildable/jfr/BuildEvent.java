@@ -0,0 +1,57 @@
+package buildable.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event committed by each build() of builders generated with <code>-Abuildable.jfr=true</code>.
+ * <p>
+ * Disabled by default, enable it like any other event, e.g. <code>-XX:StartFlightRecording:buildable.Build#enabled=true</code>
+ * or <code>recording.enable("buildable.Build")</code>. While it is disabled the generated code only begins and ends
+ * the event, which the JIT reduces to nothing.
+ * </p>
+ */
+@Name(BuildEvent.NAME)
+@Label("Build")
+@Category({"Buildable"})
+@Description("An instance built by a generated builder")
+public class BuildEvent extends Event {
+
+    public static final String NAME = "buildable.Build";
+
+    @Label("Builder Type")
+    Class<?> builderType;
+
+    @Label("Built Type")
+    Class<?> builtType;
+
+    @Label("Fields Set")
+    @Description("Fields given a value through the builder before build()")
+    int fieldsSet;
+
+    @Label("Nested Builds")
+    @Description("Nested builders built by passing them to the builder's fluent methods")
+    int nestedBuilds;
+
+    /**
+     * Whether build events are being recorded, for generated builders to only count nested builds while they are.
+     * Like {@link #isEnabled()}, which it calls on an event the JIT never allocates, it is cheap enough for every call.
+     */
+    public static boolean isRecorded() {
+        return new BuildEvent().isEnabled();
+    }
+
+    /**
+     * Fills in the event and commits it, to be called only once {@link #shouldCommit()} is <code>true</code>.
+     */
+    public void commit(Class<?> builderType, Class<?> builtType, int fieldsSet, int nestedBuilds) {
+        this.builderType = builderType;
+        this.builtType = builtType;
+        this.fieldsSet = fieldsSet;
+        this.nestedBuilds = nestedBuilds;
+        commit();
+    }
+}
@@ -8,7 +8,8 @@ import java.lang.annotation.Target;
 
 /**
  * <p>Specifies that the type is buildable using a Fluent-API style Builder pattern.</p>
- * <p>Classes annotated with @Buildable must have an empty protected (or public) constructor.</p>
+ * <p>Classes annotated with @Buildable must have an empty protected (or public) constructor.
+ * Records are instead built through their canonical constructor, with each component treated as a field.</p>
  * <p>Each field that you would like the builder to use in a fluent api, annotate with @BuiltWith.</p>
  *
  * <p>The name of the Builder that is generated may be specified with the name().</p>
@@ -128,4 +129,71 @@ public @interface Buildable {
     String factoryMethod() default USE_SENSIBLE_DEFAULT;
 
     String cloneMethod() default USE_SENSIBLE_DEFAULT;
+
+    /**
+     * Specifies if a compact binary {@link buildable.codec.Codec}, named after the class with a "Codec" suffix,
+     * is generated alongside the builder. The builder must not be abstract.
+     * @return <code>true</code> if a codec should be generated.
+     */
+    boolean generateCodec() default false;
+
+    /**
+     * Specifies if a Flyweight, named after the class with a "Flyweight" suffix, is generated to read records of the
+     * class's primitive and boxed primitive fields in place from a direct ByteBuffer. The builder gains a
+     * writeTo(ByteBuffer, int) method to store its state as such a record.
+     * @return <code>true</code> if a flyweight should be generated.
+     */
+    boolean generateFlyweight() default false;
+
+    /**
+     * Specifies if a columnar Batch, named after the class with a "Batch" suffix, is generated to fill many rows of
+     * field values as arrays and build instances only for the rows that are used. The builder must not be abstract.
+     * @return <code>true</code> if a batch should be generated.
+     */
+    boolean generateBatch() default false;
+
+    /**
+     * Specifies if a RowBinder, named after the class with a "RowBinder" suffix, is generated to build instances from
+     * the rows of CSV, TSV or other delimited files, binding each field to the column at its position among the built
+     * fields. The builder must not be abstract.
+     * @return <code>true</code> if a row binder should be generated.
+     */
+    boolean generateRowBinder() default false;
+
+    /**
+     * Specifies if build() takes its instance from an InstancePool before allocating one. Instances are given back
+     * with the builder's static recycle() method, which clears their built fields first. The class must be built
+     * with its no-arg constructor, so neither records nor classes built with a BuildConstructor can be pooled.
+     * @return <code>true</code> if built instances should be pooled.
+     */
+    boolean pooled() default false;
+
+    /**
+     * Specifies if the builder has a buildShared() method, which returns the same instance for builders with the same
+     * state for as long as that instance is in use, and only builds one the first time. Only suitable for types whose
+     * instances aren't changed after they are built, and so not for pooled ones, and whose builders aren't given lists,
+     * arrays or other values that are changed afterwards, as the values are kept to find the instance again.
+     * @return <code>true</code> if the builder should have a buildShared() method.
+     */
+    boolean shared() default false;
+
+    /**
+     * Specifies if the builder keeps only the values it was given, in a table keyed by the index of their field,
+     * rather than in a field of its own for each field of the class, for wide classes of which few fields are usually
+     * set. Fields left unset are built with their default. Literal defaults are held in static constants, and any
+     * other <tt>@</tt>BuiltWith expression is evaluated for each instance built, so no two instances share a mutable
+     * default. Flyweights can't be generated for sparse builders.
+     * @return <code>true</code> if the builder should only hold the values that were set.
+     */
+    boolean sparse() default false;
+
+    /**
+     * Specifies if the builder is immutable, so one configured builder can be shared between threads: each of its
+     * fluent methods returns a new builder, which shares the values it didn't change with the builder it was called on.
+     * Like sparse builders, immutable builders hold their values in slots and their literal defaults in static constants.
+     * They don't extend the builders of <tt>@</tt>BuildableSubclasses superclasses, can't be abstract, and have no
+     * meta() or publisher(), whose callers set values on a builder in place.
+     * @return <code>true</code> if the builder should be immutable.
+     */
+    boolean immutable() default false;
 }
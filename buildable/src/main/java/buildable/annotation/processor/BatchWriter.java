@@ -0,0 +1,286 @@
+package buildable.annotation.processor;
+
+import buildable.annotation.Buildable;
+import buildable.annotation.BuiltWith;
+import com.squareup.javapoet.AnnotationSpec;
+import com.squareup.javapoet.ArrayTypeName;
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.JavaFile;
+import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.ParameterizedTypeName;
+import com.squareup.javapoet.TypeName;
+import com.squareup.javapoet.TypeSpec;
+
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.Messager;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Map;
+import java.util.function.IntFunction;
+import java.util.function.IntToDoubleFunction;
+import java.util.function.IntToLongFunction;
+import java.util.function.IntUnaryOperator;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static buildable.annotation.processor.Util.capitalize;
+import static buildable.annotation.processor.Util.createBuilderName;
+import static buildable.annotation.processor.Util.createFactoryMethodName;
+import static buildable.annotation.processor.Util.determineFluentMethodName;
+import static buildable.annotation.processor.Util.packageNameOf;
+import static buildable.annotation.processor.Util.primitiveKindOf;
+import static javax.tools.Diagnostic.Kind.WARNING;
+
+/**
+ * Responsible for writing the columnar Batch class files of types whose @Buildable specifies generateBatch().
+ *
+ * A batch holds one array per field, primitive arrays for primitive and boxed primitive fields with a null bit set
+ * for the latter, so whole columns can be filled with plain array work. Instances are only built for the rows
+ * that are asked for, through the generated builder, and rows of a column that were never filled keep the builder's
+ * defaults. As columns are filled from the first row, each tracks how many of its rows are filled.
+ */
+public class BatchWriter {
+
+    private final Buildable theBuildable;
+    private final Messager messager;
+    private final String packageName;
+    private final ClassName builtClass;
+    private final ClassName builderClass;
+    private final ClassName batchClass;
+    private TypeSpec.Builder batch;
+
+    public BatchWriter(Buildable theBuildable, TypeElement builtElement, Messager messager) {
+        this.theBuildable = theBuildable;
+        this.messager = messager;
+        this.packageName = packageNameOf(builtElement.getQualifiedName());
+        this.builtClass = ClassName.get(packageName, builtElement.getSimpleName().toString());
+        this.builderClass = ClassName.get(packageName, createBuilderName(theBuildable, builtElement.getSimpleName()));
+        this.batchClass = ClassName.get(packageName, builtElement.getSimpleName() + "Batch");
+    }
+
+    public void writeBatch(Map<VariableElement, BuiltWith> fieldsToStore) {
+        if (theBuildable.makeAbstract()) {
+            throw new IllegalStateException("A batch cannot build rows with the abstract builder " + builderClass);
+        }
+
+        batch = TypeSpec.classBuilder(batchClass)
+                .addModifiers(Modifier.PUBLIC, Modifier.FINAL)
+                .addField(int.class, "size", Modifier.PRIVATE, Modifier.FINAL);
+
+        final MethodSpec.Builder constructor = MethodSpec.constructorBuilder()
+                .addModifiers(Modifier.PUBLIC)
+                .addParameter(int.class, "size")
+                .addStatement("this.size = size");
+
+        final MethodSpec.Builder builderAt = MethodSpec.methodBuilder("builder")
+                .addJavadoc("Creates a builder holding the values of a row, leaving the defaults of columns never filled.\n")
+                .addModifiers(Modifier.PUBLIC)
+                .returns(builderClass)
+                .addParameter(int.class, "index")
+                .addStatement("$T builder = $T.$L()", builderClass, builderClass,
+                        createFactoryMethodName(theBuildable, builtClass.simpleName()));
+
+        for (Map.Entry<VariableElement, BuiltWith> eachField : fieldsToStore.entrySet()) {
+            final VariableElement field = eachField.getKey();
+            final BuiltWith annotation = eachField.getValue();
+
+            if (annotation != null && annotation.overrideMethod() == BuiltWith.OverrideMethod.AddToList) {
+                messager.printMessage(WARNING, "Field " + field.getSimpleName() + " is not stored by " + batchClass.simpleName()
+                        + " because its builder method takes varargs", field);
+                continue;
+            }
+
+            writeColumn(field, constructor);
+
+            final String name = field.getSimpleName().toString();
+            final String setter = determineFluentMethodName(annotation, name);
+            builderAt.beginControlFlow("if (index < $LFilled)", name);
+            if (isBoxedPrimitive(field.asType())) {
+                builderAt.addStatement("builder = builder.$L($LNulls.get(index) ? null : $LColumn[index])", setter, name, name);
+            } else {
+                builderAt.addStatement("builder = builder.$L($LColumn[index])", setter, name);
+            }
+            builderAt.endControlFlow();
+        }
+
+        if (fieldsToStore.keySet().stream().anyMatch(f -> f.asType().getKind() == TypeKind.DECLARED
+                && !((DeclaredType) f.asType()).getTypeArguments().isEmpty())) {
+            builderAt.addAnnotation(AnnotationSpec.builder(SuppressWarnings.class).addMember("value", "$S", "unchecked").build());
+        }
+
+        batch.addMethod(constructor.build())
+                .addMethod(MethodSpec.methodBuilder("size")
+                        .addModifiers(Modifier.PUBLIC)
+                        .returns(int.class)
+                        .addStatement("return size")
+                        .build())
+                .addMethod(builderAt.addStatement("return builder").build())
+                .addMethod(MethodSpec.methodBuilder("get")
+                        .addModifiers(Modifier.PUBLIC)
+                        .returns(builtClass)
+                        .addParameter(int.class, "index")
+                        .addStatement("return builder(index).build()")
+                        .build())
+                .addMethod(MethodSpec.methodBuilder("stream")
+                        .addJavadoc("Lazily builds each row as the stream is consumed.\n")
+                        .addModifiers(Modifier.PUBLIC)
+                        .returns(ParameterizedTypeName.get(ClassName.get(Stream.class), builtClass))
+                        .addStatement("return $T.range(0, size).mapToObj(this::get)", IntStream.class)
+                        .build());
+    }
+
+    private void writeColumn(VariableElement field, MethodSpec.Builder constructor) {
+        final String name = field.getSimpleName().toString();
+        final String capitalized = capitalize(name);
+        final TypeMirror type = field.asType();
+        final TypeName valueType = TypeName.get(type);
+        final TypeName elementType = columnElementTypeOf(type);
+        final ArrayTypeName columnType = ArrayTypeName.of(elementType);
+        final boolean boxed = isBoxedPrimitive(type);
+
+        batch.addField(columnType, name + "Column", Modifier.PRIVATE, Modifier.FINAL)
+                .addField(int.class, name + "Filled", Modifier.PRIVATE);
+        constructor.addStatement("this.$LColumn = new $T[size]", name, elementType);
+        if (boxed) {
+            batch.addField(BitSet.class, name + "Nulls", Modifier.PRIVATE, Modifier.FINAL);
+            constructor.addStatement("this.$LNulls = new $T(size)", name, BitSet.class);
+        }
+
+        final MethodSpec.Builder fill = MethodSpec.methodBuilder("fill" + capitalized)
+                .addModifiers(Modifier.PUBLIC)
+                .returns(batchClass)
+                .addParameter(valueType, "value");
+        if (boxed) {
+            fill.beginControlFlow("if (value == null)")
+                    .addStatement("$LNulls.set(0, size)", name)
+                    .nextControlFlow("else")
+                    .addStatement("$LNulls.clear()", name)
+                    .addStatement("$T.fill($LColumn, value)", Arrays.class, name)
+                    .endControlFlow();
+        } else {
+            fill.addStatement("$T.fill($LColumn, value)", Arrays.class, name);
+        }
+        batch.addMethod(fill.addStatement("$LFilled = size", name).addStatement("return this").build());
+
+        final MethodSpec.Builder generate = MethodSpec.methodBuilder("generate" + capitalized)
+                .addModifiers(Modifier.PUBLIC)
+                .returns(batchClass)
+                .addParameter(generatorTypeOf(type), "generator")
+                .beginControlFlow("for (int i = 0; i < size; i++)");
+        if (boxed) {
+            generate.addStatement("final $T value = generator.apply(i)", valueType)
+                    .addStatement("$LNulls.set(i, value == null)", name)
+                    .addStatement("$LColumn[i] = value == null ? $L : value", name, zeroOf(primitiveKindOf(type)));
+        } else {
+            generate.addStatement("$LColumn[i] = $L", name, applyGenerator(type));
+        }
+        batch.addMethod(generate.endControlFlow().addStatement("$LFilled = size", name).addStatement("return this").build());
+
+        final MethodSpec.Builder copy = MethodSpec.methodBuilder("copy" + capitalized)
+                .addJavadoc("Copies the values into the first rows, leaving any rows past the end of a shorter array as they were.\n")
+                .addModifiers(Modifier.PUBLIC)
+                .returns(batchClass)
+                .addParameter(columnType, "values")
+                .addStatement("final int copied = $T.min(size, values.length)", Math.class)
+                .addStatement("$T.arraycopy(values, 0, $LColumn, 0, copied)", System.class, name);
+        if (boxed) {
+            copy.addStatement("$LNulls.clear(0, copied)", name);
+        }
+        batch.addMethod(copy.addStatement("$LFilled = $T.max($LFilled, copied)", name, Math.class, name).addStatement("return this").build());
+
+        final MethodSpec.Builder get = MethodSpec.methodBuilder("get" + capitalized)
+                .addModifiers(Modifier.PUBLIC)
+                .returns(valueType)
+                .addParameter(int.class, "index");
+        if (boxed) {
+            get.addStatement("return $LNulls.get(index) ? null : $LColumn[index]", name, name);
+        } else if (columnType.componentType.equals(valueType)) {
+            get.addStatement("return $LColumn[index]", name);
+        } else {
+            get.addAnnotation(AnnotationSpec.builder(SuppressWarnings.class).addMember("value", "$S", "unchecked").build())
+                    .addStatement("return ($T) $LColumn[index]", valueType, name);
+        }
+        batch.addMethod(get.build());
+    }
+
+    public void finishClass(Filer filer) throws IOException {
+        JavaFile javaFile = JavaFile.builder(packageName, batch.build()).indent("\t").build();
+
+        try {
+            javaFile.writeTo(filer);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private static boolean isBoxedPrimitive(TypeMirror type) {
+        return !type.getKind().isPrimitive() && primitiveKindOf(type) != null;
+    }
+
+    /**
+     * Primitive arrays for primitives and boxed primitives, and arrays of the raw type for everything else.
+     */
+    private static TypeName columnElementTypeOf(TypeMirror type) {
+        if (primitiveKindOf(type) != null) {
+            return TypeName.get(type).unbox();
+        }
+        if (type.getKind() == TypeKind.DECLARED) {
+            return ClassName.get((TypeElement) ((DeclaredType) type).asElement());
+        }
+        return TypeName.get(type);
+    }
+
+    private static TypeName generatorTypeOf(TypeMirror type) {
+        switch (type.getKind()) {
+            case INT:
+                return ClassName.get(IntUnaryOperator.class);
+            case LONG:
+                return ClassName.get(IntToLongFunction.class);
+            case DOUBLE:
+                return ClassName.get(IntToDoubleFunction.class);
+            default:
+                return ParameterizedTypeName.get(ClassName.get(IntFunction.class), TypeName.get(type).box());
+        }
+    }
+
+    private static String applyGenerator(TypeMirror type) {
+        switch (type.getKind()) {
+            case INT:
+                return "generator.applyAsInt(i)";
+            case LONG:
+                return "generator.applyAsLong(i)";
+            case DOUBLE:
+                return "generator.applyAsDouble(i)";
+            default:
+                return "generator.apply(i)";
+        }
+    }
+
+    private static String zeroOf(TypeKind kind) {
+        switch (kind) {
+            case BOOLEAN:
+                return "false";
+            case BYTE:
+                return "(byte) 0";
+            case SHORT:
+                return "(short) 0";
+            case CHAR:
+                return "(char) 0";
+            case LONG:
+                return "0L";
+            case FLOAT:
+                return "0f";
+            case DOUBLE:
+                return "0d";
+            default:
+                return "0";
+        }
+    }
+}
@@ -6,9 +6,10 @@ import buildable.annotation.BuiltWith;
 import buildable.annotation.ExcludeFromBuilder;
 
 import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Filer;
 import javax.annotation.processing.RoundEnvironment;
 import javax.annotation.processing.SupportedAnnotationTypes;
-import javax.annotation.processing.SupportedSourceVersion;
+import javax.annotation.processing.SupportedOptions;
 import javax.lang.model.SourceVersion;
 import javax.lang.model.element.Element;
 import javax.lang.model.element.Modifier;
@@ -17,7 +18,7 @@ import javax.lang.model.element.TypeElement;
 import javax.lang.model.element.VariableElement;
 
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -36,34 +37,58 @@ import static javax.tools.Diagnostic.Kind.NOTE;
         "buildable.annotation.Buildable",
         "buildable.annotation.BuiltWith",
         "buildable.annotation.ExcludeFromBuilder"})
-@SupportedSourceVersion(SourceVersion.RELEASE_8)
+@SupportedOptions({ProcessorOptions.METRICS, ProcessorOptions.JFR, ProcessorOptions.FLOW, ProcessorOptions.NATIVE_IMAGE})
 @SuppressWarnings("UnusedDeclaration")
 public class BuildableAnnotationProcessor extends AbstractProcessor {
 
     private Map<TypeElement, Buildable> allBuildables;
     private boolean findBuildables = true;
+    private GeneratedFiles generatedFiles;
 
     public void setAllBuildables(Map<TypeElement, Buildable> buildables) {
         this.allBuildables = buildables;
         this.findBuildables = false;
     }
 
+    public void setGeneratedFiles(GeneratedFiles generatedFiles) {
+        this.generatedFiles = generatedFiles;
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
     @Override
     public boolean process(Set<? extends TypeElement> allTypeElements, RoundEnvironment roundEnvironment) {
         this.processingEnv.getMessager().printMessage(NOTE, "Creating builders for classes annotated with @Buildable...");
         if (roundEnvironment.processingOver()) {
+            // BuildableProcessor writes the files it shares between both processors itself
+            if (findBuildables && generatedFiles != null) {
+                generatedFiles.writeAll();
+            }
             return true;
         }
-        Map<TypeElement, Buildable> buildables = roundEnvironment.getElementsAnnotatedWith(Buildable.class).stream().filter(v -> v.getKind().isClass()).map(v -> ((TypeElement) v)).collect(Collectors.toMap(t -> t, t -> t.getAnnotation(Buildable.class)));
+        final ProcessorOptions options = new ProcessorOptions(processingEnv.getOptions());
+        final FieldInitializers initializers = new FieldInitializers(processingEnv);
+        if (generatedFiles == null) {
+            generatedFiles = new GeneratedFiles(processingEnv);
+        }
+        final Filer filer = generatedFiles.filer();
+        if (findBuildables) {
+            generatedFiles.writeRegistry();
+        }
+        Map<TypeElement, Buildable> buildables = roundEnvironment.getElementsAnnotatedWith(Buildable.class).stream().filter(v -> v.getKind().isClass()).map(v -> ((TypeElement) v)).collect(Collectors.toMap(t -> t, t -> t.getAnnotation(Buildable.class), (a, b) -> a, LinkedHashMap::new));
         if (findBuildables) {
-            allBuildables = new HashMap<>();
+            allBuildables = new LinkedHashMap<>();
             allBuildables.putAll(buildables);
         }
         if (buildables.size() == 0) {
             return true;
         }
 
-        final Map<TypeElement, List<VariableElement>> buildableFieldsMap= new HashMap<>();
+        final Map<TypeElement, ClassFileWriter> parentBuilders = new LinkedHashMap<>();
+        final Map<TypeElement, List<VariableElement>> buildableFieldsMap = new LinkedHashMap<>();
         for (TypeElement eachBuildableTypeElement : buildables.keySet()) {
             buildableFieldsMap.put(eachBuildableTypeElement, new ArrayList<>());
             determineBuildableFields(eachBuildableTypeElement, eachBuildableTypeElement, buildableFieldsMap, roundEnvironment);
@@ -72,14 +97,18 @@ public class BuildableAnnotationProcessor extends AbstractProcessor {
         for (TypeElement eachBuildableTypeElement : buildables.keySet()) {
 
             Name simpleClassName = eachBuildableTypeElement.getSimpleName();
-            Name qualifiedClassName = eachBuildableTypeElement.getQualifiedName();
 
             final Buildable theBuildable = buildables.get(eachBuildableTypeElement);
             final String builderName = createBuilderName(theBuildable, simpleClassName);
 
             try {
 
-                final ClassFileWriter writer = new ClassFileWriter(theBuildable, qualifiedClassName);
+                final ClassFileWriter writer = new ClassFileWriter(theBuildable, eachBuildableTypeElement, options, generatedFiles.index, initializers, generatedFiles.reflectionConfig);
+                final TypeElement buildableSuperclass = findBuildableSubclassesSuperclass(eachBuildableTypeElement, roundEnvironment);
+                // immutable builders hold the superclass fields in their own slots
+                if (buildableSuperclass != null && !theBuildable.immutable()) {
+                    writer.extendParentBuilder(writeParentBuilder(buildableSuperclass, parentBuilders, options, initializers, roundEnvironment, filer));
+                }
 
                 writer.writeClassDeclaration();
                 writer.writeFactoryMethodAndConstructor();
@@ -100,7 +129,39 @@ public class BuildableAnnotationProcessor extends AbstractProcessor {
                 }
 
                 writer.writeBuildMethod(buildableFieldsMap.get(eachBuildableTypeElement));
-                writer.finishClass(processingEnv.getFiler());
+
+                final Map<VariableElement, BuiltWith> annotatedFields = new LinkedHashMap<>();
+                for (VariableElement eachField : buildableFieldsMap.get(eachBuildableTypeElement)) {
+                    annotatedFields.put(eachField, eachField.getAnnotation(BuiltWith.class));
+                }
+
+                if (theBuildable.generateFlyweight()) {
+                    final FlyweightWriter flyweightWriter = new FlyweightWriter(theBuildable, eachBuildableTypeElement, annotatedFields, processingEnv.getMessager());
+                    writer.writeFlyweightMethod(flyweightWriter);
+                    flyweightWriter.writeFlyweight();
+                    flyweightWriter.finishClass(filer);
+                }
+
+                writer.finishClass(filer);
+                generatedFiles.add(eachBuildableTypeElement, theBuildable);
+
+                if (theBuildable.generateCodec()) {
+                    final CodecWriter codecWriter = new CodecWriter(theBuildable, eachBuildableTypeElement, generatedFiles.reflectionConfig, processingEnv.getMessager());
+                    codecWriter.writeCodec(annotatedFields, allBuildables);
+                    codecWriter.finishClass(filer);
+                }
+
+                if (theBuildable.generateBatch()) {
+                    final BatchWriter batchWriter = new BatchWriter(theBuildable, eachBuildableTypeElement, processingEnv.getMessager());
+                    batchWriter.writeBatch(annotatedFields);
+                    batchWriter.finishClass(filer);
+                }
+
+                if (theBuildable.generateRowBinder()) {
+                    final RowBinderWriter rowBinderWriter = new RowBinderWriter(theBuildable, eachBuildableTypeElement, processingEnv.getMessager());
+                    rowBinderWriter.writeRowBinder(annotatedFields);
+                    rowBinderWriter.finishClass(filer);
+                }
 
             } catch (Exception e) {
                 this.processingEnv.getMessager().printMessage(
@@ -113,10 +174,56 @@ public class BuildableAnnotationProcessor extends AbstractProcessor {
         return true;
     }
 
+    /**
+     * Writes the abstract builder of a @BuildableSubclasses type once per round, after those of its own
+     * @BuildableSubclasses superclasses, which it extends.
+     */
+    private ClassFileWriter writeParentBuilder(TypeElement superclass,
+                                               Map<TypeElement, ClassFileWriter> parentBuilders,
+                                               ProcessorOptions options,
+                                               FieldInitializers initializers,
+                                               RoundEnvironment roundEnvironment,
+                                               Filer filer) throws Exception {
+        final ClassFileWriter written = parentBuilders.get(superclass);
+        if (written != null) {
+            return written;
+        }
+        final ClassFileWriter writer = ClassFileWriter.forSubclassesOf(superclass, options, generatedFiles.index, initializers, generatedFiles.reflectionConfig);
+        final TypeElement nextSuperclass = findBuildableSubclassesSuperclass(superclass, roundEnvironment);
+        if (nextSuperclass != null) {
+            writer.extendParentBuilder(writeParentBuilder(nextSuperclass, parentBuilders, options, initializers, roundEnvironment, filer));
+        }
+        writer.writeClassDeclaration();
+        writer.writeFactoryMethodAndConstructor();
+
+        final Map<TypeElement, List<VariableElement>> ownFields = new LinkedHashMap<>();
+        ownFields.put(superclass, new ArrayList<>());
+        addOwnBuildableFields(superclass, superclass, ownFields);
+        for (VariableElement eachField : ownFields.get(superclass)) {
+            writer.writeFluentElement(eachField, eachField.getAnnotation(BuiltWith.class), allBuildables);
+        }
+        writer.writeBuildMethod(ownFields.get(superclass));
+        writer.finishClass(filer);
+
+        parentBuilders.put(superclass, writer);
+        return writer;
+    }
+
     private void determineBuildableFields(TypeElement buildable,
                                           TypeElement enclosingElement,
                                           Map<TypeElement, List<VariableElement>> buildableFieldsMap,
                                           RoundEnvironment roundEnvironment) {
+        addOwnBuildableFields(buildable, enclosingElement, buildableFieldsMap);
+
+        final TypeElement buildableSuperclass = findBuildableSubclassesSuperclass(enclosingElement, roundEnvironment);
+        if (buildableSuperclass != null) {
+            determineBuildableFields(buildable, buildableSuperclass, buildableFieldsMap, roundEnvironment);
+        }
+    }
+
+    private void addOwnBuildableFields(TypeElement buildable,
+                                       TypeElement enclosingElement,
+                                       Map<TypeElement, List<VariableElement>> buildableFieldsMap) {
         final List<? extends Element> enclosedElements = enclosingElement.getEnclosedElements();
         for (Element eachEnclosedElement : enclosedElements) {
 
@@ -139,7 +246,12 @@ public class BuildableAnnotationProcessor extends AbstractProcessor {
             buildableFieldsMap.get(buildable).add((VariableElement) eachEnclosedElement);
 
         }
+    }
 
+    /**
+     * The superclass of the type if it is annotated with @BuildableSubclasses in this round, null otherwise.
+     */
+    private TypeElement findBuildableSubclassesSuperclass(TypeElement enclosingElement, RoundEnvironment roundEnvironment) {
         final String superclassName = enclosingElement.getSuperclass().toString();
         this.processingEnv.getMessager().printMessage(NOTE, "Beginning superclass processing for " + superclassName);
 
@@ -153,11 +265,11 @@ public class BuildableAnnotationProcessor extends AbstractProcessor {
             if (eachBuildableSubclassTypeElement.getKind().isClass()) {
                 this.processingEnv.getMessager().printMessage(NOTE, "Checking " + superclassName + " equals " + eachBuildableSubclassClassName);
                 if (superclassName.equals(eachBuildableSubclassClassName)) {
-                    determineBuildableFields(buildable, eachBuildableSubclassTypeElement, buildableFieldsMap,
-                            roundEnvironment);
+                    return eachBuildableSubclassTypeElement;
                 }
             }
         }
+        return null;
     }
 
 }
@@ -0,0 +1,117 @@
+package buildable.annotation.processor;
+
+import buildable.annotation.Buildable;
+import com.squareup.javapoet.ClassName;
+
+import javax.annotation.processing.Filer;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import static buildable.annotation.processor.Util.createBuilderName;
+import static buildable.annotation.processor.Util.packageNameOf;
+
+/**
+ * The builders generated by other modules, and those generated by this compilation.
+ * <p>
+ * Each compilation writes the types it generated builders for to {@value #LOCATION}, one
+ * <code>built-type builder-type</code> pair of qualified names per line, and the builder of each type to a resource
+ * of its own under {@value #BUILDERS_LOCATION}, named after the built type, so the resources end up in the module's
+ * jar. Later compilations look up the resource of a field's type on their classpath through the Filer, which unlike
+ * the processor's class loader sees the compilation's classpath however the processor path is set up, and can then
+ * accept another module's builder for a field of that module's type without reprocessing its sources.
+ * </p>
+ */
+public class BuildableIndex {
+
+    public static final String LOCATION = "META-INF/buildable/index";
+    public static final String BUILDERS_LOCATION = "META-INF/buildable/builders/";
+
+    private final Filer filer;
+    // the builders looked up on the classpath so far, including the types found to have none
+    private final Map<String, Optional<ClassName>> indexedBuilders = new HashMap<>();
+    private final SortedMap<String, String> generatedBuilders = new TreeMap<>();
+
+    private BuildableIndex(Filer filer) {
+        this.filer = filer;
+    }
+
+    /**
+     * An index of the builders found on the classpath of the compilation the filer writes for.
+     */
+    public static BuildableIndex fromClasspath(Filer filer) {
+        return new BuildableIndex(filer);
+    }
+
+    /**
+     * The builder another module generated for the type, if any.
+     */
+    public Optional<ClassName> builderOf(TypeMirror type) {
+        if (type.getKind() != TypeKind.DECLARED) {
+            return Optional.empty();
+        }
+        final String builtType = ((TypeElement) ((DeclaredType) type).asElement()).getQualifiedName().toString();
+        return indexedBuilders.computeIfAbsent(builtType, this::findBuilder);
+    }
+
+    private Optional<ClassName> findBuilder(String builtType) {
+        String builder;
+        try {
+            final FileObject resource = filer.getResource(StandardLocation.CLASS_PATH, "", BUILDERS_LOCATION + builtType);
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(resource.openInputStream(), StandardCharsets.UTF_8))) {
+                builder = reader.readLine();
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            // no module on the classpath generated a builder for the type
+            return Optional.empty();
+        }
+        builder = builder == null ? "" : builder.trim();
+        final int lastDot = builder.lastIndexOf('.');
+        if (lastDot < 0) {
+            return Optional.empty();
+        }
+        return Optional.of(ClassName.get(builder.substring(0, lastDot), builder.substring(lastDot + 1)));
+    }
+
+    /**
+     * Records a builder generated by this compilation, to be written by {@link #write(Filer)}.
+     */
+    public void add(TypeElement builtElement, Buildable theBuildable) {
+        final String packageName = packageNameOf(builtElement.getQualifiedName());
+        final String builderName = createBuilderName(theBuildable, builtElement.getSimpleName());
+        generatedBuilders.put(builtElement.getQualifiedName().toString(), packageName + "." + builderName);
+    }
+
+    /**
+     * Writes the builders generated by this compilation, sorted by built type so the resources are reproducible.
+     */
+    public void write(Filer filer) throws IOException {
+        if (generatedBuilders.isEmpty()) {
+            return;
+        }
+        final FileObject resource = filer.createResource(StandardLocation.CLASS_OUTPUT, "", LOCATION);
+        try (Writer writer = resource.openWriter()) {
+            for (Map.Entry<String, String> each : generatedBuilders.entrySet()) {
+                writer.write(each.getKey() + " " + each.getValue() + "\n");
+            }
+        }
+        for (Map.Entry<String, String> each : generatedBuilders.entrySet()) {
+            try (Writer writer = filer.createResource(StandardLocation.CLASS_OUTPUT, "", BUILDERS_LOCATION + each.getKey()).openWriter()) {
+                writer.write(each.getValue() + "\n");
+            }
+        }
+    }
+}
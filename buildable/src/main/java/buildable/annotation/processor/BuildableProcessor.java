@@ -8,7 +8,7 @@ import javax.annotation.processing.AbstractProcessor;
 import javax.annotation.processing.ProcessingEnvironment;
 import javax.annotation.processing.RoundEnvironment;
 import javax.annotation.processing.SupportedAnnotationTypes;
-import javax.annotation.processing.SupportedSourceVersion;
+import javax.annotation.processing.SupportedOptions;
 import javax.lang.model.SourceVersion;
 import javax.lang.model.element.Element;
 import javax.lang.model.element.TypeElement;
@@ -17,8 +17,9 @@ import javax.lang.model.type.DeclaredType;
 
 import java.util.Arrays;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -32,11 +33,11 @@ import static javax.tools.Diagnostic.Kind.NOTE;
  * This processor also shares the classes that will have builders created for between the two annotation processors. This allows builder methods
  * that takes other builders to utilize builders created by the other annotation processor.
  */
-@SupportedSourceVersion(SourceVersion.RELEASE_8)
 public class BuildableProcessor extends AbstractProcessor {
 
     private BuildableAnnotationProcessor annotationProcessor;
     private BuildableSpecProcessor specProcessor;
+    private GeneratedFiles generatedFiles;
 
     @Override
     public synchronized void init(ProcessingEnvironment processingEnv) {
@@ -45,6 +46,16 @@ public class BuildableProcessor extends AbstractProcessor {
         annotationProcessor = new BuildableAnnotationProcessor();
         annotationProcessor.init(processingEnv);
         specProcessor.init(processingEnv);
+
+        //Both annotation processors add the builders they create to the same index, registry, reflection config and class list.
+        generatedFiles = new GeneratedFiles(processingEnv);
+        annotationProcessor.setGeneratedFiles(generatedFiles);
+        specProcessor.setGeneratedFiles(generatedFiles);
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
     }
 
     @Override
@@ -57,12 +68,25 @@ public class BuildableProcessor extends AbstractProcessor {
         return Collections.unmodifiableSet(supportedTypes);
     }
 
+    @Override
+    public Set<String> getSupportedOptions() {
+        SupportedOptions ann = BuildableAnnotationProcessor.class.getAnnotation(SupportedOptions.class);
+        SupportedOptions spec = BuildableSpecProcessor.class.getAnnotation(SupportedOptions.class);
+
+        Set<String> supportedOptions = Arrays.stream(ann.value()).collect(Collectors.toSet());
+        supportedOptions.addAll(Arrays.stream(spec.value()).collect(Collectors.toSet()));
+        return Collections.unmodifiableSet(supportedOptions);
+    }
+
     @Override
     public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnvironment) {
         this.processingEnv.getMessager().printMessage(NOTE, "Creating builders for classes annotated with @Buildable...");
         if (roundEnvironment.processingOver()) {
+            generatedFiles.writeAll();
             return true;
         }
+        //The builders generated last round can now be registered.
+        generatedFiles.writeRegistry();
         Map<TypeElement, Buildable> allBuildables = getSpecBuildables(roundEnvironment);
         allBuildables.putAll(getAnnotationBuildables(roundEnvironment));
 
@@ -74,17 +98,17 @@ public class BuildableProcessor extends AbstractProcessor {
     }
 
     private Map<TypeElement, Buildable> getAnnotationBuildables(RoundEnvironment roundEnvironment) {
-        return roundEnvironment.getElementsAnnotatedWith(Buildable.class).stream().filter(v -> v.getKind().isClass()).map(v -> ((TypeElement) v)).collect(Collectors.toMap(t -> t, t -> t.getAnnotation(Buildable.class)));
+        return roundEnvironment.getElementsAnnotatedWith(Buildable.class).stream().filter(v -> v.getKind().isClass()).map(v -> ((TypeElement) v)).collect(Collectors.toMap(t -> t, t -> t.getAnnotation(Buildable.class), (a, b) -> a, LinkedHashMap::new));
     }
 
     private Map<TypeElement, Buildable> getSpecBuildables(RoundEnvironment roundEnvironment) {
 
         final Set<? extends Element> config = roundEnvironment.getElementsAnnotatedWith(BuildableSpec.class);
-        Map<TypeElement, Buildable> buildables = new HashMap<>();
+        Map<TypeElement, Buildable> buildables = new LinkedHashMap<>();
         for (Element element : config) {
             TypeElement configClass = (TypeElement) element;
             //Each field in the BuildableSpec class corresponds to a class we want to write a builder for.
-            Set<VariableElement> buildableClasses = configClass.getEnclosedElements().stream().filter(c -> c.getKind().isField()).map(c -> ((VariableElement) c)).collect(Collectors.toSet());
+            List<VariableElement> buildableClasses = configClass.getEnclosedElements().stream().filter(c -> c.getKind().isField()).map(c -> ((VariableElement) c)).collect(Collectors.toList());
 
             for (VariableElement buildableClass : buildableClasses) {
                 DeclaredType typeMirror = (DeclaredType) buildableClass.asType();
@@ -10,9 +10,10 @@ import buildable.spec.InjectBuildable;
 import com.squareup.javapoet.ClassName;
 
 import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Filer;
 import javax.annotation.processing.RoundEnvironment;
 import javax.annotation.processing.SupportedAnnotationTypes;
-import javax.annotation.processing.SupportedSourceVersion;
+import javax.annotation.processing.SupportedOptions;
 import javax.lang.model.SourceVersion;
 import javax.lang.model.element.Element;
 import javax.lang.model.element.TypeElement;
@@ -23,7 +24,7 @@ import javax.lang.model.type.TypeKind;
 import java.lang.annotation.Annotation;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -43,24 +44,47 @@ import static javax.tools.Diagnostic.Kind.NOTE;
         "buildable.spec.InjectBuildable",
         "buildable.spec.BuildField"
 })
-@SupportedSourceVersion(SourceVersion.RELEASE_8)
+@SupportedOptions({ProcessorOptions.METRICS, ProcessorOptions.JFR, ProcessorOptions.FLOW, ProcessorOptions.NATIVE_IMAGE})
 @SuppressWarnings("UnusedDeclaration")
 public class BuildableSpecProcessor extends AbstractProcessor {
 
     private Map<TypeElement, Buildable> allBuildables;
     private boolean findBuildables = true;
+    private GeneratedFiles generatedFiles;
 
     public void setAllBuildables(Map<TypeElement, Buildable> buildables) {
         this.allBuildables = buildables;
         this.findBuildables = false;
     }
 
+    public void setGeneratedFiles(GeneratedFiles generatedFiles) {
+        this.generatedFiles = generatedFiles;
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
     @Override
     public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnvironment) {
         this.processingEnv.getMessager().printMessage(NOTE, "Creating builders for classes annotated with @Buildable...");
         if (roundEnvironment.processingOver()) {
+            // BuildableProcessor writes the files it shares between both processors itself
+            if (findBuildables && generatedFiles != null) {
+                generatedFiles.writeAll();
+            }
             return true;
         }
+        final ProcessorOptions options = new ProcessorOptions(processingEnv.getOptions());
+        final FieldInitializers initializers = new FieldInitializers(processingEnv);
+        if (generatedFiles == null) {
+            generatedFiles = new GeneratedFiles(processingEnv);
+        }
+        final Filer filer = generatedFiles.filer();
+        if (findBuildables) {
+            generatedFiles.writeRegistry();
+        }
         final Set<? extends Element> config = roundEnvironment.getElementsAnnotatedWith(BuildableSpec.class);
         if (config.size() == 0) {
             return true;
@@ -68,13 +92,13 @@ public class BuildableSpecProcessor extends AbstractProcessor {
 
         //Build a map of Classes (TypeElements) to Buildables
         if (findBuildables) {
-            allBuildables = new HashMap<>();
+            allBuildables = new LinkedHashMap<>();
         }
 
         for (Element element : config) {
             TypeElement configClass = (TypeElement) element;
             //Each field in the BuildableSpec class corresponds to a class we want to write a builder for.
-            Set<VariableElement> buildableClasses = configClass.getEnclosedElements().stream().filter(c -> c.getKind().isField()).map(c -> ((VariableElement) c)).collect(Collectors.toSet());
+            List<VariableElement> buildableClasses = configClass.getEnclosedElements().stream().filter(c -> c.getKind().isField()).map(c -> ((VariableElement) c)).collect(Collectors.toList());
 
             if (findBuildables) {
                 for (VariableElement buildableClass : buildableClasses) {
@@ -115,7 +139,7 @@ public class BuildableSpecProcessor extends AbstractProcessor {
                 Buildable theBuildable = injectBuildable.value();
 
                 try {
-                    ClassFileWriter classWriter = new ClassFileWriter(theBuildable, classToBuild.getQualifiedName());
+                    ClassFileWriter classWriter = new ClassFileWriter(theBuildable, classToBuild, options, generatedFiles.index, initializers, generatedFiles.reflectionConfig);
                     classWriter.writeClassDeclaration();
                     classWriter.writeFactoryMethodAndConstructor();
 
@@ -138,7 +162,42 @@ public class BuildableSpecProcessor extends AbstractProcessor {
                     }
 
                     classWriter.writeBuildMethod(new ArrayList<>(fields.values()), constructor == null ? null : asList(constructor.value()));
-                    classWriter.finishClass(processingEnv.getFiler());
+
+                    final Map<VariableElement, BuiltWith> annotatedFields = new LinkedHashMap<>();
+                    for (String fieldName : fields.keySet()) {
+                        annotatedFields.put(fields.get(fieldName), fieldBuilders.get(fieldName));
+                    }
+
+                    if (theBuildable.generateFlyweight()) {
+                        final FlyweightWriter flyweightWriter = new FlyweightWriter(theBuildable, classToBuild, annotatedFields, processingEnv.getMessager());
+                        classWriter.writeFlyweightMethod(flyweightWriter);
+                        flyweightWriter.writeFlyweight();
+                        flyweightWriter.finishClass(filer);
+                    }
+
+                    classWriter.finishClass(filer);
+                    generatedFiles.add(classToBuild, theBuildable);
+
+                    if (theBuildable.generateCodec()) {
+                        if (constructor != null) {
+                            throw new IllegalStateException("A codec cannot decode constructor arguments of " + className);
+                        }
+                        final CodecWriter codecWriter = new CodecWriter(theBuildable, classToBuild, generatedFiles.reflectionConfig, processingEnv.getMessager());
+                        codecWriter.writeCodec(annotatedFields, allBuildables);
+                        codecWriter.finishClass(filer);
+                    }
+
+                    if (theBuildable.generateBatch()) {
+                        final BatchWriter batchWriter = new BatchWriter(theBuildable, classToBuild, processingEnv.getMessager());
+                        batchWriter.writeBatch(annotatedFields);
+                        batchWriter.finishClass(filer);
+                    }
+
+                    if (theBuildable.generateRowBinder()) {
+                        final RowBinderWriter rowBinderWriter = new RowBinderWriter(theBuildable, classToBuild, processingEnv.getMessager());
+                        rowBinderWriter.writeRowBinder(annotatedFields);
+                        rowBinderWriter.finishClass(filer);
+                    }
 
                 } catch (Exception e) {
                     this.processingEnv.getMessager().printMessage(
@@ -155,7 +214,7 @@ public class BuildableSpecProcessor extends AbstractProcessor {
     }
 
     private Map<String, VariableElement> determineFieldsToBuild(TypeElement clazz, List<String> excludedFields) {
-        Map<String, VariableElement> fields = clazz.getEnclosedElements().stream().filter(v -> v.getKind().isField()).map(v -> ((VariableElement) v)).collect(Collectors.toMap(f -> f.getSimpleName().toString(), f -> f));
+        Map<String, VariableElement> fields = clazz.getEnclosedElements().stream().filter(v -> v.getKind().isField()).map(v -> ((VariableElement) v)).collect(Collectors.toMap(f -> f.getSimpleName().toString(), f -> f, (a, b) -> a, LinkedHashMap::new));
         fields.entrySet().removeIf(e -> excludedFields.contains(e.getKey()));
 
         if (clazz.asType().getKind().isPrimitive()) {
@@ -6,76 +6,258 @@
 package buildable.annotation.processor;
 
 import java.io.IOException;
-import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
-import java.lang.reflect.Method;
 import java.lang.reflect.Type;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.ObjLongConsumer;
 import java.util.stream.Collectors;
 
 import javax.annotation.processing.Filer;
+import javax.lang.model.element.Element;
 import javax.lang.model.element.Modifier;
 import javax.lang.model.element.Name;
 import javax.lang.model.element.TypeElement;
 import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
 import javax.lang.model.type.MirroredTypeException;
+import javax.lang.model.type.TypeKind;
 import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
 
 import buildable.spec.BuildConstructor;
 import buildable.spec.ConstructorArg;
+import com.squareup.javapoet.AnnotationSpec;
 import com.squareup.javapoet.ArrayTypeName;
 import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.CodeBlock;
 import com.squareup.javapoet.FieldSpec;
 import com.squareup.javapoet.JavaFile;
 import com.squareup.javapoet.MethodSpec;
-import com.squareup.javapoet.ParameterSpec;
 import com.squareup.javapoet.ParameterizedTypeName;
 import com.squareup.javapoet.TypeName;
 import com.squareup.javapoet.TypeSpec;
+import com.squareup.javapoet.TypeVariableName;
+import com.squareup.javapoet.WildcardTypeName;
 
 import buildable.Builder;
+import buildable.metrics.BuildMetrics;
+import buildable.metrics.BuildMetricsRegistry;
+import buildable.pool.InstancePool;
+import buildable.pool.PooledFields;
+import buildable.pool.ThreadLocalInstancePool;
+import buildable.runtime.Accessors;
+import buildable.runtime.BuilderMeta;
+import buildable.runtime.FieldAccessor;
+import buildable.runtime.Interner;
+import buildable.runtime.PersistentSlots;
+import buildable.runtime.SparseSlots;
 import buildable.annotation.Buildable;
 import buildable.annotation.BuiltWith;
 
 import static buildable.annotation.processor.Util.capitalize;
+import static buildable.annotation.processor.Util.constantNameOf;
 import static buildable.annotation.processor.Util.createBuilderName;
+import static buildable.annotation.processor.Util.createFactoryMethodName;
+import static buildable.annotation.processor.Util.defaultValueOf;
+import static buildable.annotation.processor.Util.determineFluentMethodName;
+import static buildable.annotation.processor.Util.isRecord;
+import static buildable.annotation.processor.Util.literalTypeOf;
 import static buildable.annotation.processor.Util.packageNameOf;
-import static java.util.Arrays.asList;
+import static buildable.annotation.processor.Util.rawTypeNameOf;
 
 /**
  * Responsible for writing Builder class files.
+ *
+ * Also writes the abstract builder of each @BuildableSubclasses type, see {@link #forSubclassesOf}, which holds the
+ * type's fields so the builders of its subclasses extend it rather than each declaring them again.
  */
 public class ClassFileWriter {
 
-    private static final MethodSpec GET_DECLARED_FIELD_METHOD = createGetDeclaredFieldMethod();
+    /**
+     * Each writes a field in about 30 bytes of bytecode, so a helper of this many stays under the 325 bytes HotSpot
+     * inlines into hot callers.
+     */
+    private static final int FIELDS_PER_WRITE_METHOD = 8;
+    /**
+     * Each sets a slot in about 30 bytes of bytecode, so a helper of this many is well under HotSpot's 8000-byte
+     * HugeMethodLimit.
+     */
+    private static final int SLOTS_PER_SET_METHOD = 32;
+    private static final ClassName BUILD_EVENT = ClassName.get("buildable.jfr", "BuildEvent");
+    private static final ClassName BUILD_PUBLISHER = ClassName.get("buildable.flow", "BuildPublisher");
+    // named rather than referenced, as the processor runs on Java 8
+    private static final ClassName FLOW_PUBLISHER = ClassName.get("java.util.concurrent", "Flow", "Publisher");
+    private static final TypeName ANY_CLASS = ParameterizedTypeName.get(ClassName.get(Class.class), WildcardTypeName.subtypeOf(Object.class));
     private final Buildable theBuildable;
+    private final TypeElement builtElement;
+    private final boolean buildsRecord;
+    private final ProcessorOptions options;
+    private final BuildableIndex index;
+    private final FieldInitializers initializers;
+    private final ReflectionConfigWriter reflectionConfig;
+    private final Map<String, Integer> fieldBits = new LinkedHashMap<>();
+    private final Set<String> fieldsWithBuilderDefaults = new HashSet<>();
+    // sparse fields whose default is evaluated each time it's read, rather than held in a constant
+    private final Set<String> fieldsWithEvaluatedDefaults = new HashSet<>();
+    private final boolean forSubclasses;
+    // whether the builder holds its values in slots rather than fields, as sparse and immutable builders do
+    private final boolean sparse;
+    private final boolean immutable;
+    private final Map<String, TypeName> sparseTypes = new HashMap<>();
+    private final String maskPrefix;
+    private final TypeName selfType;
+    private final String self;
+    private ClassFileWriter parentBuilder;
     private TypeSpec.Builder builder;
     private ClassName builderClass;
     private ClassName builtClass;
     private String packageName;
 
-    public ClassFileWriter(Buildable theBuildable, Name qualifiedClassName) throws IOException {
+    public ClassFileWriter(Buildable theBuildable, TypeElement builtElement, ProcessorOptions options, BuildableIndex index,
+                           FieldInitializers initializers,
+                           ReflectionConfigWriter reflectionConfig) throws IOException {
+        this(theBuildable, builtElement, false, options, index, initializers, reflectionConfig);
+    }
+
+    private ClassFileWriter(Buildable theBuildable, TypeElement builtElement, boolean forSubclasses, ProcessorOptions options,
+                            BuildableIndex index, FieldInitializers initializers, ReflectionConfigWriter reflectionConfig) {
+        final Name qualifiedClassName = builtElement.getQualifiedName();
         this.theBuildable = theBuildable;
+        this.options = options;
+        this.index = index;
+        this.initializers = initializers;
+        this.reflectionConfig = reflectionConfig;
+        this.builtElement = builtElement;
+        this.buildsRecord = isRecord(builtElement);
         this.packageName = packageNameFromQualifiedName(qualifiedClassName);
         this.builtClass = ClassName.get(packageName, classNameFromQualifiedName(qualifiedClassName));
-        this.builderClass = ClassName.get(packageName, createBuilderName(theBuildable, classNameFromQualifiedName(qualifiedClassName)));
+        this.forSubclasses = forSubclasses;
+        this.immutable = theBuildable.immutable();
+        this.sparse = theBuildable.sparse() || immutable;
+        if (forSubclasses) {
+            this.builderClass = ClassName.get(packageName, "Abstract" + builtClass.simpleName() + "Builder");
+            this.maskPrefix = "set" + builtClass.simpleName() + "Fields";
+            this.selfType = TypeVariableName.get("B");
+            this.self = "self()";
+        } else {
+            this.builderClass = ClassName.get(packageName, createBuilderName(theBuildable, classNameFromQualifiedName(qualifiedClassName)));
+            this.maskPrefix = "setFields";
+            this.selfType = builderClass;
+            this.self = "this";
+        }
+    }
+
+    /**
+     * A writer of the abstract builder, named Abstract<i>Type</i>Builder, that the builders of the subclasses of a
+     * @BuildableSubclasses type extend. It declares the type's fields, their fluent methods and the protected
+     * write<i>Type</i>Fields() that writes them, and is generic in the built type T and the concrete builder B, whose
+     * self() its fluent methods return so calls can still be chained with those of the subclass. Its fields are set in
+     * mask words of its own, named after the type, so they keep their bits whichever subclass is built.
+     */
+    public static ClassFileWriter forSubclassesOf(TypeElement superclassElement, ProcessorOptions options, BuildableIndex index,
+                                                  FieldInitializers initializers, ReflectionConfigWriter reflectionConfig) {
+        return new ClassFileWriter(Util.defaultBuildable(), superclassElement, true, options, index, initializers, reflectionConfig);
+    }
+
+    /**
+     * Makes the builder extend the abstract builder of its @BuildableSubclasses superclass, which must have been
+     * written, leaving the fields that builder declares to it. Must be called before the class declaration is written.
+     */
+    public void extendParentBuilder(ClassFileWriter parentBuilder) {
+        if (!parentBuilder.forSubclasses) {
+            throw new IllegalArgumentException(parentBuilder.builderClass + " is not the builder of a @BuildableSubclasses type");
+        }
+        this.parentBuilder = parentBuilder;
     }
 
 
     public void writeClassDeclaration() throws IOException {
-        ParameterizedTypeName typeName = ParameterizedTypeName.get(ClassName.get(Builder.class), builtClass);
-        builder = TypeSpec.classBuilder(builderClass).addModifiers(Modifier.PUBLIC).addSuperinterface(typeName);
+        if (forSubclasses) {
+            writeParentClassDeclaration();
+            return;
+        }
+        if (immutable && (theBuildable.makeAbstract() || parentBuilder != null)) {
+            throw new IllegalStateException("The fluent methods of immutable builders return new builders of their own class, so "
+                    + builderClass + " can't be abstract or extend another builder");
+        }
+        builder = TypeSpec.classBuilder(builderClass).addModifiers(Modifier.PUBLIC);
+        if (parentBuilder != null) {
+            builder.superclass(ParameterizedTypeName.get(parentBuilder.builderClass, builtClass, builderClass))
+                    .addMethod(MethodSpec.methodBuilder("self")
+                            .addAnnotation(Override.class)
+                            .addModifiers(Modifier.PROTECTED)
+                            .returns(builderClass)
+                            .addStatement("return this")
+                            .build());
+        } else {
+            builder.addSuperinterface(ParameterizedTypeName.get(ClassName.get(Builder.class), builtClass));
+        }
 
         if (theBuildable.makeAbstract()) {
             builder.addModifiers(Modifier.ABSTRACT);
         }
+
+        if (options.isJfrEnabled() && parentBuilder == null && !immutable) {
+            builder.addField(int.class, "nestedBuilds", Modifier.PRIVATE);
+        }
+
+        if (immutable) {
+            builder.addAnnotation(AnnotationSpec.builder(SuppressWarnings.class).addMember("value", "$S", "unchecked").build())
+                    .addField(PersistentSlots.class, "slots", Modifier.PRIVATE, Modifier.FINAL);
+        } else if (sparse) {
+            builder.addAnnotation(AnnotationSpec.builder(SuppressWarnings.class).addMember("value", "$S", "unchecked").build())
+                    .addField(FieldSpec.builder(SparseSlots.class, "slots", Modifier.PRIVATE, Modifier.FINAL)
+                            .initializer("new $T()", SparseSlots.class)
+                            .build());
+        }
+    }
+
+    private void writeParentClassDeclaration() {
+        final TypeVariableName builtType = TypeVariableName.get("T", builtClass);
+        final TypeVariableName concreteBuilder = TypeVariableName.get("B",
+                ParameterizedTypeName.get(builderClass, TypeVariableName.get("T"), TypeVariableName.get("B")));
+        builder = TypeSpec.classBuilder(builderClass)
+                .addJavadoc("Builds the fields of $T for the builders of its subclasses, which extend this builder and pass\n"
+                        + "themselves as B.\n", builtClass)
+                .addModifiers(Modifier.PUBLIC, Modifier.ABSTRACT)
+                .addTypeVariable(builtType)
+                .addTypeVariable(concreteBuilder);
+        if (parentBuilder != null) {
+            builder.superclass(ParameterizedTypeName.get(parentBuilder.builderClass, TypeVariableName.get("T"), TypeVariableName.get("B")));
+        } else {
+            builder.addSuperinterface(ParameterizedTypeName.get(ClassName.get(Builder.class), TypeVariableName.get("T")));
+            if (options.isJfrEnabled()) {
+                builder.addField(int.class, "nestedBuilds", Modifier.PROTECTED);
+            }
+        }
     }
 
     public void writeFactoryMethodAndConstructor() throws IOException {
+        if (forSubclasses) {
+            builder.addMethod(MethodSpec.constructorBuilder().addModifiers(Modifier.PROTECTED).build());
+            if (parentBuilder == null) {
+                builder.addMethod(MethodSpec.methodBuilder("self")
+                        .addJavadoc("This builder, as the concrete builder its fluent methods return.\n")
+                        .addModifiers(Modifier.PROTECTED, Modifier.ABSTRACT)
+                        .returns(selfType)
+                        .build());
+            }
+            return;
+        }
+        if (immutable) {
+            writeImmutableFactoryMethodAndConstructor();
+            return;
+        }
         // honor the "factoryMethod" name in the @Buildable if not building an abstract clas
         if (!theBuildable.makeAbstract()) {
             MethodSpec factoryMethod = MethodSpec.methodBuilder(createFactoryMethodName(theBuildable, builtClass.simpleName()))
@@ -83,6 +265,9 @@ public class ClassFileWriter {
                     .returns(builderClass)
                     .addStatement("return new $T()", builderClass).build();
             builder.addMethod(factoryMethod);
+            if (options.isFlowEnabled()) {
+                writePublisherMethod(factoryMethod);
+            }
         }
 
         // if it's abstract, make the constructor protected, private otherwise
@@ -92,6 +277,47 @@ public class ClassFileWriter {
                 .build());
     }
 
+    /**
+     * Immutable builders are created with the slots they hold, starting from NO_SLOTS, which finishClass() declares
+     * once the number of slots is known. They have no publisher, as its customizers change the builder they're given.
+     */
+    private void writeImmutableFactoryMethodAndConstructor() {
+        builder.addMethod(MethodSpec.methodBuilder(createFactoryMethodName(theBuildable, builtClass.simpleName()))
+                .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                .returns(builderClass)
+                .addStatement("return new $T(NO_SLOTS)", builderClass)
+                .build());
+        builder.addMethod(MethodSpec.constructorBuilder()
+                .addModifiers(Modifier.PRIVATE)
+                .addParameter(PersistentSlots.class, "slots")
+                .addStatement("this.slots = slots")
+                .build());
+    }
+
+    /**
+     * Publishes instances built by new builders from the factory method, customized by their index, as they are
+     * requested, so a stream of any length never holds more of them than its subscriber asked for.
+     */
+    private void writePublisherMethod(MethodSpec factoryMethod) {
+        final TypeName customizer = ParameterizedTypeName.get(ClassName.get(ObjLongConsumer.class), WildcardTypeName.supertypeOf(builderClass));
+        builder.addMethod(MethodSpec.methodBuilder("publisher")
+                .addJavadoc("Publishes count instances, each built by a new builder the customizers are applied to in order, along\n"
+                        + "with the index of the instance.\n")
+                .addAnnotation(SafeVarargs.class)
+                .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                .returns(ParameterizedTypeName.get(FLOW_PUBLISHER, builtClass))
+                .addParameter(long.class, "count")
+                .addParameter(ArrayTypeName.of(customizer), "customizers")
+                .varargs()
+                // copied element by element, as handing on the array itself could pollute the heap
+                .addStatement("final $T<$T> all = new $T<>(customizers.length)", List.class, customizer, ArrayList.class)
+                .beginControlFlow("for ($T each : customizers)", customizer)
+                .addStatement("all.add(each)")
+                .endControlFlow()
+                .addStatement("return new $T<>(count, $T::$N, all)", BUILD_PUBLISHER, builderClass, factoryMethod)
+                .build());
+    }
+
     public void writeFluentElement(ConstructorArg arg, Map<TypeElement, Buildable> buildables) throws Exception {
         BuiltWith annotation = arg.value();
         TypeName className;
@@ -120,6 +346,11 @@ public class ClassFileWriter {
         String methodName = determineFluentMethodName(annotation, field.getSimpleName().toString());
         TypeMirror fieldType = field.asType();
 
+        // declared by the builder of the superclass
+        if (ownerOf(fieldName) != this) {
+            return;
+        }
+
         // write the field declaration
         writeField(fieldName, annotation, fieldClassName);
         writeSetter(fieldName, fieldType, annotation, hasBuiltWithSpecifications, fieldClassName, methodName);
@@ -127,7 +358,7 @@ public class ClassFileWriter {
     }
 
     private void writeSetter(String fieldName, TypeMirror fieldType, BuiltWith annotation, boolean hasBuiltWithSpecifications, TypeName fieldClassName, String methodName) {
-        MethodSpec.Builder fieldMethod = MethodSpec.methodBuilder(methodName).addModifiers(Modifier.PUBLIC).returns(builderClass);
+        MethodSpec.Builder fieldMethod = MethodSpec.methodBuilder(methodName).addModifiers(Modifier.PUBLIC).returns(selfType);
 
         if (hasBuiltWithSpecifications && annotation.overrideMethod() == BuiltWith.OverrideMethod.AddToList) {
             TypeName innerClass = ((ParameterizedTypeName) ParameterizedTypeName.get(fieldType)).typeArguments.get(0);
@@ -139,26 +370,31 @@ public class ClassFileWriter {
             } else {
                 listImpl = ClassName.get(packageNameFromQualifiedName(annotation.overrideClassifer()), classNameFromQualifiedName(annotation.overrideClassifer()));
             }
-            fieldMethod.addStatement("this.$L = new $T()", fieldName, listImpl);
-            fieldMethod.addStatement("$T.addAll(this.$L, $L)", Collections.class, fieldName, fieldName);
+            fieldMethod.addStatement("final $T list = new $T()", fieldClassName, listImpl);
+            fieldMethod.addStatement("$T.addAll(list, $L)", Collections.class, fieldName);
+            fieldMethod.addCode(assignAndReturn(fieldName, CodeBlock.of("list")));
             fieldMethod.varargs();
 
         } else {
             // write the fluent built-with method that takes in the instance of the field
             fieldMethod.addParameter(fieldClassName, fieldName);
-            fieldMethod.addStatement("this.$L = $L", fieldName, fieldName);
+            fieldMethod.addCode(assignAndReturn(fieldName, CodeBlock.of("$L", fieldName)));
         }
 
-        fieldMethod.addStatement("return this");
         builder.addMethod(fieldMethod.build());
     }
 
     private void writeField(String fieldName, BuiltWith annotation, TypeName fieldClassName) {
+        if (sparse) {
+            writeSparseField(fieldName, annotation, fieldClassName);
+            return;
+        }
         FieldSpec.Builder fieldBuilder = FieldSpec.builder(fieldClassName, fieldName)
-            .addModifiers(Modifier.PRIVATE);
+            .addModifiers(forSubclasses ? Modifier.PROTECTED : Modifier.PRIVATE);
 
         if (annotation != null) {
             if (!annotation.defaultValue().equals(BuiltWith.USE_SENSIBLE_DEFAULT)) {
+                fieldsWithBuilderDefaults.add(fieldName);
                 //If the Class of the field is String use a string substitution otherwise use a literal.
                 String sub = "java.lang.String".equals(fieldClassName.toString()) ? "$S" : "$L";
                 fieldBuilder.initializer(sub, annotation.defaultValue());
@@ -168,28 +404,82 @@ public class ClassFileWriter {
         builder.addField(fieldBuilder.build());
     }
 
+    /**
+     * Sparse builders declare the slot of each field in their SparseSlots, and a constant of its default when that
+     * is a literal, so reading an unset field doesn't box a primitive default again. Any other default is evaluated
+     * by a defaultOf method each time an unset field is read, so instances never share a mutable default.
+     */
+    private void writeSparseField(String fieldName, BuiltWith annotation, TypeName fieldClassName) {
+        sparseTypes.put(fieldName, fieldClassName);
+        builder.addField(FieldSpec.builder(int.class, constantNameOf(fieldName) + "_SLOT", Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                .initializer("$L", bitOf(fieldName))
+                .build());
+
+        final CodeBlock defaultValue;
+        if (annotation != null && !annotation.defaultValue().equals(BuiltWith.USE_SENSIBLE_DEFAULT)) {
+            fieldsWithBuilderDefaults.add(fieldName);
+            final TypeName literalType = literalTypeOf(annotation.defaultValue());
+            if ("java.lang.String".equals(fieldClassName.toString())) {
+                defaultValue = CodeBlock.of("$S", annotation.defaultValue());
+            } else if (!fieldClassName.isPrimitive() || literalType == null) {
+                fieldsWithEvaluatedDefaults.add(fieldName);
+                builder.addMethod(MethodSpec.methodBuilder(defaultMethodOf(fieldName))
+                        .addModifiers(Modifier.PRIVATE, Modifier.STATIC)
+                        .returns(fieldClassName)
+                        .addStatement("return $L", annotation.defaultValue())
+                        .build());
+                return;
+            } else if (!fieldClassName.equals(literalType)) {
+                // boxed as the field's type, which the literal is converted to first
+                defaultValue = CodeBlock.of("($T) $L", fieldClassName, annotation.defaultValue());
+            } else {
+                defaultValue = CodeBlock.of("$L", annotation.defaultValue());
+            }
+        } else if (fieldClassName.isPrimitive()) {
+            defaultValue = CodeBlock.of("$L", defaultValueOf(fieldClassName));
+        } else {
+            return;
+        }
+        builder.addField(FieldSpec.builder(fieldClassName.box(), constantNameOf(fieldName) + "_DEFAULT", Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                .initializer(defaultValue)
+                .build());
+    }
+
+    private static String defaultMethodOf(String fieldName) {
+        return "defaultOf" + capitalize(fieldName);
+    }
+
     /**
      * check each @Buildable, if the field itself is of a class marked @Buildable, we can overload
-     * the fluent built-with method to also accept its builder as a parameter
+     * the fluent built-with method to also accept its builder as a parameter. Builders generated by
+     * other modules are found through the index on the classpath.
      */
     private void writeMethodForFieldBuilderIfExists(String fieldName, TypeMirror fieldType, Map<TypeElement, Buildable> buildables, String methodName) {
         Optional<TypeElement> buildableVariable = buildables.keySet().stream().filter(eachBuildable -> eachBuildable.asType().equals(fieldType)).findFirst();
 
+        final Optional<ClassName> fieldBuildableClass;
         if (buildableVariable.isPresent()) {
             TypeElement variableClassElement = buildableVariable.get();
             final String packageNameOVariableBuilder = packageNameOf(variableClassElement.getQualifiedName());
             final Name classNameOfVariableBuilder = variableClassElement.getSimpleName();
             final Buildable variableBuildable = buildables.get(variableClassElement);
 
-            ClassName fieldBuildableClass = ClassName.get(packageNameOVariableBuilder, createBuilderName(variableBuildable, classNameOfVariableBuilder));
+            fieldBuildableClass = Optional.of(ClassName.get(packageNameOVariableBuilder, createBuilderName(variableBuildable, classNameOfVariableBuilder)));
+        } else {
+            fieldBuildableClass = fieldType == null ? Optional.empty() : index.builderOf(fieldType);
+        }
 
-            MethodSpec builderMethod = MethodSpec.methodBuilder(methodName).addModifiers(Modifier.PUBLIC)
-                    .returns(builderClass)
-                    .addParameter(fieldBuildableClass, fieldName + "Builder")
-                    .addStatement("this.$L = $L.build()", fieldName, fieldName + "Builder")
-                    .addStatement("return this").build();
+        if (fieldBuildableClass.isPresent()) {
+            MethodSpec.Builder builderMethod = MethodSpec.methodBuilder(methodName).addModifiers(Modifier.PUBLIC)
+                    .returns(selfType)
+                    .addParameter(fieldBuildableClass.get(), fieldName + "Builder");
+            if (options.isJfrEnabled() && !immutable) {
+                builderMethod.beginControlFlow("if ($T.isRecorded())", BUILD_EVENT)
+                        .addStatement("nestedBuilds++")
+                        .endControlFlow();
+            }
 
-            builder.addMethod(builderMethod);
+            builder.addMethod(builderMethod.addCode(assignAndReturn(fieldName, CodeBlock.of("$L.build()", fieldName + "Builder"))).build());
         }
     }
 
@@ -197,72 +487,611 @@ public class ClassFileWriter {
         writeBuildMethod(fieldsToBuild, new ArrayList<>());
     }
 
+    /**
+     * The abstract builder of a @BuildableSubclasses type builds nothing itself, so only writes its fields.
+     */
     public void writeBuildMethod(List<VariableElement> fieldsToBuild, List<ConstructorArg> args) throws IOException {
-        MethodSpec.Builder buildMethod = MethodSpec.methodBuilder("build")
-                .addAnnotation(ClassName.get(Override.class))
+        if (forSubclasses) {
+            writeFieldsMethod(fieldsToBuild);
+            return;
+        }
+        if (theBuildable.pooled() && (buildsRecord || (args != null && !args.isEmpty()))) {
+            throw new IllegalStateException("Only classes built with their no-arg constructor can be pooled, unlike " + builtClass);
+        }
+        if (sparse && theBuildable.generateFlyweight()) {
+            throw new IllegalStateException("Flyweights are written from every field of the builder, so " + builtClass
+                    + " can't have a flyweight and a sparse or immutable builder");
+        }
+        if (theBuildable.shared() && theBuildable.pooled()) {
+            throw new IllegalStateException("Shared instances can't be recycled, so " + builtClass + " can't be both shared and pooled");
+        }
+        if (buildsRecord) {
+            writeRecordBuildMethod(fieldsToBuild);
+            writeBuildSharedMethod(fieldsToBuild, args);
+            writeMetaClass(fieldsToBuild, args);
+            return;
+        }
+
+        MethodSpec.Builder buildMethod = createBuildMethodBuilder()
+                .beginControlFlow("try");
+
+        if (theBuildable.pooled()) {
+            buildMethod.addStatement("final $T recycled = instancePool.acquire()", builtClass)
+                    .addStatement("final $T instance = recycled != null ? recycled : $T.newInstance($T.class)", builtClass, Accessors.class, builtClass);
+            reflectionConfig.addConstructor(builtElement, Collections.emptyList());
+            writePoolMethods(fieldsToBuild);
+        } else if (args == null || args.isEmpty()) {
+            buildMethod.addStatement("final $T instance = $T.newInstance($T.class)", builtClass, Accessors.class, builtClass);
+            reflectionConfig.addConstructor(builtElement, Collections.emptyList());
+        } else {
+            final CodeBlock.Builder parameterTypes = CodeBlock.builder();
+            final CodeBlock.Builder arguments = CodeBlock.builder();
+            final List<TypeName> parameterTypeNames = new ArrayList<>();
+            for (int i = 0; i < args.size(); i++) {
+                parameterTypeNames.add(Util.extractTypeName(args.get(i)));
+                parameterTypes.add(i == 0 ? "$T.class" : ", $T.class", parameterTypeNames.get(i));
+                arguments.add(", $L", valueOf(args.get(i).name()));
+            }
+            reflectionConfig.addConstructor(builtElement, parameterTypeNames);
+            buildMethod.addStatement("final $T instance = $T.newInstance($T.class, new $T[]{$L}$L)", builtClass, Accessors.class,
+                    builtClass, ANY_CLASS, parameterTypes.build(), arguments.build());
+        }
+
+        buildMethod.addStatement("writeFields(instance, false)");
+        buildMethod.addStatement("return instance")
+                .nextControlFlow("catch ($T | $T e)", Exception.class, Error.class)
+                .addStatement("e.printStackTrace()")
+                .endControlFlow()
+                .addStatement("return null");
+
+
+        addBuildMethod(buildMethod);
+        writeFieldsMethod(fieldsToBuild);
+        writeApplyToMethods();
+        writeBuildSharedMethod(fieldsToBuild, args);
+        writeMetaClass(fieldsToBuild, args);
+    }
+
+    /**
+     * Shared builders look up the instance built from their state in an Interner before building a new one. The
+     * state is every field of the builder along with the mask of those set, since build() skips unset fields. Sparse
+     * builders give a mask of the slots set.
+     */
+    private void writeBuildSharedMethod(List<VariableElement> fieldsToBuild, List<ConstructorArg> args) {
+        if (!theBuildable.shared()) {
+            return;
+        }
+        final Map<String, TypeName> stateFields = new LinkedHashMap<>();
+        final Map<String, CodeBlock> stateValues = new LinkedHashMap<>();
+        if (sparse) {
+            stateFields.put("slots", ArrayTypeName.of(TypeName.LONG));
+            stateValues.put("slots", immutable ? CodeBlock.of("slots.mask()") : CodeBlock.of("slots.mask($L)", fieldBits.size()));
+        }
+        for (ClassFileWriter each = sparse ? parentBuilder : this; each != null; each = each.parentBuilder) {
+            for (int word = 0; word * 64 < each.fieldBits.size(); word++) {
+                stateFields.put(each.maskWordOf(word * 64), TypeName.LONG);
+                stateValues.put(each.maskWordOf(word * 64), CodeBlock.of("$L", each.maskWordOf(word * 64)));
+            }
+        }
+        for (VariableElement eachField : fieldsToBuild) {
+            stateFields.put(eachField.getSimpleName().toString(), TypeName.get(eachField.asType()));
+            stateValues.put(eachField.getSimpleName().toString(), valueOf(eachField.getSimpleName().toString()));
+        }
+        if (args != null) {
+            for (ConstructorArg eachArg : args) {
+                stateFields.put(eachArg.name(), Util.extractTypeName(eachArg));
+                stateValues.put(eachArg.name(), valueOf(eachArg.name()));
+            }
+        }
+
+        final MethodSpec.Builder stateHash = MethodSpec.methodBuilder("stateHash")
+                .addModifiers(Modifier.PRIVATE)
+                .returns(int.class)
+                .addStatement("int hash = 1");
+        for (Map.Entry<String, TypeName> each : stateFields.entrySet()) {
+            stateHash.addStatement("hash = 31 * hash + $L", hashOf(stateValues.get(each.getKey()), each.getValue()));
+        }
+        builder.addMethod(stateHash.addStatement("return hash").build());
+        final CodeBlock.Builder state = CodeBlock.builder();
+        String separator = "";
+        for (CodeBlock each : stateValues.values()) {
+            state.add(separator + "$L", each);
+            separator = ", ";
+        }
+
+        final TypeName internerType = ParameterizedTypeName.get(ClassName.get(Interner.class), builtClass);
+        builder.addField(FieldSpec.builder(internerType, "SHARED_INSTANCES", Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                .initializer("new $T<>()", Interner.class)
+                .build());
+        builder.addMethod(MethodSpec.methodBuilder("buildShared")
+                .addJavadoc("The instance built from this builder's state, which is only built if no builder with the same state\n"
+                        + "built one that is still in use.\n"
+                        + "<p>\n"
+                        + "The values this builder holds are kept as they are to find the instance again, not copied, so values\n"
+                        + "such as lists, arrays and nested instances must not be changed once it is built.\n"
+                        + "</p>\n")
+                .addModifiers(Modifier.PUBLIC)
                 .returns(builtClass)
+                .addStatement("return SHARED_INSTANCES.intern(stateHash(), new $T[]{$L}, this)", Object.class, state.build())
+                .build());
+    }
+
+    /**
+     * Writes the BuilderMeta that meta() returns, as a class nested in the builder so it can assign the builder's
+     * fields and mark them set directly, rather than through the fluent methods, some of which take varargs. Slots
+     * are the built fields followed by the constructor arguments, and slotOf() looks them up with a perfect hash of
+     * their names, or a switch on the name if two of them share a hash code.
+     */
+    private void writeMetaClass(List<VariableElement> fieldsToBuild, List<ConstructorArg> args) {
+        if (theBuildable.makeAbstract() || immutable) {
+            return;
+        }
+        final Map<String, TypeName> slots = new LinkedHashMap<>();
+        final Map<String, TypeName> rawTypes = new LinkedHashMap<>();
+        for (VariableElement eachField : fieldsToBuild) {
+            slots.put(eachField.getSimpleName().toString(), TypeName.get(eachField.asType()));
+            rawTypes.put(eachField.getSimpleName().toString(), rawTypeNameOf(eachField.asType()));
+        }
+        if (args != null) {
+            for (ConstructorArg eachArg : args) {
+                final TypeName type = Util.extractTypeName(eachArg);
+                slots.putIfAbsent(eachArg.name(), type);
+                rawTypes.putIfAbsent(eachArg.name(), type instanceof ParameterizedTypeName ? ((ParameterizedTypeName) type).rawType : type);
+            }
+        }
+        final List<String> names = new ArrayList<>(slots.keySet());
+        final CodeBlock.Builder classLiterals = CodeBlock.builder();
+        String separator = "";
+        for (TypeName each : rawTypes.values()) {
+            classLiterals.add(separator + "$T.class", each);
+            separator = ", ";
+        }
+        final ClassName metaClass = builderClass.nestedClass("Meta");
+        final TypeName metaType = ParameterizedTypeName.get(ClassName.get(BuilderMeta.class), builtClass, builderClass);
+
+        final TypeSpec.Builder meta = TypeSpec.classBuilder(metaClass)
+                .addModifiers(Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                .addSuperinterface(metaType)
+                .addField(FieldSpec.builder(ArrayTypeName.of(ANY_CLASS), "SLOT_TYPES", Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                        .initializer("{$L}", classLiterals.build())
+                        .build())
+                .addMethod(MethodSpec.methodBuilder("newBuilder")
+                        .addAnnotation(Override.class)
+                        .addModifiers(Modifier.PUBLIC)
+                        .returns(builderClass)
+                        .addStatement("return new $T()", builderClass)
+                        .build())
+                .addMethod(MethodSpec.methodBuilder("slotCount")
+                        .addAnnotation(Override.class)
+                        .addModifiers(Modifier.PUBLIC)
+                        .returns(int.class)
+                        .addStatement("return $L", names.size())
+                        .build())
+                .addMethod(MethodSpec.methodBuilder("nameOf")
+                        .addAnnotation(Override.class)
+                        .addModifiers(Modifier.PUBLIC)
+                        .returns(String.class)
+                        .addParameter(int.class, "slot")
+                        .addStatement("return SLOT_NAMES[slot]")
+                        .build())
+                .addMethod(MethodSpec.methodBuilder("typeOf")
+                        .addAnnotation(Override.class)
+                        .addModifiers(Modifier.PUBLIC)
+                        .returns(ANY_CLASS)
+                        .addParameter(int.class, "slot")
+                        .addStatement("return SLOT_TYPES[slot]")
+                        .build());
+
+        final MethodSpec.Builder slotOf = MethodSpec.methodBuilder("slotOf")
+                .addAnnotation(Override.class)
                 .addModifiers(Modifier.PUBLIC)
-                .beginControlFlow("try")
-                .addStatement("final $T clazz = $T.forName($T.class.getCanonicalName())", Class.class, Class.class, builtClass);
+                .returns(int.class)
+                .addParameter(String.class, "fieldName");
+        slotOf.addCode(lookUpByName(meta, "SLOT", names, "slot", CodeBlock.builder().addStatement("return slot").build()))
+                .addStatement("return -1");
+        meta.addMethod(slotOf.build());
 
-        if (args == null || args.isEmpty()) {
-            buildMethod.addStatement("final $T instance = ($T) clazz.newInstance()", builtClass, builtClass);
-        } else {
-            TypeName[] constructorArgTypes = args.stream().map(Util::extractTypeName).toArray(TypeName[]::new);
-            String[] constructorArgs = args.stream().map(ConstructorArg::name).toArray(String[]::new);
-
-            StringBuilder getConstructor = new StringBuilder("final $T<?> cons = clazz.getConstructor($T.class");
-            StringBuilder invoke= new StringBuilder("final $T instance = ($T) cons.newInstance($L");
-            for (int i = 0; i< args.size()-1; i++) {
-                getConstructor.append(",$T.class");
-                invoke.append(",$L");
+        addMetaSetMethods(meta, "set", TypeName.OBJECT, slots);
+        for (TypeName eachPrimitive : Arrays.asList(TypeName.INT, TypeName.LONG, TypeName.DOUBLE, TypeName.BOOLEAN)) {
+            if (slots.containsValue(eachPrimitive)) {
+                addMetaSetMethods(meta, "set" + capitalize(eachPrimitive.toString()), eachPrimitive, slots);
+            }
+        }
+
+        builder.addType(meta.build());
+        builder.addField(FieldSpec.builder(metaType, "META", Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                .initializer("new $T()", metaClass)
+                .build());
+        builder.addMethod(MethodSpec.methodBuilder("meta")
+                .addJavadoc("Sets this builder's fields by their index, for tools that populate builders by field name.\n")
+                .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                .returns(metaType)
+                .addStatement("return META")
+                .build());
+    }
+
+    /**
+     * Declares the names, in a prefix_NAMES array, and the tables of their {@link PerfectHash} in the type, and
+     * returns the code that looks up fieldName, running the found code with the index of the name in the variable if
+     * it's there and falling through otherwise.
+     */
+    private static CodeBlock lookUpByName(TypeSpec.Builder type, String prefix, List<String> names, String variable, CodeBlock found) {
+        final PerfectHash hash = PerfectHash.of(names);
+        type.addField(FieldSpec.builder(String[].class, prefix + "_NAMES", Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                        .initializer("{$L}", names.stream().map(each -> CodeBlock.of("$S", each).toString()).collect(Collectors.joining(", ")))
+                        .build())
+                .addField(intArrayField(prefix + "_DISPLACEMENTS", hash.displacements))
+                .addField(intArrayField(prefix + "_TABLE", hash.table));
+        final CodeBlock entry = CodeBlock.of("$L_TABLE[((hash ^ $L_DISPLACEMENTS[(hash * 0x$L) >>> $L]) * 0x$L) >>> $L]",
+                prefix, prefix, Integer.toHexString(PerfectHash.BUCKET_MULTIPLIER), hash.bucketShift,
+                Integer.toHexString(PerfectHash.SLOT_MULTIPLIER), hash.shift);
+        final CodeBlock.Builder lookUp = CodeBlock.builder().addStatement("final int hash = fieldName.hashCode()");
+        if (hash.sameHash == null) {
+            return lookUp.addStatement("final int $L = $L", variable, entry)
+                    .beginControlFlow("if ($L >= 0 && $L_NAMES[$L].equals(fieldName))", variable, prefix, variable)
+                    .add(found)
+                    .endControlFlow()
+                    .build();
+        }
+        type.addField(intArrayField(prefix + "_SAME_HASH", hash.sameHash));
+        return lookUp.beginControlFlow("for (int $L = $L; $L >= 0; $L = $L_SAME_HASH[$L])", variable, entry, variable, variable, prefix, variable)
+                .beginControlFlow("if ($L_NAMES[$L].equals(fieldName))", prefix, variable)
+                .add(found)
+                .endControlFlow()
+                .endControlFlow()
+                .build();
+    }
+
+    private static FieldSpec intArrayField(String name, int[] values) {
+        return FieldSpec.builder(int[].class, name, Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                .initializer("{$L}", Arrays.stream(values).mapToObj(String::valueOf).collect(Collectors.joining(", ")))
+                .build();
+    }
+
+    /**
+     * A setter of the slots whose fields have the value's type, every slot for Object values. Typed setters pass
+     * the slots of other fields on to set(), boxing the value.
+     * <p>
+     * Setters of more than {@value #SLOTS_PER_SET_METHOD} slots switch on which run of that many the slot is in, each
+     * run being set by a helper of its own, so that no setter of a wide class is too big for HotSpot to compile.
+     * </p>
+     */
+    private void addMetaSetMethods(TypeSpec.Builder meta, String methodName, TypeName valueType, Map<String, TypeName> slots) {
+        final List<Map.Entry<String, TypeName>> entries = new ArrayList<>(slots.entrySet());
+        if (entries.size() <= SLOTS_PER_SET_METHOD) {
+            meta.addMethod(createMetaSetMethod(methodName, valueType, entries, 0)
+                    .addAnnotation(Override.class)
+                    .addModifiers(Modifier.PUBLIC)
+                    .build());
+            return;
+        }
+
+        final MethodSpec.Builder set = metaSetMethodOf(methodName, valueType)
+                .addAnnotation(Override.class)
+                .addModifiers(Modifier.PUBLIC)
+                .beginControlFlow("switch (slot / $L)", SLOTS_PER_SET_METHOD);
+        for (int chunk = 0; chunk * SLOTS_PER_SET_METHOD < entries.size(); chunk++) {
+            final List<Map.Entry<String, TypeName>> chunkEntries = entries.subList(chunk * SLOTS_PER_SET_METHOD,
+                    Math.min(entries.size(), (chunk + 1) * SLOTS_PER_SET_METHOD));
+            if (!valueType.equals(TypeName.OBJECT) && chunkEntries.stream().noneMatch(each -> each.getValue().equals(valueType))) {
+                continue;
+            }
+            meta.addMethod(createMetaSetMethod(methodName + chunk, valueType, chunkEntries, chunk * SLOTS_PER_SET_METHOD)
+                    .addModifiers(Modifier.PRIVATE)
+                    .build());
+            set.addCode("case $L:\n", chunk).addCode(CodeBlock.builder().indent()
+                    .addStatement("$L$L(builder, slot, value)", methodName, chunk)
+                    .addStatement("return")
+                    .unindent().build());
+        }
+        meta.addMethod(set.addCode(defaultOfMetaSet(valueType)).endControlFlow().build());
+    }
+
+    /**
+     * A switch on the slot setting the fields of the entries, the first of which has the slot numbered firstSlot.
+     */
+    private MethodSpec.Builder createMetaSetMethod(String methodName, TypeName valueType, List<Map.Entry<String, TypeName>> entries, int firstSlot) {
+        final boolean anyType = valueType.equals(TypeName.OBJECT);
+        final MethodSpec.Builder set = metaSetMethodOf(methodName, valueType).beginControlFlow("switch (slot)");
+        if (anyType) {
+            set.addAnnotation(AnnotationSpec.builder(SuppressWarnings.class).addMember("value", "$S", "unchecked").build());
+        }
+        int slot = firstSlot;
+        for (Map.Entry<String, TypeName> each : entries) {
+            final int eachSlot = slot++;
+            if (!anyType && !each.getValue().equals(valueType)) {
+                continue;
             }
+            set.addCode("case $L:\n", eachSlot).addCode(CodeBlock.builder().indent()
+                    .add(assignAndMarkSet("builder.", each.getKey(), anyType
+                            ? CodeBlock.of("($T) value", each.getValue())
+                            : CodeBlock.of("value")))
+                    .addStatement("return")
+                    .unindent().build());
+        }
+        return set.addCode(defaultOfMetaSet(valueType)).endControlFlow();
+    }
 
-            List paramList = new ArrayList();
-            paramList.add(Constructor.class);
-            paramList.addAll(asList(constructorArgTypes));
-            buildMethod.addStatement(getConstructor.append(")").toString(), paramList.toArray());
+    private MethodSpec.Builder metaSetMethodOf(String methodName, TypeName valueType) {
+        return MethodSpec.methodBuilder(methodName)
+                .addParameter(builderClass, "builder")
+                .addParameter(int.class, "slot")
+                .addParameter(valueType, "value");
+    }
+
+    private CodeBlock defaultOfMetaSet(TypeName valueType) {
+        return CodeBlock.builder().add("default:\n").indent()
+                .addStatement("$L", valueType.equals(TypeName.OBJECT)
+                        ? CodeBlock.of("throw new $T($S + slot)", IndexOutOfBoundsException.class, "No slot in " + builderClass.simpleName() + " numbered ")
+                        : CodeBlock.of("set(builder, slot, value)"))
+                .unindent().build();
+    }
 
-            paramList.clear();
-            paramList.add(builtClass);
-            paramList.add(builtClass);
-            paramList.addAll(asList(constructorArgs));
-            buildMethod.addStatement(invoke.append(")").toString(), paramList.toArray());
+    private static CodeBlock hashOf(CodeBlock value, TypeName type) {
+        if (type.isPrimitive()) {
+            return CodeBlock.of("$T.hashCode($L)", type.box(), value);
         }
+        if (type instanceof ArrayTypeName) {
+            return ((ArrayTypeName) type).componentType.isPrimitive()
+                    ? CodeBlock.of("$T.hashCode($L)", Arrays.class, value)
+                    : CodeBlock.of("$T.deepHashCode($L)", Arrays.class, value);
+        }
+        return CodeBlock.of("$T.hashCode($L)", Objects.class, value);
+    }
 
+    /**
+     * Writes the builder's fields into an instance through the shared accessors of buildable.runtime, which use
+     * the field's setter if there is one. build() writes every field except those it can skip when unset,
+     * applyTo() only those that were set.
+     * <p>
+     * The fields of wide classes are written by helpers of {@value #FIELDS_PER_WRITE_METHOD} fields each, as HotSpot
+     * never compiles methods of more than 8000 bytes of bytecode, and a method of each field would be cut short of
+     * 64KB by a few thousand fields. The fields of @BuildableSubclasses superclasses are written by the method of
+     * the abstract builder that declares them.
+     * </p>
+     */
+    private void writeFieldsMethod(List<VariableElement> fieldsToBuild) {
+        final List<CodeBlock> fieldWrites = new ArrayList<>();
         for (VariableElement eachField : fieldsToBuild) {
-            String methodName = eachField.getSimpleName() + "Method";
-            String fieldName = eachField.getSimpleName() + "Field";
-
-            buildMethod.beginControlFlow("try")
-                    .addStatement("final $T $L = clazz.getDeclaredMethod($S, $L.class)", Method.class, methodName,
-                            "set" + capitalize(eachField.getSimpleName()), eachField.asType().toString().replaceAll
-                                    ("<[.,<>a-zA-Z0-9]*>", ""))
-                    .addStatement("$L.setAccessible(true)", methodName)
-                    .addStatement("$L.invoke(instance, $L)", methodName, eachField.getSimpleName())
-                    .nextControlFlow("catch ($T nsme)", NoSuchMethodException.class)
-                    .addStatement("final $T $L = $N(clazz, $S)", Field.class, fieldName, GET_DECLARED_FIELD_METHOD,
-                            eachField.getSimpleName().toString())
-                    .addStatement("$L.setAccessible(true)", fieldName)
-                    .addStatement("$L.set(instance, $L)", fieldName, eachField.getSimpleName())
-                    .addStatement("$L.setAccessible(false)", fieldName)
-                    .endControlFlow();
+            final String fieldName = eachField.getSimpleName().toString();
+            if (ownerOf(fieldName) != this) {
+                continue;
+            }
+            final String accessorName = constantNameOf(fieldName) + "_ACCESSOR";
+            builder.addField(FieldSpec.builder(FieldAccessor.class, accessorName, Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                    .initializer("$T.forField($T.class, $S, $T.class)", Accessors.class, builtClass, fieldName, rawTypeNameOf(eachField.asType()))
+                    .build());
+            reflectionConfig.addWrite(builtElement, eachField);
 
+            final CodeBlock.Builder write = CodeBlock.builder();
+            // the instance already holds the value of a field left unset, so don't write it
+            if (isSkippedWhenUnset(eachField)) {
+                write.beginControlFlow("if ($L)", isSet(fieldName));
+            } else {
+                write.beginControlFlow("if (!setOnly || $L)", isSet(fieldName));
+            }
+            fieldWrites.add(write.addStatement("$L.set(instance, $L)", accessorName, valueOf(fieldName))
+                    .endControlFlow()
+                    .build());
         }
 
-        buildMethod.addStatement("return instance")
-                .nextControlFlow("catch ($T | $T e)", Exception.class, Error.class)
-                .addStatement("e.printStackTrace()")
+        for (ClassFileWriter each = parentBuilder; each != null; each = each.parentBuilder) {
+            fieldWrites.add(CodeBlock.builder().addStatement("$L(instance, setOnly)", each.writeFieldsMethodName()).build());
+        }
+
+        final MethodSpec.Builder writeFields = forSubclasses
+                ? createWriteFieldsMethod(writeFieldsMethodName(), Modifier.PROTECTED, Modifier.FINAL)
+                : createWriteFieldsMethod(writeFieldsMethodName(), Modifier.PRIVATE);
+        if (fieldWrites.size() <= FIELDS_PER_WRITE_METHOD) {
+            fieldWrites.forEach(writeFields::addCode);
+        } else {
+            for (int chunk = 0; chunk * FIELDS_PER_WRITE_METHOD < fieldWrites.size(); chunk++) {
+                final MethodSpec.Builder writeChunk = createWriteFieldsMethod(writeFieldsMethodName() + chunk, Modifier.PRIVATE);
+                fieldWrites.subList(chunk * FIELDS_PER_WRITE_METHOD, Math.min(fieldWrites.size(), (chunk + 1) * FIELDS_PER_WRITE_METHOD))
+                        .forEach(writeChunk::addCode);
+                builder.addMethod(writeChunk.build());
+                writeFields.addStatement("$L$L(instance, setOnly)", writeFieldsMethodName(), chunk);
+            }
+        }
+        builder.addMethod(writeFields.build());
+    }
+
+    private String writeFieldsMethodName() {
+        return forSubclasses ? "write" + builtClass.simpleName() + "Fields" : "writeFields";
+    }
+
+    private MethodSpec.Builder createWriteFieldsMethod(String methodName, Modifier... modifiers) {
+        return MethodSpec.methodBuilder(methodName)
+                .addModifiers(modifiers)
+                .addParameter(builtClass, "instance", Modifier.FINAL)
+                .addParameter(boolean.class, "setOnly", Modifier.FINAL);
+    }
+
+    /**
+     * Pooled builders share an instance pool, which users may replace, and clear every instance field of the
+     * instances they recycle, built or not, so build() can skip unset fields of pooled instances as it does for new
+     * ones and no state of an instance's earlier use is left. As fields the builder doesn't write are only cleared,
+     * each must hold null, zero or false once constructed.
+     */
+    private void writePoolMethods(List<VariableElement> fieldsToBuild) {
+        final TypeName poolType = ParameterizedTypeName.get(ClassName.get(InstancePool.class), builtClass);
+        final Set<String> builtFieldNames = fieldsToBuild.stream()
+                .map(each -> each.getSimpleName().toString())
+                .collect(Collectors.toSet());
+        final CodeBlock.Builder fieldNames = CodeBlock.builder();
+        for (VariableElement eachField : instanceFieldsOf(builtElement)) {
+            if (!builtFieldNames.contains(eachField.getSimpleName().toString())
+                    && (eachField.getModifiers().contains(Modifier.FINAL) || !initializers.holdsDefaultValue(eachField))) {
+                throw new IllegalStateException("Recycled instances of " + builtClass + " would keep the value of "
+                        + eachField.getSimpleName() + ", which isn't built and is given a value when constructed, so they can't be pooled");
+            }
+            fieldNames.add(", $S", eachField.getSimpleName().toString());
+            reflectionConfig.addField(eachField, true);
+        }
+
+        builder.addField(FieldSpec.builder(poolType, "instancePool", Modifier.PRIVATE, Modifier.STATIC, Modifier.VOLATILE)
+                        .initializer("new $T<>()", ThreadLocalInstancePool.class)
+                        .build())
+                .addField(FieldSpec.builder(Field[].class, "RECYCLED_FIELDS", Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                        .initializer("$T.fieldsOf($T.class$L)", PooledFields.class, builtClass, fieldNames.build())
+                        .build());
+
+        builder.addMethod(MethodSpec.methodBuilder("useInstancePool")
+                .addJavadoc("Replaces the pool build() takes instances from and recycle() gives them back to.\n")
+                .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                .addParameter(poolType, "pool")
+                .addStatement("instancePool = $T.requireNonNull(pool)", Objects.class)
+                .build());
+
+        builder.addMethod(MethodSpec.methodBuilder("recycle")
+                .addJavadoc("Clears the fields of an instance that is no longer used and gives it back to the pool.\n")
+                .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                .addParameter(builtClass, "instance")
+                .addStatement("$T.clear(instance, RECYCLED_FIELDS)", PooledFields.class)
+                .addStatement("instancePool.release(instance)")
+                .build());
+    }
+
+    private static List<VariableElement> instanceFieldsOf(TypeElement type) {
+        final List<VariableElement> fields = new ArrayList<>();
+        for (TypeElement each = type; each != null; each = superclassOf(each)) {
+            for (VariableElement eachField : ElementFilter.fieldsIn(each.getEnclosedElements())) {
+                if (!eachField.getModifiers().contains(Modifier.STATIC)) {
+                    fields.add(eachField);
+                }
+            }
+        }
+        return fields;
+    }
+
+    private static TypeElement superclassOf(TypeElement type) {
+        final TypeMirror superclass = type.getSuperclass();
+        return superclass.getKind() == TypeKind.DECLARED ? (TypeElement) ((DeclaredType) superclass).asElement() : null;
+    }
+
+    private void writeApplyToMethods() {
+        builder.addMethod(MethodSpec.methodBuilder("applyTo")
+                .addJavadoc("Writes only the fields set on this builder into an existing instance, leaving the others as they are.\n")
+                .addModifiers(Modifier.PUBLIC)
+                .returns(builtClass)
+                .addParameter(builtClass, "target")
+                .addStatement("writeFields(target, true)")
+                .addStatement("return target")
+                .build());
+
+        builder.addMethod(MethodSpec.methodBuilder("applyTo")
+                .addJavadoc("Writes only the fields set on this builder into each of the instances.\n")
+                .addModifiers(Modifier.PUBLIC)
+                .addParameter(ParameterizedTypeName.get(ClassName.get(Iterable.class), WildcardTypeName.subtypeOf(builtClass)), "targets")
+                .beginControlFlow("for ($T target : targets)", builtClass)
+                .addStatement("applyTo(target)")
                 .endControlFlow()
-                .addStatement("return null");
+                .build());
+    }
 
 
-        builder.addMethod(buildMethod.build());
+    public void writeFlyweightMethod(FlyweightWriter flyweightWriter) {
+        builder.addMethod(flyweightWriter.createWriteToMethod());
     }
 
+    /**
+     * Records can't be assigned reflectively, so are built by calling the canonical constructor directly
+     * with each component in order. Components excluded from the builder get their type's default value.
+     */
+    private void writeRecordBuildMethod(List<VariableElement> fieldsToBuild) {
+        final List<String> builtNames = fieldsToBuild.stream().map(f -> f.getSimpleName().toString()).collect(Collectors.toList());
+        final List<CodeBlock> arguments = new ArrayList<>();
+        for (Element eachComponent : builtElement.getEnclosedElements()) {
+            if (!eachComponent.getKind().isField() || eachComponent.getModifiers().contains(Modifier.STATIC)) {
+                continue;
+            }
+            final String componentName = eachComponent.getSimpleName().toString();
+            if (builtNames.contains(componentName)) {
+                arguments.add(valueOf(componentName));
+            } else {
+                arguments.add(CodeBlock.of("$L", defaultValueOf(eachComponent.asType())));
+            }
+        }
+
+        final CodeBlock.Builder invocation = CodeBlock.builder().add("return new $T(", builtClass);
+        for (int i = 0; i < arguments.size(); i++) {
+            invocation.add(i == 0 ? "$L" : ", $L", arguments.get(i));
+        }
+
+        addBuildMethod(createBuildMethodBuilder().addStatement("$L)", invocation.build()));
+    }
+
+    /**
+     * When instrumenting, the instance is built by a private method that the public build() times.
+     */
+    private MethodSpec.Builder createBuildMethodBuilder() {
+        if (options.isInstrumented()) {
+            return MethodSpec.methodBuilder("buildInstance")
+                    .returns(builtClass)
+                    .addModifiers(Modifier.PRIVATE);
+        }
+        return MethodSpec.methodBuilder("build")
+                .addAnnotation(ClassName.get(Override.class))
+                .returns(builtClass)
+                .addModifiers(Modifier.PUBLIC);
+    }
+
+    private void addBuildMethod(MethodSpec.Builder buildMethod) {
+        builder.addMethod(buildMethod.build());
+        if (!options.isInstrumented()) {
+            return;
+        }
+
+        final MethodSpec.Builder instrumented = MethodSpec.methodBuilder("build")
+                .addAnnotation(ClassName.get(Override.class))
+                .returns(builtClass)
+                .addModifiers(Modifier.PUBLIC);
+        final CodeBlock.Builder onCompletion = CodeBlock.builder();
+
+        if (options.isJfrEnabled()) {
+            instrumented.addStatement("final $T event = new $T()", BUILD_EVENT, BUILD_EVENT)
+                    .addStatement("event.begin()");
+            onCompletion.addStatement("event.end()")
+                    .beginControlFlow("if (event.shouldCommit())")
+                    .addStatement("event.commit($T.class, $T.class, $L, $L)", builderClass, builtClass, countSet(), immutable ? "0" : "nestedBuilds")
+                    .endControlFlow();
+            if (!immutable) {
+                // the next build() of a reused builder only reports the builds nested since this one
+                onCompletion.addStatement("nestedBuilds = 0");
+            }
+        }
+
+        if (options.isMetricsEnabled()) {
+            builder.addField(FieldSpec.builder(BuildMetrics.class, "BUILD_METRICS", Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                    .initializer("$T.forBuilder($T.class)", BuildMetricsRegistry.class, builderClass)
+                    .build());
+            instrumented.addStatement("final long start = $T.nanoTime()", System.class)
+                    .addStatement("boolean built = false");
+            onCompletion.addStatement("BUILD_METRICS.record($T.nanoTime() - start, built)", System.class);
+        }
+
+        instrumented.beginControlFlow("try")
+                .addStatement("final $T instance = buildInstance()", builtClass);
+        if (options.isMetricsEnabled()) {
+            instrumented.addStatement("built = instance != null");
+        }
+        builder.addMethod(instrumented.addStatement("return instance")
+                .nextControlFlow("finally")
+                .addCode(onCompletion.build())
+                .endControlFlow()
+                .build());
+    }
 
     public void finishClass(Filer filer) throws IOException {
-        builder.addMethod(GET_DECLARED_FIELD_METHOD);
+        if (immutable) {
+            builder.addField(FieldSpec.builder(PersistentSlots.class, "NO_SLOTS", Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                    .initializer("$T.empty($L)", PersistentSlots.class, fieldBits.size())
+                    .build());
+        }
+        // the builders of subclasses look up the fields they don't declare in the isSet() of their superclass
+        if (!fieldBits.isEmpty() || forSubclasses) {
+            builder.addMethod(createIsSetMethod());
+        }
         JavaFile javaFile = JavaFile.builder(packageName, builder.build()).indent("\t").build();
 
         try {
@@ -272,57 +1101,195 @@ public class ClassFileWriter {
         }
     }
 
-    private static MethodSpec createGetDeclaredFieldMethod() {
-        ParameterSpec classParam = ParameterSpec.builder(Class.class, "clazz").build();
-        ParameterSpec fieldParam = ParameterSpec.builder(String.class, "fieldName").build();
-        return MethodSpec.methodBuilder("getDeclaredField")
-                .addException(NoSuchFieldException.class)
-                .addModifiers(Modifier.PRIVATE)
-                .returns(Field.class)
-                .addParameter(classParam).addParameter(fieldParam)
-                .beginControlFlow("try")
-                .addStatement("return $N.getDeclaredField($N)", classParam, fieldParam)
-                .nextControlFlow("catch ($T e)", NoSuchFieldException.class)
-                .addStatement("Class superclass = $N.getSuperclass();", classParam)
-                .beginControlFlow("if (superclass == null)")
-                .addStatement("throw e")
-                .nextControlFlow("else")
-                .addStatement("return getDeclaredField(superclass, $N)", fieldParam)
-                .endControlFlow()
-                .endControlFlow()
-                .build();
-    }
-
     public void writeCloneableMethod(List<VariableElement> elements) {
         MethodSpec.Builder clone = MethodSpec.methodBuilder(theBuildable.cloneMethod()).addModifiers(Modifier.PUBLIC)
                 .returns(builderClass)
                 .addParameter(builtClass, "original");
 
+        if (immutable) {
+            clone.addStatement("$T copied = slots", PersistentSlots.class);
+        }
         for (VariableElement eachFluently : elements) {
-            clone.addStatement("this.$L = $L.get$L()", eachFluently.getSimpleName(), "original", capitalize(eachFluently.getSimpleName()));
+            final String fieldName = eachFluently.getSimpleName().toString();
+            final CodeBlock value = buildsRecord
+                    ? CodeBlock.of("original.$L()", fieldName)
+                    : CodeBlock.of("original.get$L()", capitalize(fieldName));
+            if (immutable) {
+                clone.addStatement("copied = copied.with($L_SLOT, $L)", constantNameOf(fieldName), value);
+            } else {
+                clone.addCode(assignAndMarkSet("this.", fieldName, value));
+            }
+        }
+        if (immutable) {
+            clone.addStatement("return new $T(copied)", builderClass);
+        } else {
+            clone.addStatement("return this");
         }
-        clone.addStatement("return this");
         builder.addMethod(clone.build());
 
     }
 
-    private String determineFluentMethodName(final BuiltWith annotation, final String fieldName) {
-        if (annotation != null && !BuiltWith.USE_SENSIBLE_DEFAULT.equals(annotation.methodName())) {
-            return annotation.methodName();
+    /**
+     * Fields the caller never set are skipped by build() when the builder would only write the value the instance
+     * was constructed with anyway. Only the built type's own constructors are looked at, so the fields of
+     * superclasses, which the type's constructors might assign, and the fields written by the abstract builder of a
+     * @BuildableSubclasses type, which its subclasses' constructors might assign, are always written.
+     */
+    private boolean isSkippedWhenUnset(VariableElement field) {
+        final String fieldName = field.getSimpleName().toString();
+        return !forSubclasses
+                && builtElement.equals(field.getEnclosingElement())
+                && fieldBits.containsKey(fieldName)
+                && !fieldsWithBuilderDefaults.contains(fieldName)
+                && initializers.holdsDefaultValue(field);
+    }
+
+    /**
+     * Each field has a bit in the mask words setFields0, setFields1... declared as they are needed. The abstract
+     * builders of @BuildableSubclasses types name theirs after the type, such as setIdentifiedFields0.
+     */
+    private int bitOf(String fieldName) {
+        Integer bit = fieldBits.get(fieldName);
+        if (bit == null) {
+            bit = fieldBits.size();
+            fieldBits.put(fieldName, bit);
+            if (bit % 64 == 0 && !sparse) {
+                builder.addField(long.class, maskWordOf(bit), forSubclasses ? Modifier.PROTECTED : Modifier.PRIVATE);
+            }
+        }
+        return bit;
+    }
+
+    private String maskWordOf(int bit) {
+        return maskPrefix + (bit / 64);
+    }
+
+    /**
+     * The writer of the builder that declares the field, this one unless an abstract builder it extends does.
+     */
+    private ClassFileWriter ownerOf(String fieldName) {
+        for (ClassFileWriter each = parentBuilder; each != null; each = each.parentBuilder) {
+            if (each.fieldBits.containsKey(fieldName)) {
+                return each;
+            }
         }
-        return "with" + capitalize(fieldName);
+        return this;
     }
 
-    private String createFactoryMethodName(Buildable buildable, String className) {
-        if (buildable.factoryMethod().equals(Buildable.USE_SENSIBLE_DEFAULT)) {
-            if (className.matches("[AEIOUaeiou].*")) {
-                return "an" + className;
+    /**
+     * The statements assigning the field of the builder the qualifier refers to, "this." or "builder.", and marking
+     * it set. Sparse builders put the value in the field's slot instead, which marks it set as well.
+     */
+    private CodeBlock assignAndMarkSet(String qualifier, String fieldName, CodeBlock value) {
+        final ClassFileWriter owner = ownerOf(fieldName);
+        final int bit = owner.bitOf(fieldName);
+        if (owner.sparse) {
+            return CodeBlock.builder().addStatement("$Lslots.put($L_SLOT, $L)", qualifier, constantNameOf(fieldName), value).build();
+        }
+        return CodeBlock.builder()
+                .addStatement("$L$L = $L", qualifier, fieldName, value)
+                .addStatement("$L$L |= 1L << $L", qualifier, owner.maskWordOf(bit), bit % 64)
+                .build();
+    }
+
+    /**
+     * The statements of a fluent method that sets the field and returns the builder, a new one holding the value in
+     * the case of immutable builders.
+     */
+    private CodeBlock assignAndReturn(String fieldName, CodeBlock value) {
+        if (immutable) {
+            return CodeBlock.builder()
+                    .addStatement("return new $T(slots.with($L_SLOT, $L))", builderClass, constantNameOf(fieldName), value)
+                    .build();
+        }
+        return CodeBlock.builder()
+                .add(assignAndMarkSet("this.", fieldName, value))
+                .addStatement("return $L", self)
+                .build();
+    }
+
+    /**
+     * The value of the field held by this builder, read from its slot by sparse builders, which give the default of
+     * fields that were never set.
+     */
+    private CodeBlock valueOf(String fieldName) {
+        final ClassFileWriter owner = ownerOf(fieldName);
+        if (!owner.sparse) {
+            return CodeBlock.of("$L", fieldName);
+        }
+        final TypeName type = sparseTypes.get(fieldName);
+        if (fieldsWithEvaluatedDefaults.contains(fieldName)) {
+            return CodeBlock.of("(slots.contains($L_SLOT) ? ($T) slots.get($L_SLOT, null) : $L())", constantNameOf(fieldName), type,
+                    constantNameOf(fieldName), defaultMethodOf(fieldName));
+        }
+        final boolean hasDefault = type.isPrimitive() || fieldsWithBuilderDefaults.contains(fieldName);
+        return CodeBlock.of("(($T) slots.get($L_SLOT, $L))", type, constantNameOf(fieldName),
+                hasDefault ? constantNameOf(fieldName) + "_DEFAULT" : "null");
+    }
+
+    private CodeBlock isSet(String fieldName) {
+        final ClassFileWriter owner = ownerOf(fieldName);
+        final int bit = owner.bitOf(fieldName);
+        if (owner.sparse) {
+            return CodeBlock.of("slots.contains($L_SLOT)", constantNameOf(fieldName));
+        }
+        return CodeBlock.of("($L & 1L << $L) != 0", owner.maskWordOf(bit), bit % 64);
+    }
+
+    private CodeBlock countSet() {
+        final CodeBlock.Builder count = CodeBlock.builder();
+        String separator = "";
+        if (sparse) {
+            count.add("slots.size()");
+            separator = " + ";
+        }
+        for (ClassFileWriter each = sparse ? parentBuilder : this; each != null; each = each.parentBuilder) {
+            for (int word = 0; word * 64 < each.fieldBits.size(); word++) {
+                count.add(separator + "$T.bitCount($L)", Long.class, each.maskWordOf(word * 64));
+                separator = " + ";
+            }
+        }
+        return separator.isEmpty() ? CodeBlock.of("0") : count.build();
+    }
+
+    /**
+     * Finds the bit of the field with a {@link PerfectHash} of the names of the fields this builder declares and
+     * tests it in the mask word holding it, or the slots of sparse builders, as a switch on the names of a wide
+     * class would be too big for HotSpot to compile.
+     */
+    private MethodSpec createIsSetMethod() {
+        final MethodSpec.Builder isSet = MethodSpec.methodBuilder("isSet")
+                .addJavadoc("Whether the field was given a value through this builder, rather than left at its default.\n")
+                .addModifiers(Modifier.PUBLIC)
+                .returns(boolean.class)
+                .addParameter(String.class, "fieldName");
+        if (!fieldBits.isEmpty()) {
+            final CodeBlock.Builder found = CodeBlock.builder();
+            if (sparse) {
+                found.addStatement("return slots.contains(bit)");
+            } else if (fieldBits.size() <= 64) {
+                found.addStatement("return ($L & 1L << bit) != 0", maskWordOf(0));
             } else {
-                return "a" + className;
+                found.beginControlFlow("switch (bit / 64)");
+                for (int word = 0; word * 64 < fieldBits.size(); word++) {
+                    found.add((word + 1) * 64 < fieldBits.size() ? CodeBlock.of("case $L:\n", word) : CodeBlock.of("default:\n"))
+                            .indent()
+                            .addStatement("return ($L & 1L << bit) != 0", maskWordOf(word * 64))
+                            .unindent();
+                }
+                found.endControlFlow();
             }
+            isSet.addCode(lookUpByName(builder, "FIELD", new ArrayList<>(fieldBits.keySet()), "bit", found.build()));
+        }
+
+        if (parentBuilder != null) {
+            isSet.addStatement("return super.isSet(fieldName)");
+        } else if (forSubclasses) {
+            isSet.addStatement("throw new $T(\"No field in \" + getClass().getSimpleName() + \" named \" + fieldName)", IllegalArgumentException.class);
         } else {
-            return buildable.factoryMethod();
+            isSet.addStatement("throw new $T($S + fieldName)", IllegalArgumentException.class, "No field in " + builderClass.simpleName() + " named ");
         }
+        return isSet.build();
     }
 
     private String packageNameFromQualifiedName(Name qualifiedName) {
@@ -0,0 +1,162 @@
+package buildable.annotation.processor;
+
+import buildable.Builder;
+import buildable.codec.BinaryEncoding;
+import buildable.codec.Codec;
+import buildable.codec.FixtureStore;
+import buildable.metrics.BuildMetrics;
+import buildable.metrics.BuildMetricsRegistry;
+import buildable.metrics.LatencyHistogram;
+import buildable.pool.InstancePool;
+import buildable.pool.PooledFields;
+import buildable.pool.ThreadLocalInstancePool;
+import buildable.row.DelimitedReader;
+import buildable.row.DelimitedRow;
+import buildable.row.RowBinder;
+import buildable.runtime.Accessors;
+import buildable.runtime.BuilderMeta;
+import buildable.runtime.BuilderRegistry;
+import buildable.runtime.Builders;
+import buildable.runtime.FieldAccessor;
+import buildable.runtime.Interner;
+import buildable.runtime.PersistentSlots;
+import buildable.runtime.SparseSlots;
+
+import javax.annotation.processing.Filer;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.tools.FileObject;
+import javax.tools.JavaFileManager;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardLocation;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+/**
+ * Writes the AppCDS class list of the classes this compilation generated, the types they build and the runtime
+ * classes they use to {@value #LOCATION}.
+ * <p>
+ * The list has one class per line in the internal form <code>-XX:SharedClassListFile</code> expects. The processors
+ * write through {@link #recording(Filer)}, which notes every source file created, and once processing is over each
+ * generated type is looked up to list its nested classes too. The <code>buildableCdsArchive</code> task of
+ * <code>buildable/gradle/appcds.gradle</code> merges the lists on an application's classpath into an archive.
+ * </p>
+ */
+public class ClassListWriter {
+
+    public static final String LOCATION = "META-INF/buildable/classlist";
+
+    /**
+     * The classes generated code calls into, listed whether or not a builder uses them, since archiving a class that
+     * isn't loaded costs nothing at runtime. JFR events, like buildable-jfr's BuildEvent, can't be archived.
+     */
+    private static final List<Class<?>> RUNTIME_CLASSES = Arrays.asList(
+            Builder.class, Accessors.class, FieldAccessor.class, BuilderMeta.class, BuilderRegistry.class, Builders.class,
+            Interner.class, SparseSlots.class, PersistentSlots.class, InstancePool.class, ThreadLocalInstancePool.class, PooledFields.class,
+            Codec.class, BinaryEncoding.class, FixtureStore.class, RowBinder.class, DelimitedRow.class, DelimitedReader.class,
+            BuildMetrics.class, BuildMetricsRegistry.class, LatencyHistogram.class);
+
+    private final Set<String> generatedTypes = new LinkedHashSet<>();
+    private final Set<TypeElement> builtTypes = new LinkedHashSet<>();
+
+    /**
+     * Records a type a builder was generated for, which is loaded along with its builder.
+     */
+    public void addBuiltType(TypeElement builtType) {
+        builtTypes.add(builtType);
+    }
+
+    /**
+     * The filer, noting the name of each source file created through it.
+     */
+    public Filer recording(Filer filer) {
+        return new Filer() {
+            @Override
+            public JavaFileObject createSourceFile(CharSequence name, Element... originatingElements) throws IOException {
+                final JavaFileObject source = filer.createSourceFile(name, originatingElements);
+                generatedTypes.add(name.toString());
+                return source;
+            }
+
+            @Override
+            public JavaFileObject createClassFile(CharSequence name, Element... originatingElements) throws IOException {
+                return filer.createClassFile(name, originatingElements);
+            }
+
+            @Override
+            public FileObject createResource(JavaFileManager.Location location, CharSequence moduleAndPkg, CharSequence relativeName,
+                                             Element... originatingElements) throws IOException {
+                return filer.createResource(location, moduleAndPkg, relativeName, originatingElements);
+            }
+
+            @Override
+            public FileObject getResource(JavaFileManager.Location location, CharSequence moduleAndPkg, CharSequence relativeName) throws IOException {
+                return filer.getResource(location, moduleAndPkg, relativeName);
+            }
+        };
+    }
+
+    /**
+     * Writes the list, once the types generated in the last round have been compiled so their nested classes can
+     * be found.
+     */
+    public void write(Filer filer, Elements elements) throws IOException {
+        if (generatedTypes.isEmpty()) {
+            return;
+        }
+        final FileObject resource = filer.createResource(StandardLocation.CLASS_OUTPUT, "", LOCATION);
+        try (Writer writer = resource.openWriter()) {
+            for (String each : classNames(elements)) {
+                writer.write(each.replace('.', '/') + "\n");
+            }
+        }
+    }
+
+    /**
+     * The binary names of the listed classes, sorted so the file is reproducible.
+     */
+    SortedSet<String> classNames(Elements elements) {
+        final SortedSet<String> classNames = new TreeSet<>();
+        for (String each : generatedTypes) {
+            final TypeElement type = elements.getTypeElement(each);
+            if (type == null) {
+                // generated in the final round, so never compiled
+                classNames.add(each);
+            } else {
+                addWithNestedTypes(type, elements, classNames);
+            }
+        }
+        for (TypeElement each : builtTypes) {
+            classNames.add(elements.getBinaryName(each).toString());
+        }
+        for (Class<?> each : RUNTIME_CLASSES) {
+            addWithNestedClasses(each, classNames);
+        }
+        return classNames;
+    }
+
+    private static void addWithNestedTypes(TypeElement type, Elements elements, Set<String> classNames) {
+        classNames.add(elements.getBinaryName(type).toString());
+        for (TypeElement each : ElementFilter.typesIn(type.getEnclosedElements())) {
+            if (each.getKind() == ElementKind.CLASS || each.getKind() == ElementKind.INTERFACE || each.getKind() == ElementKind.ENUM) {
+                addWithNestedTypes(each, elements, classNames);
+            }
+        }
+    }
+
+    private static void addWithNestedClasses(Class<?> type, Set<String> classNames) {
+        classNames.add(type.getName());
+        for (Class<?> each : type.getDeclaredClasses()) {
+            addWithNestedClasses(each, classNames);
+        }
+    }
+}
@@ -0,0 +1,389 @@
+package buildable.annotation.processor;
+
+import buildable.annotation.Buildable;
+import buildable.annotation.BuiltWith;
+import buildable.codec.BinaryEncoding;
+import buildable.codec.Codec;
+import buildable.codec.FixtureStore;
+import com.squareup.javapoet.ArrayTypeName;
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.FieldSpec;
+import com.squareup.javapoet.JavaFile;
+import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.ParameterizedTypeName;
+import com.squareup.javapoet.TypeName;
+import com.squareup.javapoet.TypeSpec;
+import com.squareup.javapoet.WildcardTypeName;
+
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.Messager;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static buildable.annotation.processor.Util.capitalize;
+import static buildable.annotation.processor.Util.constantNameOf;
+import static buildable.annotation.processor.Util.createBuilderName;
+import static buildable.annotation.processor.Util.createFactoryMethodName;
+import static buildable.annotation.processor.Util.determineFluentMethodName;
+import static buildable.annotation.processor.Util.isRecord;
+import static buildable.annotation.processor.Util.packageNameOf;
+import static buildable.annotation.processor.Util.primitiveKindOf;
+import static javax.tools.Diagnostic.Kind.NOTE;
+
+/**
+ * Responsible for writing the binary Codec class files of types whose @Buildable specifies generateCodec().
+ */
+public class CodecWriter {
+
+    private final Buildable theBuildable;
+    private final TypeElement builtElement;
+    private final Messager messager;
+    private final ReflectionConfigWriter reflectionConfig;
+    private final String packageName;
+    private final ClassName builtClass;
+    private final ClassName builderClass;
+    private final ClassName codecClass;
+    private final Set<String> enumConstants = new LinkedHashSet<>();
+    private TypeSpec.Builder codec;
+
+    public CodecWriter(Buildable theBuildable, TypeElement builtElement, ReflectionConfigWriter reflectionConfig, Messager messager) {
+        this.theBuildable = theBuildable;
+        this.reflectionConfig = reflectionConfig;
+        this.builtElement = builtElement;
+        this.messager = messager;
+        this.packageName = packageNameOf(builtElement.getQualifiedName());
+        this.builtClass = ClassName.get(packageName, builtElement.getSimpleName().toString());
+        this.builderClass = ClassName.get(packageName, createBuilderName(theBuildable, builtElement.getSimpleName()));
+        this.codecClass = codecClassOf(builtElement);
+    }
+
+    public static ClassName codecClassOf(TypeElement builtElement) {
+        return ClassName.get(packageNameOf(builtElement.getQualifiedName()), builtElement.getSimpleName() + "Codec");
+    }
+
+    public void writeCodec(Map<VariableElement, BuiltWith> fieldsToEncode, Map<TypeElement, Buildable> buildables) {
+        if (theBuildable.makeAbstract()) {
+            throw new IllegalStateException("A codec cannot decode into the abstract builder " + builderClass);
+        }
+
+        codec = TypeSpec.classBuilder(codecClass)
+                .addModifiers(Modifier.PUBLIC, Modifier.FINAL)
+                .addSuperinterface(ParameterizedTypeName.get(ClassName.get(Codec.class), builtClass))
+                .addField(FieldSpec.builder(codecClass, "INSTANCE", Modifier.PUBLIC, Modifier.STATIC, Modifier.FINAL)
+                        .initializer("new $T()", codecClass).build())
+                .addMethod(MethodSpec.constructorBuilder().addModifiers(Modifier.PRIVATE).build());
+
+        MethodSpec.Builder encode = MethodSpec.methodBuilder("encode")
+                .addAnnotation(Override.class)
+                .addModifiers(Modifier.PUBLIC)
+                .addParameter(builtClass, "instance")
+                .addParameter(ByteBuffer.class, "out");
+
+        MethodSpec.Builder decodeBuilder = MethodSpec.methodBuilder("decodeBuilder")
+                .addAnnotation(Override.class)
+                .addModifiers(Modifier.PUBLIC)
+                .returns(builderClass)
+                .addParameter(ByteBuffer.class, "in")
+                .addStatement("$T builder = $T.$L()", builderClass, builderClass,
+                        createFactoryMethodName(theBuildable, builtClass.simpleName()));
+
+        for (Map.Entry<VariableElement, BuiltWith> eachField : fieldsToEncode.entrySet()) {
+            final VariableElement field = eachField.getKey();
+            final BuiltWith annotation = eachField.getValue();
+            final String fieldName = field.getSimpleName().toString();
+            final TypeMirror fieldType = field.asType();
+
+            if (annotation != null && annotation.overrideMethod() == BuiltWith.OverrideMethod.AddToList) {
+                skip(field, "its builder method takes varargs");
+                continue;
+            }
+
+            final CodeBlock readValue = readFrom(fieldType, buildables);
+            if (readValue == null) {
+                skip(field, "the type " + fieldType + " has no binary encoding");
+                continue;
+            }
+
+            final String local = localNameOf(fieldName);
+            encode.addStatement("final $T $L = $L", TypeName.get(fieldType), local, accessorOf(field));
+            encode.addCode(writeTo(fieldType, local, buildables));
+            decodeBuilder.addStatement("builder = builder.$L($L)", determineFluentMethodName(annotation, fieldName), readValue);
+        }
+
+        decodeBuilder.addStatement("return builder");
+
+        codec.addMethod(encode.build());
+        codec.addMethod(MethodSpec.methodBuilder("decode")
+                .addAnnotation(Override.class)
+                .addModifiers(Modifier.PUBLIC)
+                .returns(builtClass)
+                .addParameter(ByteBuffer.class, "in")
+                .addStatement("return decodeBuilder(in).build()")
+                .build());
+        codec.addMethod(decodeBuilder.build());
+        writeFixtureMethods();
+    }
+
+    /**
+     * Fixture stores of the type are written and opened through its codec, so records decode into its builder.
+     */
+    private void writeFixtureMethods() {
+        codec.addMethod(MethodSpec.methodBuilder("writeFixtures")
+                .addJavadoc("Writes the instances to a fixture store, to be opened with openFixtures().\n")
+                .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                .addParameter(Path.class, "file")
+                .addParameter(ParameterizedTypeName.get(ClassName.get(Iterable.class), WildcardTypeName.subtypeOf(builtClass)), "instances")
+                .addException(IOException.class)
+                .addStatement("$T.write(file, $T.class, INSTANCE, instances)", FixtureStore.class, builtClass)
+                .build());
+        codec.addMethod(MethodSpec.methodBuilder("openFixtures")
+                .addJavadoc("Maps a fixture store written by writeFixtures(), decoding only the records that are used.\n")
+                .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                .returns(ParameterizedTypeName.get(ClassName.get(FixtureStore.class), builtClass, builderClass))
+                .addParameter(Path.class, "file")
+                .addException(IOException.class)
+                .addStatement("return $T.open(file, $T.class, INSTANCE::decodeBuilder)", FixtureStore.class, builtClass)
+                .build());
+    }
+
+    public void finishClass(Filer filer) throws IOException {
+        JavaFile javaFile = JavaFile.builder(packageName, codec.build()).indent("\t").build();
+
+        try {
+            javaFile.writeTo(filer);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private CodeBlock writeTo(TypeMirror type, String local, Map<TypeElement, Buildable> buildables) {
+        final CodeBlock.Builder code = CodeBlock.builder();
+        if (type.getKind().isPrimitive()) {
+            return code.addStatement("$L", writePrimitive(type.getKind(), local)).build();
+        }
+
+        final String typeName = qualifiedNameOf(type);
+        final TypeKind unboxed = primitiveKindOf(type);
+        if (unboxed != null) {
+            return code.beginControlFlow("if ($T.putPresence(out, $L))", BinaryEncoding.class, local)
+                    .addStatement("$L", writePrimitive(unboxed, local))
+                    .endControlFlow()
+                    .build();
+        }
+
+        switch (typeName) {
+            case "java.lang.String":
+                return code.addStatement("$T.putString(out, $L)", BinaryEncoding.class, local).build();
+            case "java.util.UUID":
+                return code.addStatement("$T.putUuid(out, $L)", BinaryEncoding.class, local).build();
+            case "java.util.Date":
+                return code.addStatement("$T.putDate(out, $L)", BinaryEncoding.class, local).build();
+            default:
+                break;
+        }
+
+        if (isEnum(type)) {
+            return code.addStatement("$T.putEnum(out, $L)", BinaryEncoding.class, local).build();
+        }
+
+        return code.beginControlFlow("if ($T.putPresence(out, $L))", BinaryEncoding.class, local)
+                .addStatement("$T.INSTANCE.encode($L, out)", nestedCodecOf(type, buildables).get(), local)
+                .endControlFlow()
+                .build();
+    }
+
+    private CodeBlock writePrimitive(TypeKind kind, String local) {
+        switch (kind) {
+            case BOOLEAN:
+                return CodeBlock.of("out.put($L ? (byte) 1 : (byte) 0)", local);
+            case BYTE:
+                return CodeBlock.of("out.put($L)", local);
+            case SHORT:
+            case INT:
+                return CodeBlock.of("$T.putSignedVarInt(out, $L)", BinaryEncoding.class, local);
+            case CHAR:
+                return CodeBlock.of("$T.putVarInt(out, $L)", BinaryEncoding.class, local);
+            case LONG:
+                return CodeBlock.of("$T.putSignedVarLong(out, $L)", BinaryEncoding.class, local);
+            case FLOAT:
+                return CodeBlock.of("out.putFloat($L)", local);
+            case DOUBLE:
+                return CodeBlock.of("out.putDouble($L)", local);
+            default:
+                throw new IllegalArgumentException("Not a primitive: " + kind);
+        }
+    }
+
+    /**
+     * @return an expression reading a value of the type from the buffer "in", or null if the type has no encoding.
+     */
+    private CodeBlock readFrom(TypeMirror type, Map<TypeElement, Buildable> buildables) {
+        if (type.getKind().isPrimitive()) {
+            return readPrimitive(type.getKind());
+        }
+        if (type.getKind() != TypeKind.DECLARED) {
+            return null;
+        }
+
+        final String typeName = qualifiedNameOf(type);
+        final TypeKind unboxed = primitiveKindOf(type);
+        if (unboxed != null) {
+            return CodeBlock.of("$T.getPresence(in) ? $L : null", BinaryEncoding.class, readPrimitive(unboxed));
+        }
+
+        switch (typeName) {
+            case "java.lang.String":
+                return CodeBlock.of("$T.getString(in)", BinaryEncoding.class);
+            case "java.util.UUID":
+                return CodeBlock.of("$T.getUuid(in)", BinaryEncoding.class);
+            case "java.util.Date":
+                return CodeBlock.of("$T.getDate(in)", BinaryEncoding.class);
+            default:
+                break;
+        }
+
+        if (isEnum(type)) {
+            final String valuesConstant = constantNameOf(((DeclaredType) type).asElement().getSimpleName().toString()) + "_VALUES";
+            if (enumConstants.add(valuesConstant)) {
+                codec.addField(FieldSpec.builder(ArrayTypeName.of(TypeName.get(type)), valuesConstant,
+                        Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                        .initializer("$T.values()", TypeName.get(type)).build());
+            }
+            return CodeBlock.of("$T.getEnum(in, $L)", BinaryEncoding.class, valuesConstant);
+        }
+
+        final Optional<ClassName> nestedCodec = nestedCodecOf(type, buildables);
+        if (nestedCodec.isPresent()) {
+            return CodeBlock.of("$T.getPresence(in) ? $T.INSTANCE.decode(in) : null", BinaryEncoding.class, nestedCodec.get());
+        }
+        return null;
+    }
+
+    private CodeBlock readPrimitive(TypeKind kind) {
+        switch (kind) {
+            case BOOLEAN:
+                return CodeBlock.of("in.get() != 0");
+            case BYTE:
+                return CodeBlock.of("in.get()");
+            case SHORT:
+                return CodeBlock.of("(short) $T.getSignedVarInt(in)", BinaryEncoding.class);
+            case INT:
+                return CodeBlock.of("$T.getSignedVarInt(in)", BinaryEncoding.class);
+            case CHAR:
+                return CodeBlock.of("(char) $T.getVarInt(in)", BinaryEncoding.class);
+            case LONG:
+                return CodeBlock.of("$T.getSignedVarLong(in)", BinaryEncoding.class);
+            case FLOAT:
+                return CodeBlock.of("in.getFloat()");
+            case DOUBLE:
+                return CodeBlock.of("in.getDouble()");
+            default:
+                throw new IllegalArgumentException("Not a primitive: " + kind);
+        }
+    }
+
+    /**
+     * Reads the field from "instance" directly if visible to the codec, through a getter if one exists,
+     * or reflectively as a last resort.
+     */
+    private CodeBlock accessorOf(VariableElement field) {
+        if (isVisible(field)) {
+            return CodeBlock.of("instance.$L", field.getSimpleName());
+        }
+
+        final Optional<ExecutableElement> getter = findGetter(field);
+        if (getter.isPresent()) {
+            return CodeBlock.of("instance.$L()", getter.get().getSimpleName());
+        }
+
+        final String fieldConstant = constantNameOf(field.getSimpleName().toString()) + "_FIELD";
+        codec.addField(FieldSpec.builder(Field.class, fieldConstant, Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                .initializer("$T.accessibleField($T.class, $S)", BinaryEncoding.class, builtClass, field.getSimpleName())
+                .build());
+        reflectionConfig.addField(field, false);
+        return CodeBlock.of("($T) $T.read($L, instance)", TypeName.get(field.asType()).box(), BinaryEncoding.class, fieldConstant);
+    }
+
+    private Optional<ExecutableElement> findGetter(VariableElement field) {
+        final String capitalized = capitalize(field.getSimpleName());
+        TypeMirror current = builtElement.asType();
+        while (current.getKind() == TypeKind.DECLARED) {
+            final TypeElement type = (TypeElement) ((DeclaredType) current).asElement();
+            for (Element each : type.getEnclosedElements()) {
+                if (each.getKind() != ElementKind.METHOD || !isVisible(each)) {
+                    continue;
+                }
+                final ExecutableElement method = (ExecutableElement) each;
+                final String name = method.getSimpleName().toString();
+                final boolean isRecordAccessor = isRecord(type) && name.equals(field.getSimpleName().toString());
+                if ((name.equals("get" + capitalized) || name.equals("is" + capitalized) || isRecordAccessor)
+                        && method.getParameters().isEmpty()
+                        && !method.getModifiers().contains(Modifier.STATIC)
+                        && method.getReturnType().toString().equals(field.asType().toString())) {
+                    return Optional.of(method);
+                }
+            }
+            current = type.getSuperclass();
+        }
+        return Optional.empty();
+    }
+
+    private boolean isVisible(Element member) {
+        if (member.getModifiers().contains(Modifier.PUBLIC)) {
+            return true;
+        }
+        final TypeElement declaringType = (TypeElement) member.getEnclosingElement();
+        return !member.getModifiers().contains(Modifier.PRIVATE)
+                && packageNameOf(declaringType.getQualifiedName()).equals(packageName);
+    }
+
+    private Optional<ClassName> nestedCodecOf(TypeMirror type, Map<TypeElement, Buildable> buildables) {
+        return buildables.entrySet().stream()
+                .filter(each -> each.getKey().asType().equals(type))
+                .filter(each -> each.getValue().generateCodec() && !each.getValue().makeAbstract())
+                .map(each -> codecClassOf(each.getKey()))
+                .findFirst();
+    }
+
+    private void skip(VariableElement field, String reason) {
+        messager.printMessage(NOTE, "Field " + field.getSimpleName() + " is not encoded by " + codecClass.simpleName()
+                + " because " + reason + "; decoded builders keep its default value", field);
+    }
+
+    private static String localNameOf(String fieldName) {
+        switch (fieldName) {
+            case "instance":
+            case "out":
+                return fieldName + "Value";
+            default:
+                return fieldName;
+        }
+    }
+
+    private static String qualifiedNameOf(TypeMirror type) {
+        if (type.getKind() != TypeKind.DECLARED) {
+            return type.toString();
+        }
+        return ((TypeElement) ((DeclaredType) type).asElement()).getQualifiedName().toString();
+    }
+
+    private static boolean isEnum(TypeMirror type) {
+        return type.getKind() == TypeKind.DECLARED && ((DeclaredType) type).asElement().getKind() == ElementKind.ENUM;
+    }
+}
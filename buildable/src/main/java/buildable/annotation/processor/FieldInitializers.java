@@ -0,0 +1,163 @@
+package buildable.annotation.processor;
+
+import com.sun.source.tree.AssignmentTree;
+import com.sun.source.tree.BlockTree;
+import com.sun.source.tree.ClassTree;
+import com.sun.source.tree.CompoundAssignmentTree;
+import com.sun.source.tree.ExpressionTree;
+import com.sun.source.tree.IdentifierTree;
+import com.sun.source.tree.MemberSelectTree;
+import com.sun.source.tree.MethodInvocationTree;
+import com.sun.source.tree.MethodTree;
+import com.sun.source.tree.NewClassTree;
+import com.sun.source.tree.Tree;
+import com.sun.source.tree.UnaryTree;
+import com.sun.source.tree.VariableTree;
+import com.sun.source.util.TreeScanner;
+import com.sun.source.util.Trees;
+
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeMirror;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Works out from the source of built types which fields hold their type's default value once constructed.
+ * <p>
+ * A field qualifies when it has no initializer and no constructor or instance initializer of its class assigns it.
+ * As a method or constructor called while constructing might assign any field, no field of a class that calls one
+ * from its constructors or instance initializers qualifies, other than the implicit call to the constructor of
+ * Object. Fields of types compiled elsewhere, whose source isn't available, never qualify.
+ * </p>
+ */
+public class FieldInitializers {
+
+    private final Trees trees;
+    private final Map<TypeElement, Set<String>> assignedFields = new HashMap<>();
+
+    public FieldInitializers(ProcessingEnvironment processingEnv) {
+        this.trees = treesOf(processingEnv);
+    }
+
+    private static Trees treesOf(ProcessingEnvironment processingEnv) {
+        try {
+            return Trees.instance(processingEnv);
+        } catch (IllegalArgumentException e) {
+            // not running in javac, so no source is available
+            return null;
+        }
+    }
+
+    public boolean holdsDefaultValue(VariableElement field) {
+        final Element declaringElement = field.getEnclosingElement();
+        if (trees == null || !(declaringElement instanceof TypeElement)) {
+            return false;
+        }
+
+        final Tree fieldTree = trees.getTree(field);
+        if (!(fieldTree instanceof VariableTree) || ((VariableTree) fieldTree).getInitializer() != null) {
+            return false;
+        }
+
+        final Set<String> assigned = assignedFields.computeIfAbsent((TypeElement) declaringElement, this::findAssignedFields);
+        return assigned != null && !assigned.contains(field.getSimpleName().toString());
+    }
+
+    /**
+     * The names assigned by any constructor or instance initializer, or null if the class's source isn't available
+     * or constructing it calls a method or constructor, so that which fields are assigned isn't known.
+     */
+    private Set<String> findAssignedFields(TypeElement type) {
+        final ClassTree classTree = trees.getTree(type);
+        if (classTree == null) {
+            return null;
+        }
+
+        final boolean extendsObject = isObject(type.getSuperclass());
+        final Set<String> assigned = new HashSet<>();
+        final boolean[] callsOut = {false};
+        final TreeScanner<Void, Void> assignments = new TreeScanner<Void, Void>() {
+            @Override
+            public Void visitAssignment(AssignmentTree node, Void unused) {
+                addTarget(node.getVariable());
+                return super.visitAssignment(node, unused);
+            }
+
+            @Override
+            public Void visitCompoundAssignment(CompoundAssignmentTree node, Void unused) {
+                addTarget(node.getVariable());
+                return super.visitCompoundAssignment(node, unused);
+            }
+
+            @Override
+            public Void visitUnary(UnaryTree node, Void unused) {
+                addTarget(node.getExpression());
+                return super.visitUnary(node, unused);
+            }
+
+            @Override
+            public Void visitMethodInvocation(MethodInvocationTree node, Void unused) {
+                // super() of a class extending Object does nothing, every other call might assign fields
+                if (!(extendsObject && isSuperCall(node))) {
+                    callsOut[0] = true;
+                }
+                return super.visitMethodInvocation(node, unused);
+            }
+
+            @Override
+            public Void visitNewClass(NewClassTree node, Void unused) {
+                callsOut[0] = true;
+                return super.visitNewClass(node, unused);
+            }
+
+            @Override
+            public Void visitClass(ClassTree node, Void unused) {
+                // assignments in nested and anonymous classes are to their own fields
+                return null;
+            }
+
+            private void addTarget(ExpressionTree target) {
+                if (target instanceof IdentifierTree) {
+                    assigned.add(((IdentifierTree) target).getName().toString());
+                } else if (target instanceof MemberSelectTree) {
+                    assigned.add(((MemberSelectTree) target).getIdentifier().toString());
+                }
+            }
+        };
+
+        for (Tree eachMember : classTree.getMembers()) {
+            if (eachMember instanceof MethodTree && ((MethodTree) eachMember).getName().contentEquals("<init>")) {
+                eachMember.accept(assignments, null);
+            } else if (eachMember instanceof BlockTree && !((BlockTree) eachMember).isStatic()) {
+                eachMember.accept(assignments, null);
+            } else if (eachMember instanceof VariableTree && isInstanceField((VariableTree) eachMember)) {
+                // initializers of other fields run while constructing too
+                eachMember.accept(assignments, null);
+            }
+        }
+        return callsOut[0] ? null : assigned;
+    }
+
+    private static boolean isInstanceField(VariableTree field) {
+        return !field.getModifiers().getFlags().contains(Modifier.STATIC);
+    }
+
+    private static boolean isSuperCall(MethodInvocationTree call) {
+        final ExpressionTree method = call.getMethodSelect();
+        return call.getArguments().isEmpty()
+                && method instanceof IdentifierTree
+                && ((IdentifierTree) method).getName().contentEquals("super");
+    }
+
+    private static boolean isObject(TypeMirror type) {
+        return type instanceof DeclaredType
+                && ((TypeElement) ((DeclaredType) type).asElement()).getQualifiedName().contentEquals("java.lang.Object");
+    }
+}
@@ -0,0 +1,289 @@
+package buildable.annotation.processor;
+
+import buildable.annotation.Buildable;
+import buildable.annotation.BuiltWith;
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.FieldSpec;
+import com.squareup.javapoet.JavaFile;
+import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.TypeName;
+import com.squareup.javapoet.TypeSpec;
+
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.Messager;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static buildable.annotation.processor.Util.capitalize;
+import static buildable.annotation.processor.Util.constantNameOf;
+import static buildable.annotation.processor.Util.createBuilderName;
+import static buildable.annotation.processor.Util.createFactoryMethodName;
+import static buildable.annotation.processor.Util.determineFluentMethodName;
+import static buildable.annotation.processor.Util.packageNameOf;
+import static buildable.annotation.processor.Util.primitiveKindOf;
+import static javax.tools.Diagnostic.Kind.NOTE;
+
+/**
+ * Responsible for writing the Flyweight class files of types whose @Buildable specifies generateFlyweight().
+ *
+ * A flyweight lays out each primitive and boxed primitive field at a fixed offset of a fixed size record, so that
+ * builder state can be stored in a direct ByteBuffer and read in place without allocating an instance per record.
+ * Boxed fields get an extra presence byte at the end of the record.
+ */
+public class FlyweightWriter {
+
+    private final Buildable theBuildable;
+    private final String packageName;
+    private final ClassName builtClass;
+    private final ClassName builderClass;
+    private final ClassName flyweightClass;
+    private final Map<VariableElement, BuiltWith> fields = new LinkedHashMap<>();
+    private final Map<VariableElement, Integer> offsets = new LinkedHashMap<>();
+    private final Map<VariableElement, Integer> presenceOffsets = new LinkedHashMap<>();
+    private int recordSize;
+    private TypeSpec.Builder flyweight;
+
+    public FlyweightWriter(Buildable theBuildable, TypeElement builtElement, Map<VariableElement, BuiltWith> fieldsToStore, Messager messager) {
+        this.theBuildable = theBuildable;
+        this.packageName = packageNameOf(builtElement.getQualifiedName());
+        this.builtClass = ClassName.get(packageName, builtElement.getSimpleName().toString());
+        this.builderClass = ClassName.get(packageName, createBuilderName(theBuildable, builtElement.getSimpleName()));
+        this.flyweightClass = ClassName.get(packageName, builtElement.getSimpleName() + "Flyweight");
+
+        for (Map.Entry<VariableElement, BuiltWith> eachField : fieldsToStore.entrySet()) {
+            if (primitiveKindOf(eachField.getKey().asType()) == null) {
+                messager.printMessage(NOTE, "Field " + eachField.getKey().getSimpleName() + " is not stored by "
+                        + flyweightClass.simpleName() + " because only primitive and boxed primitive fields have a fixed size",
+                        eachField.getKey());
+            } else {
+                fields.put(eachField.getKey(), eachField.getValue());
+            }
+        }
+        layout();
+    }
+
+    /**
+     * Widest fields first keeps every value naturally aligned, given records start on an 8 byte boundary.
+     */
+    private void layout() {
+        final List<VariableElement> bySize = new ArrayList<>(fields.keySet());
+        bySize.sort(Comparator.comparingInt((VariableElement f) -> sizeOf(primitiveKindOf(f.asType()))).reversed());
+
+        int offset = 0;
+        for (VariableElement each : bySize) {
+            offsets.put(each, offset);
+            offset += sizeOf(primitiveKindOf(each.asType()));
+        }
+        for (VariableElement each : fields.keySet()) {
+            if (!each.asType().getKind().isPrimitive()) {
+                presenceOffsets.put(each, offset++);
+            }
+        }
+        recordSize = Math.max(8, (offset + 7) & ~7);
+    }
+
+    public void writeFlyweight() {
+        flyweight = TypeSpec.classBuilder(flyweightClass)
+                .addModifiers(Modifier.PUBLIC, Modifier.FINAL)
+                .addField(FieldSpec.builder(int.class, "RECORD_SIZE", Modifier.PUBLIC, Modifier.STATIC, Modifier.FINAL)
+                        .initializer("$L", recordSize).build());
+
+        for (VariableElement each : fields.keySet()) {
+            flyweight.addField(FieldSpec.builder(int.class, offsetConstantOf(each), Modifier.STATIC, Modifier.FINAL)
+                    .initializer("$L", offsets.get(each)).build());
+            if (presenceOffsets.containsKey(each)) {
+                flyweight.addField(FieldSpec.builder(int.class, presenceConstantOf(each), Modifier.STATIC, Modifier.FINAL)
+                        .initializer("$L", presenceOffsets.get(each)).build());
+            }
+        }
+
+        flyweight.addField(ByteBuffer.class, "buffer", Modifier.PRIVATE, Modifier.FINAL)
+                .addField(int.class, "base", Modifier.PRIVATE)
+                .addMethod(MethodSpec.constructorBuilder()
+                        .addModifiers(Modifier.PUBLIC)
+                        .addParameter(ByteBuffer.class, "buffer")
+                        .addStatement("this.buffer = buffer")
+                        .build())
+                .addMethod(MethodSpec.methodBuilder("allocate")
+                        .addJavadoc("Allocates a native ordered direct buffer, outside the heap, with room for the number of records.\n")
+                        .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                        .returns(ByteBuffer.class)
+                        .addParameter(int.class, "records")
+                        .beginControlFlow("if (records < 0 || records > $T.MAX_VALUE / RECORD_SIZE)", Integer.class)
+                        .addStatement("throw new $T(\"A buffer can't hold \" + records + \" records of \" + RECORD_SIZE + \" bytes\")",
+                                IllegalArgumentException.class)
+                        .endControlFlow()
+                        .addStatement("return $T.allocateDirect(records * RECORD_SIZE).order($T.nativeOrder())", ByteBuffer.class, ByteOrder.class)
+                        .build())
+                .addMethod(MethodSpec.methodBuilder("capacity")
+                        .addModifiers(Modifier.PUBLIC)
+                        .returns(int.class)
+                        .addStatement("return buffer.capacity() / RECORD_SIZE")
+                        .build())
+                .addMethod(MethodSpec.methodBuilder("moveTo")
+                        .addModifiers(Modifier.PUBLIC)
+                        .returns(flyweightClass)
+                        .addParameter(int.class, "index")
+                        // an index too large for any buffer would otherwise wrap around to the offset of another record
+                        .addStatement("this.base = $T.multiplyExact(index, RECORD_SIZE)", Math.class)
+                        .addStatement("return this")
+                        .build());
+
+        for (VariableElement each : fields.keySet()) {
+            final TypeKind kind = primitiveKindOf(each.asType());
+            final String capitalized = capitalize(each.getSimpleName());
+            if (presenceOffsets.containsKey(each)) {
+                flyweight.addMethod(MethodSpec.methodBuilder("has" + capitalized)
+                        .addModifiers(Modifier.PUBLIC)
+                        .returns(boolean.class)
+                        .addStatement("return buffer.get(base + $L) != 0", presenceConstantOf(each))
+                        .build());
+            }
+            flyweight.addMethod(MethodSpec.methodBuilder((kind == TypeKind.BOOLEAN ? "is" : "get") + capitalized)
+                    .addModifiers(Modifier.PUBLIC)
+                    .returns(TypeName.get(each.asType()).unbox())
+                    .addStatement("return $L", readAt(kind, "base + " + offsetConstantOf(each)))
+                    .build());
+        }
+
+        if (!theBuildable.makeAbstract()) {
+            final MethodSpec.Builder toBuilder = MethodSpec.methodBuilder("toBuilder")
+                    .addModifiers(Modifier.PUBLIC)
+                    .returns(builderClass)
+                    .addStatement("final $T builder = $T.$L()", builderClass, builderClass,
+                            createFactoryMethodName(theBuildable, builtClass.simpleName()));
+            for (Map.Entry<VariableElement, BuiltWith> each : fields.entrySet()) {
+                final VariableElement field = each.getKey();
+                final String setter = determineFluentMethodName(each.getValue(), field.getSimpleName().toString());
+                final String getter = (primitiveKindOf(field.asType()) == TypeKind.BOOLEAN ? "is" : "get") + capitalize(field.getSimpleName());
+                if (presenceOffsets.containsKey(field)) {
+                    toBuilder.addStatement("builder.$L(has$L() ? $L() : null)", setter, capitalize(field.getSimpleName()), getter);
+                } else {
+                    toBuilder.addStatement("builder.$L($L())", setter, getter);
+                }
+            }
+            flyweight.addMethod(toBuilder.addStatement("return builder").build());
+        }
+    }
+
+    /**
+     * @return the builder method that copies its state into the record at an index of a flyweight buffer.
+     */
+    public MethodSpec createWriteToMethod() {
+        final MethodSpec.Builder writeTo = MethodSpec.methodBuilder("writeTo")
+                .addJavadoc("Writes this builder's state to the record at the index of a $T buffer.\n", flyweightClass)
+                .addModifiers(Modifier.PUBLIC)
+                .returns(builderClass)
+                .addParameter(ByteBuffer.class, "buffer")
+                .addParameter(int.class, "index")
+                .addStatement("final int base = $T.multiplyExact(index, $T.RECORD_SIZE)", Math.class, flyweightClass);
+
+        for (VariableElement each : fields.keySet()) {
+            final TypeKind kind = primitiveKindOf(each.asType());
+            final CodeBlock write = writeAt(kind, CodeBlock.of("base + $T.$L", flyweightClass, offsetConstantOf(each)), "this." + each.getSimpleName());
+            if (presenceOffsets.containsKey(each)) {
+                writeTo.beginControlFlow("if (this.$L == null)", each.getSimpleName())
+                        .addStatement("buffer.put(base + $T.$L, (byte) 0)", flyweightClass, presenceConstantOf(each))
+                        .nextControlFlow("else")
+                        .addStatement("buffer.put(base + $T.$L, (byte) 1)", flyweightClass, presenceConstantOf(each))
+                        .addStatement("$L", write)
+                        .endControlFlow();
+            } else {
+                writeTo.addStatement("$L", write);
+            }
+        }
+        return writeTo.addStatement("return this").build();
+    }
+
+    public void finishClass(Filer filer) throws IOException {
+        JavaFile javaFile = JavaFile.builder(packageName, flyweight.build()).indent("\t").build();
+
+        try {
+            javaFile.writeTo(filer);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private static CodeBlock readAt(TypeKind kind, String offset) {
+        switch (kind) {
+            case BOOLEAN:
+                return CodeBlock.of("buffer.get($L) != 0", offset);
+            case BYTE:
+                return CodeBlock.of("buffer.get($L)", offset);
+            case SHORT:
+                return CodeBlock.of("buffer.getShort($L)", offset);
+            case CHAR:
+                return CodeBlock.of("buffer.getChar($L)", offset);
+            case INT:
+                return CodeBlock.of("buffer.getInt($L)", offset);
+            case LONG:
+                return CodeBlock.of("buffer.getLong($L)", offset);
+            case FLOAT:
+                return CodeBlock.of("buffer.getFloat($L)", offset);
+            case DOUBLE:
+                return CodeBlock.of("buffer.getDouble($L)", offset);
+            default:
+                throw new IllegalArgumentException("Not a primitive: " + kind);
+        }
+    }
+
+    private static CodeBlock writeAt(TypeKind kind, CodeBlock offset, String value) {
+        switch (kind) {
+            case BOOLEAN:
+                return CodeBlock.of("buffer.put($L, $L ? (byte) 1 : (byte) 0)", offset, value);
+            case BYTE:
+                return CodeBlock.of("buffer.put($L, $L)", offset, value);
+            case SHORT:
+                return CodeBlock.of("buffer.putShort($L, $L)", offset, value);
+            case CHAR:
+                return CodeBlock.of("buffer.putChar($L, $L)", offset, value);
+            case INT:
+                return CodeBlock.of("buffer.putInt($L, $L)", offset, value);
+            case LONG:
+                return CodeBlock.of("buffer.putLong($L, $L)", offset, value);
+            case FLOAT:
+                return CodeBlock.of("buffer.putFloat($L, $L)", offset, value);
+            case DOUBLE:
+                return CodeBlock.of("buffer.putDouble($L, $L)", offset, value);
+            default:
+                throw new IllegalArgumentException("Not a primitive: " + kind);
+        }
+    }
+
+    private static String offsetConstantOf(VariableElement field) {
+        return constantNameOf(field.getSimpleName().toString()) + "_OFFSET";
+    }
+
+    private static String presenceConstantOf(VariableElement field) {
+        return constantNameOf(field.getSimpleName().toString()) + "_PRESENT";
+    }
+
+    private static int sizeOf(TypeKind kind) {
+        switch (kind) {
+            case BOOLEAN:
+            case BYTE:
+                return 1;
+            case SHORT:
+            case CHAR:
+                return 2;
+            case INT:
+            case FLOAT:
+                return 4;
+            default:
+                return 8;
+        }
+    }
+}
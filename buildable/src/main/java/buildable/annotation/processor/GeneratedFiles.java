@@ -0,0 +1,84 @@
+package buildable.annotation.processor;
+
+import buildable.annotation.Buildable;
+
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.TypeElement;
+
+import java.io.IOException;
+
+import static javax.tools.Diagnostic.Kind.ERROR;
+
+/**
+ * The files written from every builder a compilation generates rather than from each one: the {@link BuildableIndex},
+ * the {@link RegistryWriter registry} and its service file, the {@link ReflectionConfigWriter native-image reflection
+ * config} and the {@link ClassListWriter AppCDS class list}.
+ * <p>
+ * The processors record each builder they generate here, the registry of the builders of the last round is written
+ * at the start of the next, once they are compiled, and the rest once processing is over. When BuildableProcessor
+ * runs both processors they share one, which it writes itself.
+ * </p>
+ */
+public class GeneratedFiles {
+
+    final BuildableIndex index;
+    final RegistryWriter registry;
+    final ReflectionConfigWriter reflectionConfig;
+    final ClassListWriter classList;
+    private final ProcessingEnvironment processingEnv;
+
+    public GeneratedFiles(ProcessingEnvironment processingEnv) {
+        this.processingEnv = processingEnv;
+        this.index = BuildableIndex.fromClasspath(processingEnv.getFiler());
+        this.registry = new RegistryWriter(processingEnv.getElementUtils());
+        this.reflectionConfig = new ReflectionConfigWriter();
+        this.classList = new ClassListWriter();
+    }
+
+    /**
+     * Records a builder generated for the type, for the index, the registry and the class list.
+     */
+    void add(TypeElement builtElement, Buildable theBuildable) {
+        index.add(builtElement, theBuildable);
+        registry.add(builtElement, theBuildable);
+        classList.addBuiltType(builtElement);
+    }
+
+    /**
+     * The filer generated sources are written through, so the class list has them.
+     */
+    Filer filer() {
+        return classList.recording(processingEnv.getFiler());
+    }
+
+    /**
+     * Registers the builders generated last round, which can be referenced now that they are compiled.
+     */
+    void writeRegistry() {
+        write("the builder registry", () -> registry.writeRegistry(filer()));
+    }
+
+    /**
+     * Writes everything that lists the builders of the whole compilation, once processing is over.
+     */
+    void writeAll() {
+        write(BuildableIndex.LOCATION, () -> index.write(processingEnv.getFiler()));
+        write(RegistryWriter.SERVICE_FILE, () -> registry.writeServiceFile(filer()));
+        write("the native-image reflect-config.json",
+                () -> reflectionConfig.write(processingEnv.getFiler(), new ProcessorOptions(processingEnv.getOptions()).getNativeImageDirectory()));
+        write(ClassListWriter.LOCATION, () -> classList.write(processingEnv.getFiler(), processingEnv.getElementUtils()));
+    }
+
+    private void write(String file, FileWrite write) {
+        try {
+            write.run();
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(ERROR, "Error writing " + file + ": " + e);
+        }
+    }
+
+    private interface FileWrite {
+        void run() throws IOException;
+    }
+}
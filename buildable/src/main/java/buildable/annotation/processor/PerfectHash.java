@@ -0,0 +1,151 @@
+package buildable.annotation.processor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A collision-free hash of a fixed set of names into a table, worked out while generating code so that lookups are a
+ * few multiplies, shifts and array reads and one equals, however many names there are.
+ * <p>
+ * It hashes and displaces: the hash code of a name picks a bucket, <code>(hash * BUCKET_MULTIPLIER) &gt;&gt;&gt;
+ * bucketShift</code>, and the displacement worked out for that bucket moves each of its names to an entry no other
+ * name has, <code>((hash ^ displacements[bucket]) * SLOT_MULTIPLIER) &gt;&gt;&gt; shift</code>. Names that share a
+ * String hash code, which no hash of it can part, share an entry, which holds the first of them, and
+ * {@link #sameHash} chains each to the next.
+ * </p>
+ */
+class PerfectHash {
+
+    static final int BUCKET_MULTIPLIER = 0x9E3779B9;
+    static final int SLOT_MULTIPLIER = 0x85EBCA6B;
+    private static final int MAX_DISPLACEMENT = 1 << 16;
+
+    final int bucketShift;
+    final int[] displacements;
+    final int shift;
+    final int[] table;
+    /**
+     * The index of the next name with the same hash code as each name, or -1. Null if no names share a hash code.
+     */
+    final int[] sameHash;
+
+    private PerfectHash(int bucketShift, int[] displacements, int shift, int[] table, int[] sameHash) {
+        this.bucketShift = bucketShift;
+        this.displacements = displacements;
+        this.shift = shift;
+        this.table = table;
+        this.sameHash = sameHash;
+    }
+
+    /**
+     * Works out the displacements for the smallest table, of at least two entries, that holds the hash code of every
+     * name in its own entry, each entry being the index of the first name with the hash code or -1. There are half as
+     * many buckets as entries, and tables are doubled until every bucket finds a displacement, which for tables of
+     * twice as many entries as names is almost at once.
+     */
+    static PerfectHash of(List<String> names) {
+        final Map<Integer, Integer> firstOfHash = new LinkedHashMap<>();
+        int[] sameHash = null;
+        final int[] lastOfHash = new int[names.size()];
+        for (int i = 0; i < names.size(); i++) {
+            final Integer first = firstOfHash.putIfAbsent(names.get(i).hashCode(), i);
+            if (first == null) {
+                lastOfHash[i] = i;
+                continue;
+            }
+            if (sameHash == null) {
+                sameHash = new int[names.size()];
+                Arrays.fill(sameHash, -1);
+            }
+            sameHash[lastOfHash[first]] = i;
+            lastOfHash[first] = i;
+        }
+
+        final int[] hashes = new int[firstOfHash.size()];
+        int next = 0;
+        for (int each : firstOfHash.keySet()) {
+            hashes[next++] = each;
+        }
+        for (int bits = Math.max(1, 32 - Integer.numberOfLeadingZeros(Math.max(1, hashes.length - 1))); ; bits++) {
+            final int bucketShift = 32 - Math.max(1, bits - 1);
+            final int[] displacements = displacementsOf(hashes, bucketShift, 32 - bits);
+            if (displacements != null) {
+                final int[] table = new int[1 << bits];
+                Arrays.fill(table, -1);
+                for (Map.Entry<Integer, Integer> each : firstOfHash.entrySet()) {
+                    table[indexOf(each.getKey(), displacements, bucketShift, 32 - bits)] = each.getValue();
+                }
+                return new PerfectHash(bucketShift, displacements, 32 - bits, table, sameHash);
+            }
+        }
+    }
+
+    /**
+     * The entry of the table holding the name with the hash code, if any, as the generated lookups find it.
+     */
+    int indexOf(int hash) {
+        return indexOf(hash, displacements, bucketShift, shift);
+    }
+
+    private static int indexOf(int hash, int[] displacements, int bucketShift, int shift) {
+        return ((hash ^ displacements[(hash * BUCKET_MULTIPLIER) >>> bucketShift]) * SLOT_MULTIPLIER) >>> shift;
+    }
+
+    /**
+     * Places the fullest buckets first, as they are the hardest to fit, giving each the first displacement that moves
+     * all of its hash codes to free entries. Returns null if a bucket finds none.
+     */
+    private static int[] displacementsOf(int[] hashes, int bucketShift, int shift) {
+        final List<List<Integer>> buckets = new ArrayList<>();
+        for (int i = 0; i < 1 << (32 - bucketShift); i++) {
+            buckets.add(new ArrayList<>());
+        }
+        for (int each : hashes) {
+            buckets.get((each * BUCKET_MULTIPLIER) >>> bucketShift).add(each);
+        }
+        final List<Integer> bucketOrder = new ArrayList<>();
+        for (int i = 0; i < buckets.size(); i++) {
+            bucketOrder.add(i);
+        }
+        bucketOrder.sort((one, other) -> buckets.get(other).size() - buckets.get(one).size());
+
+        final int[] displacements = new int[buckets.size()];
+        final boolean[] taken = new boolean[1 << (32 - shift)];
+        final int[] entries = new int[hashes.length];
+        for (int eachBucket : bucketOrder) {
+            final List<Integer> bucket = buckets.get(eachBucket);
+            if (bucket.isEmpty()) {
+                break;
+            }
+            int displacement = 0;
+            while (!fits(bucket, displacement, shift, taken, entries)) {
+                if (++displacement == MAX_DISPLACEMENT) {
+                    return null;
+                }
+            }
+            for (int i = 0; i < bucket.size(); i++) {
+                taken[entries[i]] = true;
+            }
+            displacements[eachBucket] = displacement;
+        }
+        return displacements;
+    }
+
+    private static boolean fits(List<Integer> bucket, int displacement, int shift, boolean[] taken, int[] entries) {
+        for (int i = 0; i < bucket.size(); i++) {
+            entries[i] = ((bucket.get(i) ^ displacement) * SLOT_MULTIPLIER) >>> shift;
+            if (taken[entries[i]]) {
+                return false;
+            }
+            for (int j = 0; j < i; j++) {
+                if (entries[j] == entries[i]) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+}
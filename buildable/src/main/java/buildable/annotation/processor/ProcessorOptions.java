@@ -0,0 +1,69 @@
+package buildable.annotation.processor;
+
+import java.util.Map;
+
+/**
+ * The options the processors accept with <code>-A</code>, such as <code>-Abuildable.metrics=true</code>.
+ */
+public class ProcessorOptions {
+
+    /**
+     * Instruments every generated build() to count and time its calls in the buildable.metrics registry.
+     */
+    public static final String METRICS = "buildable.metrics";
+
+    /**
+     * Commits a buildable.jfr BuildEvent from every generated build(), so the buildable-jfr module must be on the
+     * classpath of the generated code.
+     */
+    public static final String JFR = "buildable.jfr";
+
+    /**
+     * Adds a static publisher() to every builder that isn't abstract, publishing built instances as a
+     * java.util.concurrent.Flow.Publisher, so the buildable-flow module must be on the classpath of the generated code.
+     */
+    public static final String FLOW = "buildable.flow";
+
+    /**
+     * The <code>group/artifact</code> directory under META-INF/native-image the reflect-config.json of the generated
+     * code is written to, {@value #DEFAULT_NATIVE_IMAGE_DIRECTORY} if not given.
+     */
+    public static final String NATIVE_IMAGE = "buildable.nativeImage";
+
+    public static final String DEFAULT_NATIVE_IMAGE_DIRECTORY = "buildable/builders";
+
+    private final boolean metricsEnabled;
+    private final boolean jfrEnabled;
+    private final boolean flowEnabled;
+    private final String nativeImageDirectory;
+
+    public ProcessorOptions(Map<String, String> options) {
+        this.metricsEnabled = Boolean.parseBoolean(options.get(METRICS));
+        this.jfrEnabled = Boolean.parseBoolean(options.get(JFR));
+        this.flowEnabled = Boolean.parseBoolean(options.get(FLOW));
+        this.nativeImageDirectory = options.getOrDefault(NATIVE_IMAGE, DEFAULT_NATIVE_IMAGE_DIRECTORY);
+    }
+
+    public boolean isMetricsEnabled() {
+        return metricsEnabled;
+    }
+
+    public boolean isJfrEnabled() {
+        return jfrEnabled;
+    }
+
+    public boolean isFlowEnabled() {
+        return flowEnabled;
+    }
+
+    public String getNativeImageDirectory() {
+        return nativeImageDirectory;
+    }
+
+    /**
+     * Whether generated build() methods wrap the construction of the instance.
+     */
+    public boolean isInstrumented() {
+        return metricsEnabled || jfrEnabled;
+    }
+}
@@ -0,0 +1,162 @@
+package buildable.annotation.processor;
+
+import com.squareup.javapoet.ArrayTypeName;
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.TypeName;
+
+import javax.annotation.processing.Filer;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+import static buildable.annotation.processor.Util.capitalize;
+import static buildable.annotation.processor.Util.rawTypeNameOf;
+
+/**
+ * Writes the GraalVM native-image reflect-config.json for the members the generated code uses reflectively.
+ * <p>
+ * Generated builders create instances and write fields through buildable.runtime's Accessors, pooled builders clear
+ * fields through PooledFields and codecs read fields through BinaryEncoding. Native images can only reflect on
+ * members that are registered, so the writers record each member they use here and the file is written to
+ * <code>META-INF/native-image/&lt;group&gt;/&lt;artifact&gt;/reflect-config.json</code>, where native-image picks it
+ * up from the jar.
+ * </p>
+ */
+public class ReflectionConfigWriter {
+
+    private final SortedMap<String, Members> types = new TreeMap<>();
+
+    /**
+     * Records the constructor Accessors.newInstance uses, the declared no-arg one when there are no parameter types.
+     * Types without such a constructor, like those only built by subclasses of abstract builders, have nothing to
+     * register.
+     */
+    public void addConstructor(TypeElement type, List<TypeName> parameterTypes) {
+        for (ExecutableElement each : ElementFilter.constructorsIn(type.getEnclosedElements())) {
+            final List<TypeName> eachParameterTypes = each.getParameters().stream().map(parameter -> rawTypeNameOf(parameter.asType())).collect(Collectors.toList());
+            if (eachParameterTypes.equals(parameterTypes)) {
+                membersOf(type).methods.put("<init>" + parameterTypes, parameterTypes.stream().map(ReflectionConfigWriter::reflectionNameOf).collect(Collectors.toList()));
+                return;
+            }
+        }
+    }
+
+    /**
+     * Records the member a FieldAccessor of the built type writes the field through: the setter the type declares,
+     * like the accessor looks for, or the field itself.
+     */
+    public void addWrite(TypeElement builtType, VariableElement field) {
+        final String setterName = "set" + capitalize(field.getSimpleName());
+        final TypeName fieldType = rawTypeNameOf(field.asType());
+        for (Element each : builtType.getEnclosedElements()) {
+            if (each.getKind() != ElementKind.METHOD || !each.getSimpleName().contentEquals(setterName)) {
+                continue;
+            }
+            final List<? extends VariableElement> parameters = ((ExecutableElement) each).getParameters();
+            if (parameters.size() == 1 && rawTypeNameOf(parameters.get(0).asType()).equals(fieldType)) {
+                membersOf(builtType).methods.put(setterName, Collections.singletonList(reflectionNameOf(fieldType)));
+                return;
+            }
+        }
+        addField(field, true);
+    }
+
+    /**
+     * Records a field read or written through java.lang.reflect.Field.
+     */
+    public void addField(VariableElement field, boolean written) {
+        final Map<String, Boolean> fields = membersOf((TypeElement) field.getEnclosingElement()).fields;
+        final boolean allowWrite = written && field.getModifiers().contains(Modifier.FINAL);
+        fields.merge(field.getSimpleName().toString(), allowWrite, Boolean::logicalOr);
+    }
+
+    private Members membersOf(TypeElement type) {
+        return types.computeIfAbsent(reflectionNameOf(ClassName.get(type)), name -> new Members());
+    }
+
+    public void write(Filer filer, String location) throws IOException {
+        if (types.isEmpty()) {
+            return;
+        }
+        final FileObject resource = filer.createResource(StandardLocation.CLASS_OUTPUT, "", "META-INF/native-image/" + location + "/reflect-config.json");
+        try (Writer writer = resource.openWriter()) {
+            writer.write(toJson());
+        }
+    }
+
+    /**
+     * The configuration as a JSON array with one type per entry and one member per line, sorted so the file is
+     * reproducible.
+     */
+    String toJson() {
+        final StringBuilder json = new StringBuilder("[\n");
+        String typeSeparator = "";
+        for (Map.Entry<String, Members> eachType : types.entrySet()) {
+            json.append(typeSeparator).append("  {\n    \"name\": \"").append(eachType.getKey()).append('"');
+            final Members members = eachType.getValue();
+            if (!members.fields.isEmpty()) {
+                json.append(",\n    \"fields\": [\n");
+                String separator = "";
+                for (Map.Entry<String, Boolean> eachField : members.fields.entrySet()) {
+                    json.append(separator).append("      {\"name\": \"").append(eachField.getKey()).append('"');
+                    if (eachField.getValue()) {
+                        json.append(", \"allowWrite\": true");
+                    }
+                    json.append('}');
+                    separator = ",\n";
+                }
+                json.append("\n    ]");
+            }
+            if (!members.methods.isEmpty()) {
+                json.append(",\n    \"methods\": [\n");
+                String separator = "";
+                for (Map.Entry<String, List<String>> eachMethod : members.methods.entrySet()) {
+                    final String name = eachMethod.getKey().startsWith("<init>") ? "<init>" : eachMethod.getKey();
+                    json.append(separator).append("      {\"name\": \"").append(name).append("\", \"parameterTypes\": [")
+                            .append(eachMethod.getValue().stream().map(each -> '"' + each + '"').collect(Collectors.joining(", ")))
+                            .append("]}");
+                    separator = ",\n";
+                }
+                json.append("\n    ]");
+            }
+            json.append("\n  }");
+            typeSeparator = ",\n";
+        }
+        return json.append("\n]\n").toString();
+    }
+
+    /**
+     * The name of the type as Class.getName() gives it, except arrays, which native-image accepts as
+     * <code>component[]</code>.
+     */
+    static String reflectionNameOf(TypeName type) {
+        if (type instanceof ArrayTypeName) {
+            return reflectionNameOf(((ArrayTypeName) type).componentType) + "[]";
+        }
+        if (type instanceof ClassName) {
+            final ClassName className = (ClassName) type;
+            final String simpleNames = String.join("$", className.simpleNames());
+            return className.packageName().isEmpty() ? simpleNames : className.packageName() + "." + simpleNames;
+        }
+        return type.toString();
+    }
+
+    private static class Members {
+        private final SortedMap<String, Boolean> fields = new TreeMap<>();
+        private final SortedMap<String, List<String>> methods = new TreeMap<>();
+    }
+}
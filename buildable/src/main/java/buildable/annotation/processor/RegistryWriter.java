@@ -0,0 +1,116 @@
+package buildable.annotation.processor;
+
+import buildable.Builder;
+import buildable.annotation.Buildable;
+import buildable.runtime.BuilderRegistry;
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.JavaFile;
+import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.ParameterizedTypeName;
+import com.squareup.javapoet.TypeName;
+import com.squareup.javapoet.TypeSpec;
+import com.squareup.javapoet.WildcardTypeName;
+
+import javax.annotation.processing.Filer;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.util.Elements;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+
+import static buildable.annotation.processor.Util.createBuilderName;
+import static buildable.annotation.processor.Util.createFactoryMethodName;
+import static buildable.annotation.processor.Util.packageNameOf;
+
+/**
+ * Writes the {@link BuilderRegistry} of the builders generated by this compilation, and the service file that lists it.
+ * <p>
+ * Builders are registered with a lambda calling their factory method, so the builder class isn't loaded until the
+ * first builder is asked for. A registry refers to builders generated in an earlier round, so the processors write
+ * the builders of one round at the start of the next, and each registry is named after a hash of the types it
+ * registers so those of different modules don't clash.
+ * </p>
+ */
+public class RegistryWriter {
+
+    public static final String SERVICE_FILE = "META-INF/services/" + BuilderRegistry.class.getName();
+
+    private final Elements elements;
+    private final SortedMap<String, ClassName> pendingBuilders = new TreeMap<>();
+    private final SortedMap<String, String> pendingFactoryMethods = new TreeMap<>();
+    private final List<String> registries = new ArrayList<>();
+
+    public RegistryWriter(Elements elements) {
+        this.elements = elements;
+    }
+
+    /**
+     * Records a builder generated by this compilation, to be registered by the next {@link #writeRegistry(Filer)}.
+     * Abstract builders have no factory method, so they are left out.
+     */
+    public void add(TypeElement builtElement, Buildable theBuildable) {
+        if (theBuildable.makeAbstract()) {
+            return;
+        }
+        final String simpleName = builtElement.getSimpleName().toString();
+        final String builtType = elements.getBinaryName(builtElement).toString();
+        pendingBuilders.put(builtType, ClassName.get(packageNameOf(builtElement.getQualifiedName()), createBuilderName(theBuildable, simpleName)));
+        pendingFactoryMethods.put(builtType, createFactoryMethodName(theBuildable, simpleName));
+    }
+
+    /**
+     * Writes a registry of the builders added since the last one was written, if there are any.
+     */
+    public void writeRegistry(Filer filer) throws IOException {
+        if (pendingBuilders.isEmpty()) {
+            return;
+        }
+        final ClassName registryClass = ClassName.get(pendingBuilders.get(pendingBuilders.firstKey()).packageName(),
+                "BuildableRegistry_" + Integer.toHexString(String.join(",", pendingBuilders.keySet()).hashCode()));
+
+        final TypeName supplier = ParameterizedTypeName.get(ClassName.get(Supplier.class),
+                WildcardTypeName.subtypeOf(ParameterizedTypeName.get(ClassName.get(Builder.class), WildcardTypeName.subtypeOf(Object.class))));
+        final MethodSpec.Builder register = MethodSpec.methodBuilder("registerBuilders")
+                .addAnnotation(Override.class)
+                .addModifiers(Modifier.PUBLIC)
+                .addParameter(ParameterizedTypeName.get(ClassName.get(Map.class), ClassName.get(String.class), supplier), "builders");
+        for (Map.Entry<String, ClassName> each : pendingBuilders.entrySet()) {
+            register.addStatement("builders.put($S, () -> $T.$L())", each.getKey(), each.getValue(), pendingFactoryMethods.get(each.getKey()));
+        }
+
+        final TypeSpec registry = TypeSpec.classBuilder(registryClass)
+                .addModifiers(Modifier.PUBLIC, Modifier.FINAL)
+                .addSuperinterface(BuilderRegistry.class)
+                .addMethod(register.build())
+                .build();
+        JavaFile.builder(registryClass.packageName(), registry).indent("\t").build().writeTo(filer);
+
+        registries.add(registryClass.toString());
+        pendingBuilders.clear();
+        pendingFactoryMethods.clear();
+    }
+
+    /**
+     * Writes any builders still pending, then the service file listing every registry this compilation wrote.
+     */
+    public void writeServiceFile(Filer filer) throws IOException {
+        writeRegistry(filer);
+        if (registries.isEmpty()) {
+            return;
+        }
+        final FileObject resource = filer.createResource(StandardLocation.CLASS_OUTPUT, "", SERVICE_FILE);
+        try (Writer writer = resource.openWriter()) {
+            for (String each : registries) {
+                writer.write(each + "\n");
+            }
+        }
+    }
+}
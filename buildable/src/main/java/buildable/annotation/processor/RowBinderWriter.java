@@ -0,0 +1,160 @@
+package buildable.annotation.processor;
+
+import buildable.annotation.Buildable;
+import buildable.annotation.BuiltWith;
+import buildable.row.DelimitedRow;
+import buildable.row.RowBinder;
+import com.squareup.javapoet.ArrayTypeName;
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.FieldSpec;
+import com.squareup.javapoet.JavaFile;
+import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.ParameterizedTypeName;
+import com.squareup.javapoet.TypeName;
+import com.squareup.javapoet.TypeSpec;
+
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.Messager;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static buildable.annotation.processor.Util.capitalize;
+import static buildable.annotation.processor.Util.constantNameOf;
+import static buildable.annotation.processor.Util.createBuilderName;
+import static buildable.annotation.processor.Util.createFactoryMethodName;
+import static buildable.annotation.processor.Util.determineFluentMethodName;
+import static buildable.annotation.processor.Util.packageNameOf;
+import static buildable.annotation.processor.Util.primitiveKindOf;
+import static javax.tools.Diagnostic.Kind.WARNING;
+
+/**
+ * Responsible for writing the RowBinder class files of types whose @Buildable specifies generateRowBinder().
+ *
+ * Each field is bound to the column at its position among the built fields, so the column of every field and the
+ * DelimitedRow getter that parses it are fixed when the binder is generated.
+ */
+public class RowBinderWriter {
+
+    private final Buildable theBuildable;
+    private final Messager messager;
+    private final String packageName;
+    private final ClassName builtClass;
+    private final ClassName builderClass;
+    private final ClassName binderClass;
+    private final Set<String> enumConstants = new HashSet<>();
+    private TypeSpec.Builder binder;
+
+    public RowBinderWriter(Buildable theBuildable, TypeElement builtElement, Messager messager) {
+        this.theBuildable = theBuildable;
+        this.messager = messager;
+        this.packageName = packageNameOf(builtElement.getQualifiedName());
+        this.builtClass = ClassName.get(packageName, builtElement.getSimpleName().toString());
+        this.builderClass = ClassName.get(packageName, createBuilderName(theBuildable, builtElement.getSimpleName()));
+        this.binderClass = ClassName.get(packageName, builtElement.getSimpleName() + "RowBinder");
+    }
+
+    public void writeRowBinder(Map<VariableElement, BuiltWith> fieldsToBind) {
+        if (theBuildable.makeAbstract()) {
+            throw new IllegalStateException("A row binder cannot bind rows to the abstract builder " + builderClass);
+        }
+
+        binder = TypeSpec.classBuilder(binderClass)
+                .addModifiers(Modifier.PUBLIC, Modifier.FINAL)
+                .addSuperinterface(ParameterizedTypeName.get(ClassName.get(RowBinder.class), builtClass))
+                .addField(FieldSpec.builder(binderClass, "INSTANCE", Modifier.PUBLIC, Modifier.STATIC, Modifier.FINAL)
+                        .initializer("new $T()", binderClass).build())
+                .addMethod(MethodSpec.constructorBuilder().addModifiers(Modifier.PRIVATE).build());
+
+        final MethodSpec.Builder bind = MethodSpec.methodBuilder("bind")
+                .addAnnotation(Override.class)
+                .addModifiers(Modifier.PUBLIC)
+                .returns(builderClass)
+                .addParameter(DelimitedRow.class, "row")
+                .addStatement("$T builder = $T.$L()", builderClass, builderClass,
+                        createFactoryMethodName(theBuildable, builtClass.simpleName()));
+
+        final CodeBlock.Builder columnNames = CodeBlock.builder();
+        int column = 0;
+        for (Map.Entry<VariableElement, BuiltWith> eachField : fieldsToBind.entrySet()) {
+            final VariableElement field = eachField.getKey();
+            final BuiltWith annotation = eachField.getValue();
+            final String fieldName = field.getSimpleName().toString();
+            final int fieldColumn = column++;
+
+            binder.addField(FieldSpec.builder(int.class, constantNameOf(fieldName) + "_COLUMN", Modifier.PUBLIC, Modifier.STATIC, Modifier.FINAL)
+                    .initializer("$L", fieldColumn).build());
+            columnNames.add(fieldColumn == 0 ? "$S" : ", $S", fieldName);
+
+            if (annotation != null && annotation.overrideMethod() == BuiltWith.OverrideMethod.AddToList) {
+                skip(field, "its builder method takes varargs");
+                continue;
+            }
+            final CodeBlock parse = parse(field.asType(), fieldColumn);
+            if (parse == null) {
+                skip(field, "a cell can't be parsed into " + field.asType());
+                continue;
+            }
+            bind.beginControlFlow("if (!row.isEmpty($L))", fieldColumn)
+                    .addStatement("builder = builder.$L($L)", determineFluentMethodName(annotation, fieldName), parse)
+                    .endControlFlow();
+        }
+
+        binder.addField(FieldSpec.builder(ParameterizedTypeName.get(List.class, String.class), "COLUMNS", Modifier.PUBLIC, Modifier.STATIC, Modifier.FINAL)
+                .addJavadoc("The name of the field bound to each column, in column order.\n")
+                .initializer("$T.unmodifiableList($T.asList($L))", Collections.class, Arrays.class, columnNames.build())
+                .build());
+        binder.addMethod(bind.addStatement("return builder").build());
+    }
+
+    private CodeBlock parse(TypeMirror type, int column) {
+        final TypeKind primitive = primitiveKindOf(type);
+        if (primitive != null) {
+            return CodeBlock.of("row.get$L($L)", capitalize(primitive.name().toLowerCase()), column);
+        }
+        if (type.getKind() != TypeKind.DECLARED) {
+            return null;
+        }
+        final TypeElement element = (TypeElement) ((DeclaredType) type).asElement();
+        if (element.getQualifiedName().contentEquals("java.lang.String")) {
+            return CodeBlock.of("row.getString($L)", column);
+        }
+        if (element.getKind() == ElementKind.ENUM) {
+            final String valuesConstant = constantNameOf(element.getSimpleName().toString()) + "_VALUES";
+            final TypeName enumType = TypeName.get(type);
+            if (enumConstants.add(valuesConstant)) {
+                binder.addField(FieldSpec.builder(ArrayTypeName.of(enumType), valuesConstant, Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                        .initializer("$T.values()", enumType).build());
+            }
+            return CodeBlock.of("row.getEnum($L, $L)", column, valuesConstant);
+        }
+        return null;
+    }
+
+    private void skip(VariableElement field, String reason) {
+        messager.printMessage(WARNING, "Field " + field.getSimpleName() + " is not bound by " + binderClass.simpleName()
+                + " because " + reason + "; bound builders keep its default value", field);
+    }
+
+    public void finishClass(Filer filer) throws IOException {
+        JavaFile javaFile = JavaFile.builder(packageName, binder.build()).indent("\t").build();
+
+        try {
+            javaFile.writeTo(filer);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+}
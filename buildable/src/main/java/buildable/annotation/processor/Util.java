@@ -6,13 +6,20 @@
 package buildable.annotation.processor;
 
 import buildable.annotation.Buildable;
+import buildable.annotation.BuiltWith;
 import buildable.spec.ConstructorArg;
+import com.squareup.javapoet.ArrayTypeName;
 import com.squareup.javapoet.ClassName;
 import com.squareup.javapoet.TypeName;
 
 import javax.lang.model.element.Name;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
 import javax.lang.model.type.MirroredTypeException;
 import javax.lang.model.type.TypeMirror;
+import javax.lang.model.type.TypeVariable;
 
 import java.lang.annotation.Annotation;
 
@@ -34,6 +41,86 @@ public class Util {
         return name.substring(0, 1).toUpperCase() + name.substring(1, name.length());
     }
 
+    /**
+     * Compares the kind by name, so the processor still runs on Java versions that predate records.
+     */
+    public static boolean isRecord(TypeElement type) {
+        return type.getKind().name().equals("RECORD");
+    }
+
+    public static String defaultValueOf(TypeMirror type) {
+        switch (type.getKind()) {
+            case BOOLEAN:
+                return "false";
+            case BYTE:
+                return "(byte) 0";
+            case SHORT:
+                return "(short) 0";
+            case CHAR:
+                return "(char) 0";
+            case INT:
+                return "0";
+            case LONG:
+                return "0L";
+            case FLOAT:
+                return "0f";
+            case DOUBLE:
+                return "0d";
+            default:
+                return "null";
+        }
+    }
+
+    /**
+     * The sensible default of a primitive type, as a literal of that type.
+     */
+    public static String defaultValueOf(TypeName primitiveType) {
+        if (primitiveType.equals(TypeName.BOOLEAN)) {
+            return "false";
+        } else if (primitiveType.equals(TypeName.BYTE)) {
+            return "(byte) 0";
+        } else if (primitiveType.equals(TypeName.SHORT)) {
+            return "(short) 0";
+        } else if (primitiveType.equals(TypeName.CHAR)) {
+            return "(char) 0";
+        } else if (primitiveType.equals(TypeName.LONG)) {
+            return "0L";
+        } else if (primitiveType.equals(TypeName.FLOAT)) {
+            return "0f";
+        } else if (primitiveType.equals(TypeName.DOUBLE)) {
+            return "0d";
+        }
+        return "0";
+    }
+
+    /**
+     * @return the primitive type of a boolean, char or numeric literal, or null for any other expression, whose type
+     * isn't known until it is compiled.
+     */
+    public static TypeName literalTypeOf(String expression) {
+        final String literal = expression.trim().replaceFirst("^[-+]\\s*", "");
+        if (literal.equals("true") || literal.equals("false")) {
+            return TypeName.BOOLEAN;
+        } else if (literal.matches("'([^'\\\\]|\\\\.+)'")) {
+            return TypeName.CHAR;
+        } else if (literal.matches("(0[xX][0-9a-fA-F_]+|0[bB][01_]+|[0-9][0-9_]*)")) {
+            return TypeName.INT;
+        } else if (literal.matches("(0[xX][0-9a-fA-F_]+|0[bB][01_]+|[0-9][0-9_]*)[lL]")) {
+            return TypeName.LONG;
+        } else if (literal.matches("([0-9][0-9_]*\\.?[0-9_]*|\\.[0-9][0-9_]*)([eE][-+]?[0-9]+)?[fF]")) {
+            return TypeName.FLOAT;
+        } else if (literal.matches("([0-9][0-9_]*\\.?[0-9_]*|\\.[0-9][0-9_]*)([eE][-+]?[0-9]+)?[dD]")
+                || literal.matches("([0-9][0-9_]*\\.[0-9_]*|\\.[0-9][0-9_]*)([eE][-+]?[0-9]+)?")
+                || literal.matches("[0-9][0-9_]*[eE][-+]?[0-9]+")) {
+            return TypeName.DOUBLE;
+        }
+        return null;
+    }
+
+    public static String constantNameOf(final String camelCaseName) {
+        return camelCaseName.replaceAll("([a-z0-9])([A-Z])", "$1_$2").toUpperCase();
+    }
+
     public static String createBuilderName(Buildable buildable, Name className) {
         return createBuilderName(buildable, className.toString());
     }
@@ -46,6 +133,25 @@ public class Util {
         }
     }
 
+    public static String createFactoryMethodName(Buildable buildable, String className) {
+        if (buildable.factoryMethod().equals(Buildable.USE_SENSIBLE_DEFAULT)) {
+            if (className.matches("[AEIOUaeiou].*")) {
+                return "an" + className;
+            } else {
+                return "a" + className;
+            }
+        } else {
+            return buildable.factoryMethod();
+        }
+    }
+
+    public static String determineFluentMethodName(final BuiltWith annotation, final String fieldName) {
+        if (annotation != null && !BuiltWith.USE_SENSIBLE_DEFAULT.equals(annotation.methodName())) {
+            return annotation.methodName();
+        }
+        return "with" + capitalize(fieldName);
+    }
+
     public static TypeName extractTypeName(ConstructorArg arg) {
         try {
             return ClassName.get(arg.type());
@@ -82,7 +188,94 @@ public class Util {
             public String cloneMethod() {
                 return Buildable.USE_SENSIBLE_DEFAULT;
             }
+
+            @Override
+            public boolean generateCodec() {
+                return false;
+            }
+
+            @Override
+            public boolean generateFlyweight() {
+                return false;
+            }
+
+            @Override
+            public boolean generateBatch() {
+                return false;
+            }
+
+            @Override
+            public boolean generateRowBinder() {
+                return false;
+            }
+
+            @Override
+            public boolean pooled() {
+                return false;
+            }
+
+            @Override
+            public boolean shared() {
+                return false;
+            }
+
+            @Override
+            public boolean sparse() {
+                return false;
+            }
+
+            @Override
+            public boolean immutable() {
+                return false;
+            }
         };
     }
 
+    /**
+     * @return the primitive kind of a primitive or boxed primitive type, or null for any other type.
+     */
+    public static TypeKind primitiveKindOf(TypeMirror type) {
+        if (type.getKind().isPrimitive()) {
+            return type.getKind();
+        }
+        if (type.getKind() != TypeKind.DECLARED) {
+            return null;
+        }
+        switch (((TypeElement) ((DeclaredType) type).asElement()).getQualifiedName().toString()) {
+            case "java.lang.Boolean":
+                return TypeKind.BOOLEAN;
+            case "java.lang.Byte":
+                return TypeKind.BYTE;
+            case "java.lang.Short":
+                return TypeKind.SHORT;
+            case "java.lang.Character":
+                return TypeKind.CHAR;
+            case "java.lang.Integer":
+                return TypeKind.INT;
+            case "java.lang.Long":
+                return TypeKind.LONG;
+            case "java.lang.Float":
+                return TypeKind.FLOAT;
+            case "java.lang.Double":
+                return TypeKind.DOUBLE;
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * The type name with its type arguments erased, for use in class literals.
+     */
+    public static TypeName rawTypeNameOf(TypeMirror type) {
+        switch (type.getKind()) {
+            case DECLARED:
+                return ClassName.get((TypeElement) ((DeclaredType) type).asElement());
+            case ARRAY:
+                return ArrayTypeName.of(rawTypeNameOf(((ArrayType) type).getComponentType()));
+            case TYPEVAR:
+                return rawTypeNameOf(((TypeVariable) type).getUpperBound());
+            default:
+                return TypeName.get(type);
+        }
+    }
 }
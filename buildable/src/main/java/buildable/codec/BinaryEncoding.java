@@ -0,0 +1,211 @@
+package buildable.codec;
+
+import buildable.runtime.Accessors;
+
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.UUID;
+
+/**
+ * Primitive read and write operations used by generated {@link Codec}s.
+ * <p>
+ * Integers are written as little-endian base 128 varints, signed values zig-zag encoded first so small negative
+ * numbers stay small. Strings are written as a varint length followed by their UTF-8 bytes. Nullable values are
+ * preceded by a single presence byte, except strings and enums which fold null into their length or ordinal.
+ * </p>
+ */
+public final class BinaryEncoding {
+
+    private BinaryEncoding() {}
+
+    public static void putVarInt(ByteBuffer out, int value) {
+        while ((value & ~0x7F) != 0) {
+            out.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.put((byte) value);
+    }
+
+    public static int getVarInt(ByteBuffer in) {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            final byte b = in.get();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint");
+    }
+
+    public static void putVarLong(ByteBuffer out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.put((byte) value);
+    }
+
+    public static long getVarLong(ByteBuffer in) {
+        long value = 0;
+        for (int shift = 0; shift < 70; shift += 7) {
+            final byte b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varlong");
+    }
+
+    public static void putSignedVarInt(ByteBuffer out, int value) {
+        putVarInt(out, (value << 1) ^ (value >> 31));
+    }
+
+    public static int getSignedVarInt(ByteBuffer in) {
+        final int raw = getVarInt(in);
+        return (raw >>> 1) ^ -(raw & 1);
+    }
+
+    public static void putSignedVarLong(ByteBuffer out, long value) {
+        putVarLong(out, (value << 1) ^ (value >> 63));
+    }
+
+    public static long getSignedVarLong(ByteBuffer in) {
+        final long raw = getVarLong(in);
+        return (raw >>> 1) ^ -(raw & 1);
+    }
+
+    /**
+     * Writes a presence byte for a nullable value.
+     *
+     * @return <code>true</code> if the value is present and should be written next.
+     */
+    public static boolean putPresence(ByteBuffer out, Object value) {
+        out.put(value == null ? (byte) 0 : (byte) 1);
+        return value != null;
+    }
+
+    public static boolean getPresence(ByteBuffer in) {
+        return in.get() != 0;
+    }
+
+    /**
+     * Writes a string as its UTF-8 byte length plus one (zero for null) followed by the bytes, without allocating.
+     */
+    public static void putString(ByteBuffer out, String value) {
+        if (value == null) {
+            putVarInt(out, 0);
+            return;
+        }
+        putVarInt(out, utf8Length(value) + 1);
+        final int length = value.length();
+        for (int i = 0; i < length; i++) {
+            final char c = value.charAt(i);
+            if (c < 0x80) {
+                out.put((byte) c);
+            } else if (c < 0x800) {
+                out.put((byte) (0xC0 | (c >> 6)));
+                out.put((byte) (0x80 | (c & 0x3F)));
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+                final int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                out.put((byte) (0xF0 | (codePoint >> 18)));
+                out.put((byte) (0x80 | ((codePoint >> 12) & 0x3F)));
+                out.put((byte) (0x80 | ((codePoint >> 6) & 0x3F)));
+                out.put((byte) (0x80 | (codePoint & 0x3F)));
+            } else if (Character.isSurrogate(c)) {
+                out.put((byte) '?');
+            } else {
+                out.put((byte) (0xE0 | (c >> 12)));
+                out.put((byte) (0x80 | ((c >> 6) & 0x3F)));
+                out.put((byte) (0x80 | (c & 0x3F)));
+            }
+        }
+    }
+
+    public static String getString(ByteBuffer in) {
+        final int length = getVarInt(in) - 1;
+        if (length < 0) {
+            return null;
+        }
+        final String value;
+        if (in.hasArray()) {
+            value = new String(in.array(), in.arrayOffset() + in.position(), length, StandardCharsets.UTF_8);
+            in.position(in.position() + length);
+        } else {
+            final byte[] bytes = new byte[length];
+            in.get(bytes);
+            value = new String(bytes, StandardCharsets.UTF_8);
+        }
+        return value;
+    }
+
+    public static void putEnum(ByteBuffer out, Enum<?> value) {
+        putVarInt(out, value == null ? 0 : value.ordinal() + 1);
+    }
+
+    public static <E extends Enum<E>> E getEnum(ByteBuffer in, E[] values) {
+        final int ordinal = getVarInt(in) - 1;
+        return ordinal < 0 ? null : values[ordinal];
+    }
+
+    public static void putUuid(ByteBuffer out, UUID value) {
+        if (putPresence(out, value)) {
+            out.putLong(value.getMostSignificantBits());
+            out.putLong(value.getLeastSignificantBits());
+        }
+    }
+
+    public static UUID getUuid(ByteBuffer in) {
+        return getPresence(in) ? new UUID(in.getLong(), in.getLong()) : null;
+    }
+
+    public static void putDate(ByteBuffer out, Date value) {
+        if (putPresence(out, value)) {
+            putSignedVarLong(out, value.getTime());
+        }
+    }
+
+    public static Date getDate(ByteBuffer in) {
+        return getPresence(in) ? new Date(getSignedVarLong(in)) : null;
+    }
+
+    /**
+     * Finds a field declared on the class or any of its superclasses and makes it accessible, for codecs that must
+     * read fields with neither a visible declaration nor a getter.
+     */
+    public static Field accessibleField(Class<?> clazz, String fieldName) {
+        return Accessors.declaredField(clazz, fieldName);
+    }
+
+    public static Object read(Field field, Object instance) {
+        try {
+            return field.get(instance);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("Unable to read " + field.getName(), e);
+        }
+    }
+
+    private static int utf8Length(String value) {
+        final int length = value.length();
+        int bytes = 0;
+        for (int i = 0; i < length; i++) {
+            final char c = value.charAt(i);
+            if (c < 0x80) {
+                bytes += 1;
+            } else if (c < 0x800) {
+                bytes += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+                bytes += 4;
+                i++;
+            } else if (Character.isSurrogate(c)) {
+                bytes += 1;
+            } else {
+                bytes += 3;
+            }
+        }
+        return bytes;
+    }
+}
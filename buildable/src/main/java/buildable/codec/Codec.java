@@ -0,0 +1,41 @@
+package buildable.codec;
+
+import buildable.Builder;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Specifies a compact binary encoding of a buildable type.
+ * <p>
+ * Codecs are generated for types whose @Buildable specifies generateCodec(). Fields are written in declaration
+ * order straight into a {@link ByteBuffer}, and decoding feeds the values back through the type's generated Builder.
+ * </p>
+ *
+ * @param <T> The type of class that the Codec can encode and decode.
+ */
+public interface Codec<T> {
+
+    /**
+     * Encodes the value at the buffer's current position.
+     *
+     * @param value The instance to encode.
+     * @param out   The buffer to write to, advanced past the encoded value.
+     */
+    void encode(T value, ByteBuffer out);
+
+    /**
+     * Decodes a value previously written by {@link #encode(Object, ByteBuffer)} and builds it.
+     *
+     * @param in The buffer to read from, advanced past the encoded value.
+     * @return A new instance of the type T.
+     */
+    T decode(ByteBuffer in);
+
+    /**
+     * Decodes a value previously written by {@link #encode(Object, ByteBuffer)} into a new Builder, without building it.
+     *
+     * @param in The buffer to read from, advanced past the encoded value.
+     * @return A Builder populated with the decoded field values.
+     */
+    Builder<T> decodeBuilder(ByteBuffer in);
+}
@@ -0,0 +1,157 @@
+package buildable.codec;
+
+import buildable.Builder;
+
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.function.Function;
+
+/**
+ * A file of encoded instances of one buildable type, memory-mapped so that opening it costs the same however many
+ * instances it holds, and only the records that are used are ever decoded.
+ * <p>
+ * Records are written back to back with the type's generated Codec, after a header naming the type, and followed by
+ * the offset of each record and a trailer with the number of records and where their offsets start. As the whole
+ * file is mapped at once, it can't be larger than 2GB. Generated codecs write and open stores of their type with
+ * their static writeFixtures() and openFixtures() methods.
+ * </p>
+ *
+ * @param <T> the type of the instances in the store.
+ * @param <B> the type of the builders records are decoded into.
+ */
+public final class FixtureStore<T, B extends Builder<T>> {
+
+    private static final int MAGIC = 0x42464958;
+    private static final byte VERSION = 1;
+    private static final int TRAILER_SIZE = 2 * Integer.BYTES;
+    private static final int INITIAL_RECORD_CAPACITY = 4096;
+
+    private final MappedByteBuffer file;
+    private final Function<ByteBuffer, B> decoder;
+    private final int size;
+    private final int offsetsStart;
+
+    private FixtureStore(MappedByteBuffer file, Function<ByteBuffer, B> decoder, int size, int offsetsStart) {
+        this.file = file;
+        this.decoder = decoder;
+        this.size = size;
+        this.offsetsStart = offsetsStart;
+    }
+
+    /**
+     * Writes the instances to the file, replacing anything it held.
+     */
+    public static <T> void write(Path path, Class<T> type, Codec<T> codec, Iterable<? extends T> instances) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer record = ByteBuffer.allocate(INITIAL_RECORD_CAPACITY);
+            BinaryEncoding.putString(record.putInt(MAGIC).put(VERSION), type.getName());
+            writeFully(channel, record);
+
+            int[] offsets = new int[1024];
+            int size = 0;
+            for (T each : instances) {
+                if (size == offsets.length) {
+                    offsets = Arrays.copyOf(offsets, size * 2);
+                }
+                offsets[size++] = positionOf(channel);
+                while (true) {
+                    try {
+                        codec.encode(each, record);
+                        break;
+                    } catch (BufferOverflowException e) {
+                        record = ByteBuffer.allocate(record.capacity() * 2);
+                    }
+                }
+                writeFully(channel, record);
+            }
+
+            final int offsetsStart = positionOf(channel);
+            final ByteBuffer index = ByteBuffer.allocate(size * Integer.BYTES + TRAILER_SIZE);
+            for (int i = 0; i < size; i++) {
+                index.putInt(offsets[i]);
+            }
+            index.putInt(size).putInt(offsetsStart);
+            writeFully(channel, index);
+        }
+    }
+
+    /**
+     * Maps the file, reading nothing but its header and trailer.
+     *
+     * @param decoder decodes a record into a builder, such as the type's Codec.decodeBuilder().
+     * @throws IOException if the file isn't a store of the type.
+     */
+    public static <T, B extends Builder<T>> FixtureStore<T, B> open(Path path, Class<T> type, Function<ByteBuffer, B> decoder) throws IOException {
+        final MappedByteBuffer file;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException(path + " is too large to map");
+            }
+            file = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        final ByteBuffer header = file.duplicate();
+        try {
+            if (header.getInt() != MAGIC || header.get() != VERSION) {
+                throw new IOException(path + " is not a fixture store");
+            }
+            final String storedType = BinaryEncoding.getString(header);
+            if (!storedType.equals(type.getName())) {
+                throw new IOException(path + " holds " + storedType + ", not " + type.getName());
+            }
+            final int size = file.getInt(file.limit() - TRAILER_SIZE);
+            final int offsetsStart = file.getInt(file.limit() - Integer.BYTES);
+            if (size < 0 || offsetsStart < header.position() || offsetsStart + (long) size * Integer.BYTES != file.limit() - TRAILER_SIZE) {
+                throw new IOException(path + " is truncated");
+            }
+            return new FixtureStore<>(file, decoder, size, offsetsStart);
+        } catch (RuntimeException e) {
+            throw new IOException(path + " is not a fixture store", e);
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Decodes the record into a new builder, which may be changed before building.
+     */
+    public B builder(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("No record " + index + " in a store of " + size);
+        }
+        final ByteBuffer record = file.duplicate();
+        record.position(file.getInt(offsetsStart + index * Integer.BYTES));
+        return decoder.apply(record);
+    }
+
+    /**
+     * Decodes and builds the record.
+     */
+    public T get(int index) {
+        return builder(index).build();
+    }
+
+    private static int positionOf(FileChannel channel) throws IOException {
+        final long position = channel.position();
+        if (position > Integer.MAX_VALUE) {
+            throw new IOException("A fixture store can't be larger than 2GB");
+        }
+        return (int) position;
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
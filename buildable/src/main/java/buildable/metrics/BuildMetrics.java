@@ -0,0 +1,95 @@
+package buildable.metrics;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts and times the build() calls of one generated builder.
+ * <p>
+ * Builders generated with the processor option <code>-Abuildable.metrics=true</code> look up their metrics once from
+ * the {@link BuildMetricsRegistry} and record every build. Without the option no metrics code is generated at all.
+ * </p>
+ */
+public class BuildMetrics implements BuildMetricsMBean {
+
+    private final String builderName;
+    private final LongAdder builds = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+    private final LatencyHistogram latencies = new LatencyHistogram();
+
+    public BuildMetrics(String builderName) {
+        this.builderName = builderName;
+    }
+
+    /**
+     * Records a build() call.
+     *
+     * @param nanos The time the build took.
+     * @param succeeded <code>false</code> if the build failed to produce an instance.
+     */
+    public void record(long nanos, boolean succeeded) {
+        builds.increment();
+        if (!succeeded) {
+            failures.increment();
+        }
+        totalNanos.add(nanos);
+        maxNanos.accumulate(nanos);
+        latencies.record(nanos);
+    }
+
+    public LatencyHistogram getLatencies() {
+        return latencies;
+    }
+
+    @Override
+    public String getBuilderName() {
+        return builderName;
+    }
+
+    @Override
+    public long getBuildCount() {
+        return builds.sum();
+    }
+
+    @Override
+    public long getFailureCount() {
+        return failures.sum();
+    }
+
+    @Override
+    public long getTotalBuildNanos() {
+        return totalNanos.sum();
+    }
+
+    @Override
+    public long getMeanBuildNanos() {
+        final long count = builds.sum();
+        return count == 0 ? 0 : totalNanos.sum() / count;
+    }
+
+    @Override
+    public long getMaxBuildNanos() {
+        return maxNanos.get();
+    }
+
+    @Override
+    public long getMedianBuildNanos() {
+        return latencies.percentile(50);
+    }
+
+    @Override
+    public long getP99BuildNanos() {
+        return latencies.percentile(99);
+    }
+
+    @Override
+    public void reset() {
+        builds.reset();
+        failures.reset();
+        totalNanos.reset();
+        maxNanos.reset();
+        latencies.reset();
+    }
+}
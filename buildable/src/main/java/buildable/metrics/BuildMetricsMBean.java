@@ -0,0 +1,25 @@
+package buildable.metrics;
+
+/**
+ * The JMX view of a builder's {@link BuildMetrics}.
+ */
+public interface BuildMetricsMBean {
+
+    String getBuilderName();
+
+    long getBuildCount();
+
+    long getFailureCount();
+
+    long getTotalBuildNanos();
+
+    long getMeanBuildNanos();
+
+    long getMaxBuildNanos();
+
+    long getMedianBuildNanos();
+
+    long getP99BuildNanos();
+
+    void reset();
+}
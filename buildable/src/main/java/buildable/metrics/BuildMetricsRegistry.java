@@ -0,0 +1,59 @@
+package buildable.metrics;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Holds the {@link BuildMetrics} of every instrumented builder, queryable in-process and registered as JMX MBeans
+ * named <code>buildable.metrics:type=BuildMetrics,name=&lt;builder class name&gt;</code>.
+ */
+public final class BuildMetricsRegistry {
+
+    public static final String JMX_DOMAIN = "buildable.metrics";
+
+    private static final Map<String, BuildMetrics> METRICS = new ConcurrentHashMap<>();
+
+    private BuildMetricsRegistry() {}
+
+    /**
+     * Called once by each instrumented builder class as it is initialized.
+     *
+     * @return The metrics for the builder, created and registered with JMX on first use.
+     */
+    public static BuildMetrics forBuilder(Class<?> builderClass) {
+        return METRICS.computeIfAbsent(builderClass.getName(), BuildMetricsRegistry::register);
+    }
+
+    /**
+     * @return The metrics of the named builder class, or null if it has not been initialized.
+     */
+    public static BuildMetrics get(String builderClassName) {
+        return METRICS.get(builderClassName);
+    }
+
+    /**
+     * @return The metrics of every initialized builder, keyed by builder class name.
+     */
+    public static Map<String, BuildMetrics> all() {
+        return Collections.unmodifiableMap(METRICS);
+    }
+
+    private static BuildMetrics register(String builderClassName) {
+        final BuildMetrics metrics = new BuildMetrics(builderClassName);
+        try {
+            final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            final ObjectName name = new ObjectName(JMX_DOMAIN + ":type=BuildMetrics,name=" + ObjectName.quote(builderClassName));
+            if (!server.isRegistered(name)) {
+                server.registerMBean(metrics, name);
+            }
+        } catch (JMException | SecurityException e) {
+            // metrics stay queryable in-process even when JMX is unavailable
+        }
+        return metrics;
+    }
+}
@@ -0,0 +1,76 @@
+package buildable.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A lock-free histogram of latencies in nanoseconds.
+ * <p>
+ * Each bucket counts the latencies whose highest set bit is the bucket's index, so bucket <i>i</i> holds latencies
+ * from 2<sup><i>i</i></sup> up to 2<sup><i>i</i>+1</sup> nanoseconds. Buckets are striped counters, so recording
+ * from many threads neither locks nor contends on a single cache line.
+ * </p>
+ */
+public class LatencyHistogram {
+
+    private static final int BUCKETS = 64;
+
+    private final LongAdder[] buckets = new LongAdder[BUCKETS];
+
+    public LatencyHistogram() {
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    public void record(long nanos) {
+        buckets[bucketOf(nanos)].increment();
+    }
+
+    public long count() {
+        long count = 0;
+        for (LongAdder each : buckets) {
+            count += each.sum();
+        }
+        return count;
+    }
+
+    /**
+     * @param percentile Between 0 and 100.
+     * @return The upper bound, in nanoseconds, of the bucket holding the percentile, or 0 if nothing was recorded.
+     */
+    public long percentile(double percentile) {
+        final long[] counts = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = buckets[i].sum();
+            total += counts[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+
+        final long rank = Math.max(1, (long) Math.ceil(total * percentile / 100d));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return upperBoundOf(i);
+            }
+        }
+        return upperBoundOf(BUCKETS - 1);
+    }
+
+    public void reset() {
+        for (LongAdder each : buckets) {
+            each.reset();
+        }
+    }
+
+    private static int bucketOf(long nanos) {
+        return nanos <= 1 ? 0 : 63 - Long.numberOfLeadingZeros(nanos);
+    }
+
+    private static long upperBoundOf(int bucket) {
+        return bucket >= 62 ? Long.MAX_VALUE : (2L << bucket) - 1;
+    }
+}
@@ -0,0 +1,20 @@
+package buildable.pool;
+
+/**
+ * Supplies the instances built by builders of types whose @Buildable specifies pooled(), and takes them back once
+ * they have been recycled.
+ *
+ * @param <T> the type of instance pooled.
+ */
+public interface InstancePool<T> {
+
+    /**
+     * @return an instance released earlier, or <code>null</code> when the pool has none and build() should allocate.
+     */
+    T acquire();
+
+    /**
+     * Offers a recycled instance back to the pool, which may drop it.
+     */
+    void release(T instance);
+}
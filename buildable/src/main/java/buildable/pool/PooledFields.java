@@ -0,0 +1,57 @@
+package buildable.pool;
+
+import buildable.runtime.Accessors;
+
+import java.lang.reflect.Field;
+
+/**
+ * Clears the fields of instances being recycled, used by the recycle() method of generated builders.
+ */
+public final class PooledFields {
+
+    private PooledFields() {}
+
+    /**
+     * Finds the fields, declared on the class or any of its superclasses, and makes them accessible once so
+     * recycling doesn't have to look them up again.
+     */
+    public static Field[] fieldsOf(Class<?> clazz, String... fieldNames) {
+        final Field[] fields = new Field[fieldNames.length];
+        for (int i = 0; i < fieldNames.length; i++) {
+            fields[i] = Accessors.declaredField(clazz, fieldNames[i]);
+        }
+        return fields;
+    }
+
+    /**
+     * Sets each of the fields of the instance back to null, zero or false.
+     */
+    public static void clear(Object instance, Field[] fields) {
+        try {
+            for (Field each : fields) {
+                final Class<?> type = each.getType();
+                if (!type.isPrimitive()) {
+                    each.set(instance, null);
+                } else if (type == boolean.class) {
+                    each.setBoolean(instance, false);
+                } else if (type == char.class) {
+                    each.setChar(instance, (char) 0);
+                } else if (type == long.class) {
+                    each.setLong(instance, 0L);
+                } else if (type == float.class) {
+                    each.setFloat(instance, 0f);
+                } else if (type == double.class) {
+                    each.setDouble(instance, 0d);
+                } else if (type == byte.class) {
+                    each.setByte(instance, (byte) 0);
+                } else if (type == short.class) {
+                    each.setShort(instance, (short) 0);
+                } else {
+                    each.setInt(instance, 0);
+                }
+            }
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("Unable to clear " + instance, e);
+        }
+    }
+}
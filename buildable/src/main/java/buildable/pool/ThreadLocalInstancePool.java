@@ -0,0 +1,64 @@
+package buildable.pool;
+
+/**
+ * The default {@link InstancePool}, a bounded stack of instances per thread.
+ * <p>
+ * Each thread only ever touches its own stack, so acquiring and releasing take no locks. Instances released on
+ * another thread than the one that acquired them go to the releasing thread's stack.
+ * </p>
+ *
+ * @param <T> the type of instance pooled.
+ */
+public class ThreadLocalInstancePool<T> implements InstancePool<T> {
+
+    public static final int DEFAULT_CAPACITY = 64;
+
+    private final ThreadLocal<Stack> stacks;
+
+    public ThreadLocalInstancePool() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public ThreadLocalInstancePool(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be positive but was " + capacity);
+        }
+        this.stacks = ThreadLocal.withInitial(() -> new Stack(capacity));
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T acquire() {
+        final Stack stack = stacks.get();
+        if (stack.size == 0) {
+            return null;
+        }
+        final Object instance = stack.instances[--stack.size];
+        stack.instances[stack.size] = null;
+        return (T) instance;
+    }
+
+    @Override
+    public void release(T instance) {
+        final Stack stack = stacks.get();
+        if (instance != null && stack.size < stack.instances.length) {
+            stack.instances[stack.size++] = instance;
+        }
+    }
+
+    /**
+     * @return the number of instances pooled for the calling thread.
+     */
+    public int size() {
+        return stacks.get().size;
+    }
+
+    private static final class Stack {
+        private final Object[] instances;
+        private int size;
+
+        private Stack(int capacity) {
+            this.instances = new Object[capacity];
+        }
+    }
+}
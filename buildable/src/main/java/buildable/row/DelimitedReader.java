@@ -0,0 +1,108 @@
+package buildable.row;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Reads the lines of a delimited file one {@link DelimitedRow} at a time, through a buffer that only grows to fit the
+ * longest line, so files of any size are read in constant memory.
+ */
+public final class DelimitedReader implements Closeable {
+
+    public static final char CSV = ',';
+    public static final char TSV = '\t';
+
+    private static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+    private final Reader reader;
+    private final DelimitedRow row;
+    private char[] buffer = new char[DEFAULT_BUFFER_SIZE];
+    private CharBuffer chars = CharBuffer.wrap(buffer);
+    private int position;
+    private int limit;
+    private boolean endOfInput;
+    private long lineNumber;
+
+    public DelimitedReader(Reader reader, char delimiter) {
+        this.reader = reader;
+        this.row = new DelimitedRow(delimiter);
+    }
+
+    public static DelimitedReader open(Path file, Charset charset, char delimiter) throws IOException {
+        return new DelimitedReader(Files.newBufferedReader(file, charset), delimiter);
+    }
+
+    /**
+     * The next line, split into cells, or null at the end of the input. The row is reused for the following line.
+     */
+    public DelimitedRow next() throws IOException {
+        int lineEnd;
+        while ((lineEnd = indexOfNewline()) < 0) {
+            if (endOfInput) {
+                if (position == limit) {
+                    return null;
+                }
+                lineEnd = limit;
+                break;
+            }
+            fill();
+        }
+
+        final int start = position;
+        position = lineEnd < limit ? lineEnd + 1 : limit;
+        final int end = lineEnd > start && buffer[lineEnd - 1] == '\r' ? lineEnd - 1 : lineEnd;
+        lineNumber++;
+        try {
+            return row.reset(chars, start, end);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Line " + lineNumber + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * The number of the line last returned by {@link #next()}, starting from 1.
+     */
+    public long getLineNumber() {
+        return lineNumber;
+    }
+
+    private int indexOfNewline() {
+        for (int i = position; i < limit; i++) {
+            if (buffer[i] == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Moves the unread characters to the start of the buffer, growing it if it holds nothing else, and reads more.
+     */
+    private void fill() throws IOException {
+        if (position > 0) {
+            System.arraycopy(buffer, position, buffer, 0, limit - position);
+            limit -= position;
+            position = 0;
+        } else if (limit == buffer.length) {
+            buffer = Arrays.copyOf(buffer, buffer.length * 2);
+            chars = CharBuffer.wrap(buffer);
+        }
+        final int read = reader.read(buffer, limit, buffer.length - limit);
+        if (read < 0) {
+            endOfInput = true;
+        } else {
+            limit += read;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
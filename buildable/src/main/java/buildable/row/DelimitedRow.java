@@ -0,0 +1,332 @@
+package buildable.row;
+
+import java.util.Arrays;
+
+/**
+ * One line of a delimited file, such as CSV or TSV, split into cells that are parsed in place.
+ * <p>
+ * Splitting records where each cell starts and ends, and the getters parse numbers straight from the characters of the
+ * line, so only {@link #getString(int)} allocates. Cells may be quoted with <code>"</code>, doubling any quote inside
+ * them, but can't span lines. A row is reused for each line read, so it must not be kept.
+ * </p>
+ */
+public final class DelimitedRow {
+
+    private static final double[] DOUBLE_POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+    private static final float[] FLOAT_POWERS_OF_TEN = {1e0f, 1e1f, 1e2f, 1e3f, 1e4f, 1e5f, 1e6f, 1e7f, 1e8f, 1e9f, 1e10f};
+    private static final long NOT_SIMPLE = Long.MIN_VALUE;
+
+    private final char delimiter;
+    private CharSequence line;
+    private int[] starts = new int[16];
+    private int[] ends = new int[16];
+    private boolean[] escaped = new boolean[16];
+    private int size;
+    private long mantissa;
+    private boolean negativeDecimal;
+
+    public DelimitedRow(char delimiter) {
+        this.delimiter = delimiter;
+    }
+
+    /**
+     * Splits the characters from start to end of the line into cells, replacing the previous line.
+     */
+    public DelimitedRow reset(CharSequence line, int start, int end) {
+        this.line = line;
+        this.size = 0;
+        int position = start;
+        while (true) {
+            if (size == starts.length) {
+                starts = Arrays.copyOf(starts, size * 2);
+                ends = Arrays.copyOf(ends, size * 2);
+                escaped = Arrays.copyOf(escaped, size * 2);
+            }
+            escaped[size] = false;
+            if (position < end && line.charAt(position) == '"') {
+                starts[size] = ++position;
+                while (true) {
+                    if (position >= end) {
+                        throw new IllegalArgumentException("Unterminated quote in cell " + size);
+                    }
+                    if (line.charAt(position) == '"') {
+                        if (position + 1 < end && line.charAt(position + 1) == '"') {
+                            escaped[size] = true;
+                            position += 2;
+                            continue;
+                        }
+                        break;
+                    }
+                    position++;
+                }
+                ends[size] = position++;
+                if (position < end && line.charAt(position) != delimiter) {
+                    throw new IllegalArgumentException("Characters after the closing quote of cell " + size);
+                }
+            } else {
+                starts[size] = position;
+                while (position < end && line.charAt(position) != delimiter) {
+                    position++;
+                }
+                ends[size] = position;
+            }
+            size++;
+            if (position >= end) {
+                return this;
+            }
+            position++;
+        }
+    }
+
+    public DelimitedRow reset(CharSequence line) {
+        return reset(line, 0, line.length());
+    }
+
+    /**
+     * The number of cells in the row.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Whether the row has no such cell or it holds no characters.
+     */
+    public boolean isEmpty(int column) {
+        return column >= size || starts[column] == ends[column];
+    }
+
+    public String getString(int column) {
+        checkColumn(column);
+        final String cell = line.subSequence(starts[column], ends[column]).toString();
+        return escaped[column] ? cell.replace("\"\"", "\"") : cell;
+    }
+
+    public int getInt(int column) {
+        final long value = getLong(column);
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+            throw invalid(column, "int");
+        }
+        return (int) value;
+    }
+
+    public short getShort(int column) {
+        final long value = getLong(column);
+        if (value < Short.MIN_VALUE || value > Short.MAX_VALUE) {
+            throw invalid(column, "short");
+        }
+        return (short) value;
+    }
+
+    public byte getByte(int column) {
+        final long value = getLong(column);
+        if (value < Byte.MIN_VALUE || value > Byte.MAX_VALUE) {
+            throw invalid(column, "byte");
+        }
+        return (byte) value;
+    }
+
+    public long getLong(int column) {
+        checkColumn(column);
+        int position = starts[column];
+        final int end = ends[column];
+        final boolean negative = position < end && line.charAt(position) == '-';
+        if (negative || (position < end && line.charAt(position) == '+')) {
+            position++;
+        }
+        if (position == end) {
+            throw invalid(column, "long");
+        }
+        // accumulated negatively, so Long.MIN_VALUE fits
+        long value = 0;
+        for (; position < end; position++) {
+            final int digit = line.charAt(position) - '0';
+            if (digit < 0 || digit > 9 || value < (Long.MIN_VALUE + digit) / 10) {
+                throw invalid(column, "long");
+            }
+            value = value * 10 - digit;
+        }
+        if (!negative && value == Long.MIN_VALUE) {
+            throw invalid(column, "long");
+        }
+        return negative ? value : -value;
+    }
+
+    /**
+     * Decimals of up to 15 significant digits and exponents of up to 22 are converted exactly without allocating,
+     * others with {@link Double#parseDouble(String)}.
+     */
+    public double getDouble(int column) {
+        checkColumn(column);
+        final long parsed = parseDecimal(column, 15, DOUBLE_POWERS_OF_TEN.length - 1);
+        if (parsed == NOT_SIMPLE) {
+            try {
+                return Double.parseDouble(getString(column));
+            } catch (NumberFormatException e) {
+                throw invalid(column, "double");
+            }
+        }
+        final double value = parsed < 0 ? (double) mantissa / DOUBLE_POWERS_OF_TEN[(int) -parsed] : (double) mantissa * DOUBLE_POWERS_OF_TEN[(int) parsed];
+        return negativeDecimal ? -value : value;
+    }
+
+    /**
+     * Like {@link #getDouble(int)}, for up to 7 significant digits and exponents of up to 10.
+     */
+    public float getFloat(int column) {
+        checkColumn(column);
+        final long parsed = parseDecimal(column, 7, FLOAT_POWERS_OF_TEN.length - 1);
+        if (parsed == NOT_SIMPLE) {
+            try {
+                return Float.parseFloat(getString(column));
+            } catch (NumberFormatException e) {
+                throw invalid(column, "float");
+            }
+        }
+        final float value = parsed < 0 ? (float) mantissa / FLOAT_POWERS_OF_TEN[(int) -parsed] : (float) mantissa * FLOAT_POWERS_OF_TEN[(int) parsed];
+        return negativeDecimal ? -value : value;
+    }
+
+    /**
+     * <code>true</code> or <code>false</code>, ignoring case.
+     */
+    public boolean getBoolean(int column) {
+        if (matches(column, "true")) {
+            return true;
+        }
+        if (matches(column, "false")) {
+            return false;
+        }
+        throw invalid(column, "boolean");
+    }
+
+    public char getChar(int column) {
+        checkColumn(column);
+        if (ends[column] - starts[column] != 1) {
+            throw invalid(column, "char");
+        }
+        return line.charAt(starts[column]);
+    }
+
+    /**
+     * The constant with the cell's name, found without allocating.
+     */
+    public <E extends Enum<E>> E getEnum(int column, E[] values) {
+        for (E each : values) {
+            if (matchesExactly(column, each.name())) {
+                return each;
+            }
+        }
+        throw invalid(column, values.getClass().getComponentType().getSimpleName());
+    }
+
+    /**
+     * Reads the cell's digits into mantissa and returns its power of ten, or NOT_SIMPLE if it has more digits or a
+     * larger exponent than can be converted exactly, or isn't a plain decimal.
+     */
+    private long parseDecimal(int column, int maxDigits, int maxExponent) {
+        int position = starts[column];
+        final int end = ends[column];
+        negativeDecimal = position < end && line.charAt(position) == '-';
+        if (negativeDecimal || (position < end && line.charAt(position) == '+')) {
+            position++;
+        }
+        long digits = 0;
+        int digitCount = 0;
+        int exponent = 0;
+        boolean seenPoint = false;
+        boolean seenDigit = false;
+        for (; position < end; position++) {
+            final char each = line.charAt(position);
+            if (each == '.' && !seenPoint) {
+                seenPoint = true;
+            } else if (each >= '0' && each <= '9') {
+                seenDigit = true;
+                if (digits == 0 && each == '0') {
+                    // leading zeros aren't significant
+                } else if (++digitCount > maxDigits) {
+                    return NOT_SIMPLE;
+                } else {
+                    digits = digits * 10 + (each - '0');
+                }
+                if (seenPoint) {
+                    exponent--;
+                }
+            } else if ((each == 'e' || each == 'E') && seenDigit) {
+                final long explicit = parseExponent(position + 1, end);
+                if (explicit == NOT_SIMPLE) {
+                    return NOT_SIMPLE;
+                }
+                exponent += explicit;
+                break;
+            } else {
+                return NOT_SIMPLE;
+            }
+        }
+        if (!seenDigit || exponent < -maxExponent || exponent > maxExponent) {
+            return NOT_SIMPLE;
+        }
+        mantissa = digits;
+        return exponent;
+    }
+
+    private long parseExponent(int position, int end) {
+        final boolean negative = position < end && line.charAt(position) == '-';
+        if (negative || (position < end && line.charAt(position) == '+')) {
+            position++;
+        }
+        if (position == end || end - position > 3) {
+            return NOT_SIMPLE;
+        }
+        int exponent = 0;
+        for (; position < end; position++) {
+            final int digit = line.charAt(position) - '0';
+            if (digit < 0 || digit > 9) {
+                return NOT_SIMPLE;
+            }
+            exponent = exponent * 10 + digit;
+        }
+        return negative ? -exponent : exponent;
+    }
+
+    private boolean matches(int column, String expected) {
+        checkColumn(column);
+        final int start = starts[column];
+        if (ends[column] - start != expected.length()) {
+            return false;
+        }
+        for (int i = 0; i < expected.length(); i++) {
+            if (Character.toLowerCase(line.charAt(start + i)) != expected.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean matchesExactly(int column, String expected) {
+        checkColumn(column);
+        final int start = starts[column];
+        if (ends[column] - start != expected.length()) {
+            return false;
+        }
+        for (int i = 0; i < expected.length(); i++) {
+            if (line.charAt(start + i) != expected.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void checkColumn(int column) {
+        if (column < 0 || column >= size) {
+            throw new IndexOutOfBoundsException("No column " + column + " in a row of " + size);
+        }
+    }
+
+    private IllegalArgumentException invalid(int column, String type) {
+        return new IllegalArgumentException("Column " + column + " is not a valid " + type + ": " + getString(column));
+    }
+}
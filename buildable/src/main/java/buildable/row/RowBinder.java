@@ -0,0 +1,55 @@
+package buildable.row;
+
+import buildable.Builder;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.function.Consumer;
+
+/**
+ * Binds the cells of a delimited row to the fields of a buildable type, by the position of each field's column.
+ * <p>
+ * Binders are generated for types whose @Buildable specifies generateRowBinder(). Each column is parsed into the type
+ * of its field straight from the row and passed to the field's builder method, and empty cells leave the field at the
+ * builder's default.
+ * </p>
+ *
+ * @param <T> The type of class that the RowBinder builds.
+ */
+public interface RowBinder<T> {
+
+    /**
+     * A new builder holding the row's values.
+     */
+    Builder<T> bind(DelimitedRow row);
+
+    /**
+     * Builds an instance of each line read, one line at a time, so memory use doesn't grow with the input.
+     *
+     * @param skipHeader whether the first line holds column names rather than values.
+     */
+    default void forEach(Reader input, char delimiter, boolean skipHeader, Consumer<? super T> action) throws IOException {
+        try (DelimitedReader reader = new DelimitedReader(input, delimiter)) {
+            if (skipHeader) {
+                reader.next();
+            }
+            DelimitedRow row;
+            while ((row = reader.next()) != null) {
+                final Builder<T> builder;
+                try {
+                    builder = bind(row);
+                } catch (IllegalArgumentException e) {
+                    throw new IOException("Line " + reader.getLineNumber() + ": " + e.getMessage(), e);
+                }
+                action.accept(builder.build());
+            }
+        }
+    }
+
+    default void forEach(Path file, Charset charset, char delimiter, boolean skipHeader, Consumer<? super T> action) throws IOException {
+        forEach(Files.newBufferedReader(file, charset), delimiter, skipHeader, action);
+    }
+}
@@ -0,0 +1,110 @@
+package buildable.runtime;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * The reflection generated builders need to create instances and write their fields, resolved once per built type
+ * and cached with {@link ClassValue}s so it is released along with the type's class loader.
+ */
+public final class Accessors {
+
+    private static final ClassValue<ConcurrentMap<String, FieldAccessor>> FIELD_ACCESSORS = new ClassValue<ConcurrentMap<String, FieldAccessor>>() {
+        @Override
+        protected ConcurrentMap<String, FieldAccessor> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
+    private static final ClassValue<MethodHandle> NO_ARG_CONSTRUCTORS = new ClassValue<MethodHandle>() {
+        @Override
+        protected MethodHandle computeValue(Class<?> type) {
+            return constructorOf(type);
+        }
+    };
+
+    private static final ClassValue<ConcurrentMap<List<Class<?>>, MethodHandle>> CONSTRUCTORS = new ClassValue<ConcurrentMap<List<Class<?>>, MethodHandle>>() {
+        @Override
+        protected ConcurrentMap<List<Class<?>>, MethodHandle> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
+    private Accessors() {}
+
+    /**
+     * The accessor for a field of the type, which is resolved the first time it writes the field.
+     */
+    public static FieldAccessor forField(Class<?> type, String fieldName, Class<?> fieldType) {
+        return FIELD_ACCESSORS.get(type).computeIfAbsent(fieldName, name -> new FieldAccessor(type, name, fieldType));
+    }
+
+    /**
+     * Creates an instance with the type's no-arg constructor, whatever its visibility.
+     */
+    public static <T> T newInstance(Class<T> type) {
+        return invoke(type, NO_ARG_CONSTRUCTORS.get(type));
+    }
+
+    /**
+     * Creates an instance with the type's public constructor taking the parameter types.
+     */
+    public static <T> T newInstance(Class<T> type, Class<?>[] parameterTypes, Object... arguments) {
+        final MethodHandle constructor = CONSTRUCTORS.get(type).computeIfAbsent(Arrays.asList(parameterTypes),
+                types -> constructorOf(type, parameterTypes));
+        return invoke(type, constructor, arguments);
+    }
+
+    /**
+     * Finds a field declared on the class or any of its superclasses and makes it accessible.
+     */
+    public static Field declaredField(Class<?> clazz, String fieldName) {
+        for (Class<?> each = clazz; each != null; each = each.getSuperclass()) {
+            try {
+                final Field field = each.getDeclaredField(fieldName);
+                field.setAccessible(true);
+                return field;
+            } catch (NoSuchFieldException e) {
+                // keep looking in the superclass
+            }
+        }
+        throw new IllegalStateException("No field " + fieldName + " in " + clazz.getName());
+    }
+
+    private static MethodHandle constructorOf(Class<?> type) {
+        try {
+            final Constructor<?> constructor = type.getDeclaredConstructor();
+            constructor.setAccessible(true);
+            return MethodHandles.lookup().unreflectConstructor(constructor).asType(MethodType.methodType(Object.class));
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            throw new IllegalStateException("Unable to use the no-arg constructor of " + type.getName(), e);
+        }
+    }
+
+    private static MethodHandle constructorOf(Class<?> type, Class<?>[] parameterTypes) {
+        try {
+            return MethodHandles.lookup().unreflectConstructor(type.getConstructor(parameterTypes))
+                    .asType(MethodType.genericMethodType(parameterTypes.length))
+                    .asSpreader(Object[].class, parameterTypes.length);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            throw new IllegalStateException("Unable to use the constructor of " + type.getName() + " taking " + Arrays.toString(parameterTypes), e);
+        }
+    }
+
+    private static <T> T invoke(Class<T> type, MethodHandle constructor, Object... arguments) {
+        try {
+            return type.cast(arguments.length == 0 ? constructor.invoke() : constructor.invoke(arguments));
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException("Unable to create " + type.getName(), e);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package buildable.runtime;
+
+import buildable.Builder;
+
+/**
+ * Populates a generated builder by the index of its fields, called slots, for tools that map properties onto builders
+ * by name without reflection.
+ * <p>
+ * Every builder that is neither abstract nor immutable has one, returned by its static meta() method. Slots are
+ * numbered in the order the builder declares its fields, {@link #slotOf(String)} finds them with a perfect hash worked
+ * out when the builder was generated, and the setters assign the builder's fields directly through a switch on the
+ * slot, marking them set as the builder's own methods do.
+ * </p>
+ *
+ * @param <T> the type the builder builds.
+ * @param <B> the type of the builder.
+ */
+public interface BuilderMeta<T, B extends Builder<T>> {
+
+    B newBuilder();
+
+    int slotCount();
+
+    /**
+     * The slot of the field with the name, or -1 if the builder has no such field.
+     */
+    int slotOf(String fieldName);
+
+    String nameOf(int slot);
+
+    /**
+     * The type of the slot's field, without any type arguments.
+     */
+    Class<?> typeOf(int slot);
+
+    /**
+     * Assigns the field of the slot, unboxing the value for primitive fields.
+     *
+     * @throws ClassCastException if the value isn't of the field's type.
+     * @throws IndexOutOfBoundsException if there is no such slot.
+     */
+    void set(B builder, int slot, Object value);
+
+    /**
+     * Assigns an int field without boxing. Fields of other types are given the boxed value.
+     */
+    default void setInt(B builder, int slot, int value) {
+        set(builder, slot, value);
+    }
+
+    /**
+     * Assigns a long field without boxing. Fields of other types are given the boxed value.
+     */
+    default void setLong(B builder, int slot, long value) {
+        set(builder, slot, value);
+    }
+
+    /**
+     * Assigns a double field without boxing. Fields of other types are given the boxed value.
+     */
+    default void setDouble(B builder, int slot, double value) {
+        set(builder, slot, value);
+    }
+
+    /**
+     * Assigns a boolean field without boxing. Fields of other types are given the boxed value.
+     */
+    default void setBoolean(B builder, int slot, boolean value) {
+        set(builder, slot, value);
+    }
+}
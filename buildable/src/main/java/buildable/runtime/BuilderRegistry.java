@@ -0,0 +1,23 @@
+package buildable.runtime;
+
+import buildable.Builder;
+
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * The builders one module generated, found by {@link Builders} through {@link java.util.ServiceLoader}.
+ * <p>
+ * The processor generates an implementation for each compilation and lists it in
+ * <code>META-INF/services/buildable.runtime.BuilderRegistry</code>. Registering a builder doesn't load its class;
+ * that happens the first time its supplier is called.
+ * </p>
+ */
+public interface BuilderRegistry {
+
+    /**
+     * Adds a supplier of new builders for each type this module generated a builder for, keyed by the binary name of
+     * the built type.
+     */
+    void registerBuilders(Map<String, Supplier<? extends Builder<?>>> builders);
+}
@@ -0,0 +1,55 @@
+package buildable.runtime;
+
+import buildable.Builder;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.ServiceLoader;
+import java.util.function.Supplier;
+
+/**
+ * Finds the generated builder of a type, through the {@link BuilderRegistry}s on the classpath.
+ * <p>
+ * The registries are loaded once, the first time a builder is asked for, after which each lookup is a single map
+ * lookup. Builders are created through the factory methods their registries call, so custom builder names and
+ * factory methods need no special handling.
+ * </p>
+ */
+public final class Builders {
+
+    private Builders() {}
+
+    /**
+     * A new builder of the type.
+     *
+     * @throws IllegalArgumentException if no registry on the classpath has a builder of the type
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> Builder<T> forType(Class<T> type) {
+        final Supplier<? extends Builder<?>> builder = Registered.BUILDERS.get(type.getName());
+        if (builder == null) {
+            throw new IllegalArgumentException("No builder was generated for " + type.getName());
+        }
+        return (Builder<T>) builder.get();
+    }
+
+    /**
+     * Whether a registry on the classpath has a builder of the type.
+     */
+    public static boolean hasBuilder(Class<?> type) {
+        return Registered.BUILDERS.containsKey(type.getName());
+    }
+
+    private static final class Registered {
+
+        static final Map<String, Supplier<? extends Builder<?>>> BUILDERS = load();
+
+        private static Map<String, Supplier<? extends Builder<?>>> load() {
+            final Map<String, Supplier<? extends Builder<?>>> builders = new HashMap<>();
+            for (BuilderRegistry each : ServiceLoader.load(BuilderRegistry.class, Builders.class.getClassLoader())) {
+                each.registerBuilders(builders);
+            }
+            return builders;
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package buildable.runtime;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+
+/**
+ * Writes one field of a built type, through the setter declared by the type if there is one and directly otherwise.
+ * Obtained from {@link Accessors#forField(Class, String, Class)}.
+ */
+public final class FieldAccessor {
+
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+    private final Class<?> type;
+    private final String fieldName;
+    private final Class<?> fieldType;
+    private volatile MethodHandle setter;
+
+    FieldAccessor(Class<?> type, String fieldName, Class<?> fieldType) {
+        this.type = type;
+        this.fieldName = fieldName;
+        this.fieldType = fieldType;
+    }
+
+    public void set(Object instance, Object value) {
+        MethodHandle handle = setter;
+        if (handle == null) {
+            // resolving twice on a race is harmless
+            setter = handle = resolve();
+        }
+        try {
+            handle.invokeExact(instance, value);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException("Unable to set " + fieldName + " of " + type.getName(), e);
+        }
+    }
+
+    private MethodHandle resolve() {
+        final String setterName = "set" + Character.toUpperCase(fieldName.charAt(0)) + fieldName.substring(1);
+        try {
+            MethodHandle handle;
+            try {
+                final Method method = type.getDeclaredMethod(setterName, fieldType);
+                method.setAccessible(true);
+                handle = MethodHandles.lookup().unreflect(method);
+            } catch (NoSuchMethodException e) {
+                handle = MethodHandles.lookup().unreflectSetter(Accessors.declaredField(type, fieldName));
+            }
+            return handle.asType(SETTER_TYPE);
+        } catch (IllegalAccessException | RuntimeException e) {
+            throw new IllegalStateException("Unable to write " + fieldName + " of " + type.getName(), e);
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package buildable.runtime;
+
+import buildable.Builder;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * The canonical instances of a type, keyed by the state of the builder that built them, that generated
+ * buildShared() methods return instead of building an equal instance again.
+ * <p>
+ * Instances are held weakly, so one that is no longer used elsewhere is collected and built again the next time it
+ * is asked for. The table is split into stripes, each locked separately, and a stripe is only locked to look up and
+ * add instances, never while one is built.
+ * </p>
+ *
+ * @param <T> the type of the instances.
+ */
+public final class Interner<T> {
+
+    public static final int DEFAULT_STRIPES = 16;
+
+    private final Stripe<T>[] stripes;
+
+    public Interner() {
+        this(DEFAULT_STRIPES);
+    }
+
+    /**
+     * @param stripes the number of separately locked stripes, rounded up to a power of two.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public Interner(int stripes) {
+        if (stripes < 1) {
+            throw new IllegalArgumentException("At least one stripe is needed, not " + stripes);
+        }
+        int size = 1;
+        while (size < stripes) {
+            size <<= 1;
+        }
+        this.stripes = new Stripe[size];
+        for (int i = 0; i < this.stripes.length; i++) {
+            this.stripes[i] = new Stripe<>();
+        }
+    }
+
+    /**
+     * The canonical instance for the builder's state, built by the builder if there is none yet.
+     *
+     * @param hash  the hash of the state, consistent with {@link Objects#deepEquals(Object, Object)} of its values.
+     * @param state the values the instance is built from, which are held rather than copied, so must not be changed
+     *              afterwards, nor must any array, collection or other mutable object among them.
+     * @return the canonical instance, or whatever the builder returned if that was null.
+     */
+    public T intern(int hash, Object[] state, Builder<? extends T> builder) {
+        final Stripe<T> stripe = stripes[(hash ^ (hash >>> 16)) & (stripes.length - 1)];
+        final State key = new State(hash, state);
+
+        final T existing = stripe.get(key);
+        if (existing != null) {
+            return existing;
+        }
+        final T built = builder.build();
+        return built == null ? null : stripe.putIfAbsent(key, built);
+    }
+
+    /**
+     * The number of instances held, including any collected but not yet cleared.
+     */
+    public int size() {
+        int size = 0;
+        for (Stripe<T> each : stripes) {
+            size += each.size();
+        }
+        return size;
+    }
+
+    private static final class Stripe<T> {
+
+        private final Map<State, Instance<T>> instances = new HashMap<>();
+        private final ReferenceQueue<T> collected = new ReferenceQueue<>();
+
+        synchronized T get(State key) {
+            expungeCollected();
+            final Instance<T> instance = instances.get(key);
+            return instance == null ? null : instance.get();
+        }
+
+        synchronized T putIfAbsent(State key, T built) {
+            expungeCollected();
+            final Instance<T> instance = instances.get(key);
+            final T existing = instance == null ? null : instance.get();
+            if (existing != null) {
+                // another thread built an equal instance first
+                return existing;
+            }
+            instances.put(key, new Instance<>(key, built, collected));
+            return built;
+        }
+
+        synchronized int size() {
+            expungeCollected();
+            return instances.size();
+        }
+
+        @SuppressWarnings("unchecked")
+        private void expungeCollected() {
+            Instance<T> each;
+            while ((each = (Instance<T>) collected.poll()) != null) {
+                // a newer instance may have replaced the collected one
+                instances.remove(each.key, each);
+            }
+        }
+    }
+
+    private static final class Instance<T> extends WeakReference<T> {
+
+        private final State key;
+
+        Instance(State key, T referent, ReferenceQueue<T> queue) {
+            super(referent, queue);
+            this.key = key;
+        }
+    }
+
+    private static final class State {
+
+        private final int hash;
+        private final Object[] values;
+
+        State(int hash, Object[] values) {
+            this.hash = hash;
+            this.values = values;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (this == other) {
+                return true;
+            }
+            if (!(other instanceof State) || ((State) other).hash != hash) {
+                return false;
+            }
+            final Object[] otherValues = ((State) other).values;
+            if (otherValues.length != values.length) {
+                return false;
+            }
+            for (int i = 0; i < values.length; i++) {
+                if (!Objects.deepEquals(values[i], otherValues[i])) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package buildable.runtime;
+
+import java.util.Arrays;
+
+/**
+ * The values set on an immutable builder, generated for <code>@Buildable(immutable = true)</code>, keyed by the
+ * index of their field.
+ * <p>
+ * Slots are never changed once created: {@link #with(int, Object)} returns new slots that share all but the chunk of
+ * 16 values the slot is in with the slots it was called on, copying only that chunk and the array of chunks. So
+ * builders that hold them can be shared between threads without locking, and each variant derived from one costs
+ * the values it changed rather than a copy of every field. A slot holding null is still set.
+ * </p>
+ */
+public final class PersistentSlots {
+
+    private static final int CHUNK_SHIFT = 4;
+    private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+    private static final Object UNSET = new Object();
+
+    private final int slotCount;
+    // null for chunks of which no slot was set
+    private final Object[][] chunks;
+    private final int size;
+
+    private PersistentSlots(int slotCount, Object[][] chunks, int size) {
+        this.slotCount = slotCount;
+        this.chunks = chunks;
+        this.size = size;
+    }
+
+    /**
+     * Slots of which none are set.
+     */
+    public static PersistentSlots empty(int slotCount) {
+        if (slotCount < 0) {
+            throw new IllegalArgumentException("Can't hold " + slotCount + " slots");
+        }
+        return new PersistentSlots(slotCount, new Object[(slotCount + CHUNK_SIZE - 1) >>> CHUNK_SHIFT][], 0);
+    }
+
+    /**
+     * These slots, with the slot set to the value.
+     */
+    public PersistentSlots with(int slot, Object value) {
+        checkSlot(slot);
+        final Object[][] chunks = this.chunks.clone();
+        final int chunkIndex = slot >>> CHUNK_SHIFT;
+        final Object[] chunk;
+        if (chunks[chunkIndex] == null) {
+            chunk = new Object[Math.min(CHUNK_SIZE, slotCount - (chunkIndex << CHUNK_SHIFT))];
+            Arrays.fill(chunk, UNSET);
+        } else {
+            chunk = chunks[chunkIndex].clone();
+        }
+        final boolean added = chunk[slot & (CHUNK_SIZE - 1)] == UNSET;
+        chunk[slot & (CHUNK_SIZE - 1)] = value;
+        chunks[chunkIndex] = chunk;
+        return new PersistentSlots(slotCount, chunks, added ? size + 1 : size);
+    }
+
+    public boolean contains(int slot) {
+        checkSlot(slot);
+        final Object[] chunk = chunks[slot >>> CHUNK_SHIFT];
+        return chunk != null && chunk[slot & (CHUNK_SIZE - 1)] != UNSET;
+    }
+
+    /**
+     * The value of the slot, or the default if the slot was never set.
+     */
+    public Object get(int slot, Object defaultValue) {
+        checkSlot(slot);
+        final Object[] chunk = chunks[slot >>> CHUNK_SHIFT];
+        if (chunk == null) {
+            return defaultValue;
+        }
+        final Object value = chunk[slot & (CHUNK_SIZE - 1)];
+        return value == UNSET ? defaultValue : value;
+    }
+
+    /**
+     * The number of slots set.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * The slots set, as a bit of a new mask of one long for each 64 of the slots.
+     */
+    public long[] mask() {
+        final long[] mask = new long[(slotCount + 63) / 64];
+        for (int chunkIndex = 0; chunkIndex < chunks.length; chunkIndex++) {
+            final Object[] chunk = chunks[chunkIndex];
+            if (chunk == null) {
+                continue;
+            }
+            for (int i = 0; i < chunk.length; i++) {
+                if (chunk[i] != UNSET) {
+                    final int slot = (chunkIndex << CHUNK_SHIFT) + i;
+                    mask[slot / 64] |= 1L << (slot % 64);
+                }
+            }
+        }
+        return mask;
+    }
+
+    private void checkSlot(int slot) {
+        if (slot < 0 || slot >= slotCount) {
+            throw new IndexOutOfBoundsException("No slot numbered " + slot + " of " + slotCount);
+        }
+    }
+}
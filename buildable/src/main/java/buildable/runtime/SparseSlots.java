@@ -0,0 +1,110 @@
+package buildable.runtime;
+
+/**
+ * The values set on a sparse builder, generated for <code>@Buildable(sparse = true)</code>, keyed by the index of
+ * their field.
+ * <p>
+ * The values are held in an open-addressed table that is only allocated once a value is set and kept at most half
+ * full, so a builder of a wide type costs memory in proportion to the fields it was given rather than to the fields
+ * the type has. A slot holding null is still set.
+ * </p>
+ */
+public final class SparseSlots {
+
+    private static final int INITIAL_CAPACITY = 4;
+
+    // each slot plus one, so the 0 of an empty entry is no slot
+    private int[] keys;
+    private Object[] values;
+    private int size;
+
+    public boolean contains(int slot) {
+        return indexOf(slot) >= 0;
+    }
+
+    /**
+     * The value of the slot, or the default if the slot was never set.
+     */
+    public Object get(int slot, Object defaultValue) {
+        final int index = indexOf(slot);
+        return index < 0 ? defaultValue : values[index];
+    }
+
+    public void put(int slot, Object value) {
+        if (slot < 0) {
+            throw new IndexOutOfBoundsException("No slot numbered " + slot);
+        }
+        final int index = indexOf(slot);
+        if (index >= 0) {
+            values[index] = value;
+            return;
+        }
+        if (keys == null) {
+            keys = new int[INITIAL_CAPACITY];
+            values = new Object[INITIAL_CAPACITY];
+        } else if ((size + 1) * 2 > keys.length) {
+            resize(keys.length * 2);
+        }
+        insert(slot, value);
+        size++;
+    }
+
+    /**
+     * The number of slots set.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * The slots set, as a bit of a new mask of one long for each 64 of the slots.
+     */
+    public long[] mask(int slotCount) {
+        final long[] mask = new long[(slotCount + 63) / 64];
+        if (keys != null) {
+            for (int each : keys) {
+                if (each != 0) {
+                    mask[(each - 1) / 64] |= 1L << ((each - 1) % 64);
+                }
+            }
+        }
+        return mask;
+    }
+
+    private int indexOf(int slot) {
+        if (keys == null) {
+            return -1;
+        }
+        final int mask = keys.length - 1;
+        for (int index = slot & mask; ; index = (index + 1) & mask) {
+            if (keys[index] == slot + 1) {
+                return index;
+            }
+            if (keys[index] == 0) {
+                return -1;
+            }
+        }
+    }
+
+    private void insert(int slot, Object value) {
+        final int mask = keys.length - 1;
+        int index = slot & mask;
+        while (keys[index] != 0) {
+            index = (index + 1) & mask;
+        }
+        keys[index] = slot + 1;
+        values[index] = value;
+    }
+
+    private void resize(int capacity) {
+        final int[] oldKeys = keys;
+        final Object[] oldValues = values;
+        keys = new int[capacity];
+        values = new Object[capacity];
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != 0) {
+                insert(oldKeys[i] - 1, oldValues[i]);
+            }
+        }
+    }
+}
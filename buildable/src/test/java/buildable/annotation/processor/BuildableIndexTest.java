@@ -0,0 +1,66 @@
+package buildable.annotation.processor;
+
+import org.junit.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class BuildableIndexTest {
+
+    @Test public void writesTheBuildersOfEachCompilationSorted() {
+        final InMemoryCompiler.Compilation compilation = compileLibrary();
+
+        assertEquals("lib.Address lib.AddressBuilder\nlib.Country lib.CountryBuilder\n",
+                new String(compilation.outputs().get("CLASS_OUTPUT/" + BuildableIndex.LOCATION)));
+    }
+
+    @Test public void writesTheBuilderOfEachTypeToItsOwnResource() {
+        final InMemoryCompiler.Compilation compilation = compileLibrary();
+
+        assertEquals("lib.AddressBuilder\n",
+                new String(compilation.outputs().get("CLASS_OUTPUT/" + BuildableIndex.BUILDERS_LOCATION + "lib.Address")));
+    }
+
+    @Test public void acceptsBuildersOfIndexedTypesFromAnotherModule() throws Exception {
+        final Path library = Files.createTempDirectory("library");
+        compileLibrary().writeClassOutputTo(library);
+
+        // only the compilation's classpath has the library, not the class loader the processor runs in
+        final InMemoryCompiler.Compilation compilation = new InMemoryCompiler()
+                .withClasspath(library)
+                .withSource("app.Customer", "package app;\n"
+                        + "@buildable.annotation.Buildable\n"
+                        + "public class Customer {\n"
+                        + "    String name; lib.Address address; java.util.Locale locale;\n"
+                        + "}\n")
+                .compile();
+
+        assertTrue(compilation.diagnostics().toString(), compilation.succeeded());
+        final String builder = compilation.generatedSource("app/CustomerBuilder.java");
+        assertTrue(builder, builder.contains("public CustomerBuilder withAddress(AddressBuilder addressBuilder)"));
+        assertFalse(builder, builder.contains("localeBuilder"));
+        assertEquals("app.Customer app.CustomerBuilder\n",
+                new String(compilation.outputs().get("CLASS_OUTPUT/" + BuildableIndex.LOCATION)));
+    }
+
+    private static InMemoryCompiler.Compilation compileLibrary() {
+        final InMemoryCompiler.Compilation compilation = new InMemoryCompiler()
+                .withSource("lib.Country", "package lib;\n"
+                        + "@buildable.annotation.Buildable\n"
+                        + "public class Country {\n"
+                        + "    String code;\n"
+                        + "}\n")
+                .withSource("lib.Address", "package lib;\n"
+                        + "@buildable.annotation.Buildable\n"
+                        + "public class Address {\n"
+                        + "    String street; Country country;\n"
+                        + "}\n")
+                .compile();
+        assertTrue(compilation.diagnostics().toString(), compilation.succeeded());
+        return compilation;
+    }
+}
@@ -0,0 +1,77 @@
+package buildable.annotation.processor;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.SortedMap;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class DeterministicOutputTest {
+
+    @Test public void generatesIdenticalSourcesOnEveryCompilation() {
+        final SortedMap<String, byte[]> first = compile().generatedSources();
+        assertFalse(first.isEmpty());
+
+        for (int i = 0; i < 5; i++) {
+            final SortedMap<String, byte[]> again = compile().generatedSources();
+            assertEquals(first.keySet(), again.keySet());
+            for (String path : first.keySet()) {
+                assertTrue(path + " differs between compilations", Arrays.equals(first.get(path), again.get(path)));
+            }
+        }
+    }
+
+    @Test public void writesFieldsInDeclarationOrder() {
+        final InMemoryCompiler.Compilation compilation = compile();
+
+        assertInOrder(compilation.generatedSource("test/spec/AccountBuilder.java"),
+                "withOwner(", "withBalance(", "withCurrency(", "withOpened(", "withCreatedBy(", "withVersion(");
+        assertInOrder(compilation.generatedSource("test/OrderBuilder.java"),
+                "withZulu(", "withAlpha(", "withMike(", "withBravo(", "withYankee(");
+    }
+
+    private static InMemoryCompiler.Compilation compile() {
+        final InMemoryCompiler.Compilation compilation = new InMemoryCompiler()
+                .withSource("test.Order", "package test;\n"
+                        + "@buildable.annotation.Buildable(generateCodec = true)\n"
+                        + "public class Order {\n"
+                        + "    String zulu; int alpha; Long mike; java.util.UUID bravo; double yankee;\n"
+                        + "}\n")
+                .withSource("test.spec.Audited", "package test.spec;\n"
+                        + "public class Audited {\n"
+                        + "    String createdBy; long version;\n"
+                        + "}\n")
+                .withSource("test.spec.Account", "package test.spec;\n"
+                        + "public class Account extends Audited {\n"
+                        + "    String owner; long balance; String currency; java.util.Date opened;\n"
+                        + "}\n")
+                .withSource("test.spec.Customer", "package test.spec;\n"
+                        + "public class Customer {\n"
+                        + "    String name; Account account; String email; int tier;\n"
+                        + "}\n")
+                .withSource("test.spec.Config", "package test.spec;\n"
+                        + "@buildable.spec.BuildableSpec\n"
+                        + "public class Config {\n"
+                        + "    @buildable.spec.InjectBuildable(value = @buildable.annotation.Buildable(generateCodec = true),\n"
+                        + "            fields = {@buildable.spec.BuildField(name = \"tier\", value = @buildable.annotation.BuiltWith(defaultValue = \"1\")),\n"
+                        + "                      @buildable.spec.BuildField(name = \"email\", value = @buildable.annotation.BuiltWith(methodName = \"reachableAt\"))})\n"
+                        + "    private Customer customer;\n"
+                        + "    private Account account;\n"
+                        + "}\n")
+                .compile();
+        assertTrue(compilation.diagnostics().toString(), compilation.succeeded());
+        return compilation;
+    }
+
+    private static void assertInOrder(String source, String... fragments) {
+        int previous = -1;
+        for (String each : fragments) {
+            final int index = source.indexOf(each);
+            assertTrue(each + " should follow the previous field in\n" + source, index > previous);
+            previous = index;
+        }
+    }
+}
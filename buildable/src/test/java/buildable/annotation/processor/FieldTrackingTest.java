@@ -0,0 +1,138 @@
+package buildable.annotation.processor;
+
+import buildable.Builder;
+import org.junit.Test;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class FieldTrackingTest {
+
+    @Test public void buildSkipsUnsetFieldsOnlyWhenTheInstanceHoldsTheDefaultAlready() {
+        final String builder = compile("test.Wide", "package test;\n"
+                + "@buildable.annotation.Buildable\n"
+                + "public class Wide {\n"
+                + "    String plain;\n"
+                + "    String initialized = \"x\";\n"
+                + "    String assignedInConstructor;\n"
+                + "    int incrementedInInitializer;\n"
+                + "    @buildable.annotation.BuiltWith(defaultValue = \"7\") int builderDefault;\n"
+                + "    { incrementedInInitializer++; }\n"
+                + "    Wide() { this.assignedInConstructor = \"y\"; }\n"
+                + "}\n").generatedSource("test/WideBuilder.java");
+
+        assertTrue(builder, builder.contains("if ((setFields0 & 1L << 0) != 0) {\n\t\t\tPLAIN_ACCESSOR.set(instance, plain);"));
+        for (int bit = 1; bit < 5; bit++) {
+            assertTrue(builder, builder.contains("if (!setOnly || (setFields0 & 1L << " + bit + ") != 0) {"));
+        }
+    }
+
+    @Test public void buildWritesUnsetFieldsAConstructorMightAssignThroughACall() throws Exception {
+        final InMemoryCompiler.Compilation compilation = compile("test.Reset", "package test;\n"
+                + "@buildable.annotation.Buildable\n"
+                + "public class Reset {\n"
+                + "    String name;\n"
+                + "    int count;\n"
+                + "    public Reset() { reset(); }\n"
+                + "    private void reset() { name = \"fromCtorMethod\"; count = 5; }\n"
+                + "}\n");
+        final String builder = compilation.generatedSource("test/ResetBuilder.java");
+        assertTrue(builder, builder.contains("if (!setOnly || (setFields0 & 1L << 0) != 0) {"));
+        assertTrue(builder, builder.contains("if (!setOnly || (setFields0 & 1L << 1) != 0) {"));
+
+        final Path classes = Files.createTempDirectory("reset");
+        compilation.writeClassOutputTo(classes);
+        try (URLClassLoader loader = new URLClassLoader(new URL[]{classes.toUri().toURL()}, getClass().getClassLoader())) {
+            final Object built = ((Builder<?>) loader.loadClass("test.ResetBuilder").getMethod("aReset").invoke(null)).build();
+            assertEquals(null, fieldOf(built, "name"));
+            assertEquals(0, fieldOf(built, "count"));
+        }
+    }
+
+    @Test public void buildWritesUnsetFieldsOfSuperclassesAndOfSubclassedTypes() {
+        final InMemoryCompiler.Compilation compilation = new InMemoryCompiler()
+                .withSource("test.Base", "package test;\n"
+                        + "@buildable.annotation.BuildableSubclasses\n"
+                        + "public abstract class Base {\n"
+                        + "    String inherited;\n"
+                        + "}\n")
+                .withSource("test.Derived", "package test;\n"
+                        + "@buildable.annotation.Buildable\n"
+                        + "public class Derived extends Base {\n"
+                        + "    String own;\n"
+                        + "    Derived() { inherited = \"fromSubclass\"; }\n"
+                        + "}\n")
+                .compile();
+        assertTrue(compilation.diagnostics().toString(), compilation.succeeded());
+
+        final String parent = compilation.generatedSource("test/AbstractBaseBuilder.java");
+        assertTrue(parent, parent.contains("if (!setOnly || (setBaseFields0 & 1L << 0) != 0) {"));
+        final String builder = compilation.generatedSource("test/DerivedBuilder.java");
+        assertTrue(builder, builder.contains("if ((setFields0 & 1L << 0) != 0) {\n\t\t\tOWN_ACCESSOR.set(instance, own);"));
+    }
+
+    @Test public void usesAMaskWordPerSixtyFourFields() {
+        final StringBuilder source = new StringBuilder("package test;\n@buildable.annotation.Buildable\npublic class Wider {\n");
+        for (int i = 0; i < 130; i++) {
+            source.append("    int field").append(i).append(";\n");
+        }
+        final String builder = compile("test.Wider", source.append("}\n").toString()).generatedSource("test/WiderBuilder.java");
+
+        assertTrue(builder.contains("private long setFields2;"));
+        assertFalse(builder.contains("setFields3"));
+        assertTrue(builder.contains("setFields2 |= 1L << 1;"));
+    }
+
+    @Test public void isSetTellsApartFieldsWhoseNamesShareAHashCode() throws Exception {
+        // "Aa" and "BB" are the classic String.hashCode() collision
+        final InMemoryCompiler.Compilation compilation = compile("test.Colliding", "package test;\n"
+                + "@buildable.annotation.Buildable\n"
+                + "public class Colliding {\n"
+                + "    String Aa;\n"
+                + "    String BB;\n"
+                + "    String other;\n"
+                + "}\n");
+        final Path classes = Files.createTempDirectory("colliding");
+        compilation.writeClassOutputTo(classes);
+        try (URLClassLoader loader = new URLClassLoader(new URL[]{classes.toUri().toURL()}, getClass().getClassLoader())) {
+            final Class<?> builderClass = loader.loadClass("test.CollidingBuilder");
+            final Object builder = builderClass.getMethod("aColliding").invoke(null);
+            builderClass.getMethod("withBB", String.class).invoke(builder, "set");
+            final Method isSet = builderClass.getMethod("isSet", String.class);
+
+            assertTrue((Boolean) isSet.invoke(builder, "BB"));
+            assertFalse((Boolean) isSet.invoke(builder, "Aa"));
+            assertFalse((Boolean) isSet.invoke(builder, "other"));
+            try {
+                isSet.invoke(builder, "C#");
+                fail("isSet() of a name sharing the hash code of fields but no field's name");
+            } catch (InvocationTargetException e) {
+                assertTrue(e.getCause() instanceof IllegalArgumentException);
+            }
+        }
+    }
+
+    private static Object fieldOf(Object instance, String fieldName) throws ReflectiveOperationException {
+        final Field field = instance.getClass().getDeclaredField(fieldName);
+        field.setAccessible(true);
+        return field.get(instance);
+    }
+
+    private static InMemoryCompiler.Compilation compile(String className, String source) {
+        final InMemoryCompiler.Compilation compilation = new InMemoryCompiler()
+                .withSource(className, source)
+                .compile();
+        assertTrue(compilation.diagnostics().toString(), compilation.succeeded());
+        return compilation;
+    }
+}
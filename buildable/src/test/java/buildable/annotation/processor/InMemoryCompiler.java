@@ -0,0 +1,198 @@
+package buildable.annotation.processor;
+
+import javax.annotation.processing.Processor;
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.FileObject;
+import javax.tools.ForwardingJavaFileManager;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileManager;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.StandardLocation;
+import javax.tools.ToolProvider;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * Runs javac and the BuildableProcessor over sources held in memory, keeping everything written in memory too.
+ */
+class InMemoryCompiler {
+
+    private final Map<String, String> sources = new TreeMap<>();
+    private final List<String> options = new ArrayList<>();
+    private final List<String> classpath = new ArrayList<>();
+
+    InMemoryCompiler withSource(String className, String source) {
+        sources.put(className, source);
+        return this;
+    }
+
+    InMemoryCompiler withOptions(String... options) {
+        this.options.addAll(Arrays.asList(options));
+        return this;
+    }
+
+    InMemoryCompiler withClasspath(Path entry) {
+        classpath.add(entry.toString());
+        return this;
+    }
+
+    Compilation compile() {
+        return compile(new BuildableProcessor());
+    }
+
+    Compilation compile(Processor processor) {
+        final JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        final DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        final StandardJavaFileManager standardManager = compiler.getStandardFileManager(diagnostics, null, null);
+        final OutputCollector fileManager = new OutputCollector(standardManager);
+
+        final List<JavaFileObject> units = sources.entrySet().stream()
+                .map(e -> new SourceFile(e.getKey(), e.getValue()))
+                .collect(Collectors.toList());
+        final List<String> compilerOptions = new ArrayList<>(options);
+        classpath.add(System.getProperty("java.class.path"));
+        compilerOptions.addAll(Arrays.asList("-classpath", String.join(File.pathSeparator, classpath)));
+
+        final JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager, diagnostics, compilerOptions, null, units);
+        task.setProcessors(Arrays.asList(processor));
+        final boolean succeeded = task.call();
+        return new Compilation(succeeded, diagnostics.getDiagnostics(), fileManager.outputs);
+    }
+
+    static class Compilation {
+        private final boolean succeeded;
+        private final List<Diagnostic<? extends JavaFileObject>> diagnostics;
+        private final SortedMap<String, byte[]> outputs;
+
+        Compilation(boolean succeeded, List<Diagnostic<? extends JavaFileObject>> diagnostics, SortedMap<String, byte[]> outputs) {
+            this.succeeded = succeeded;
+            this.diagnostics = diagnostics;
+            this.outputs = outputs;
+        }
+
+        boolean succeeded() {
+            return succeeded;
+        }
+
+        List<Diagnostic<? extends JavaFileObject>> diagnostics() {
+            return diagnostics;
+        }
+
+        /**
+         * Everything the compilation wrote, keyed by location and path, e.g. <code>SOURCE_OUTPUT/a/b/CBuilder.java</code>.
+         */
+        SortedMap<String, byte[]> outputs() {
+            return outputs;
+        }
+
+        /**
+         * The generated sources, keyed by their path.
+         */
+        SortedMap<String, byte[]> generatedSources() {
+            final SortedMap<String, byte[]> generated = new TreeMap<>();
+            final String prefix = StandardLocation.SOURCE_OUTPUT.getName() + "/";
+            outputs.forEach((name, bytes) -> {
+                if (name.startsWith(prefix)) {
+                    generated.put(name.substring(prefix.length()), bytes);
+                }
+            });
+            return generated;
+        }
+
+        /**
+         * Writes the classes and resources the compilation wrote, as they would be packaged in a jar.
+         */
+        void writeClassOutputTo(Path directory) throws IOException {
+            final String prefix = StandardLocation.CLASS_OUTPUT.getName() + "/";
+            for (Map.Entry<String, byte[]> each : outputs.entrySet()) {
+                if (each.getKey().startsWith(prefix)) {
+                    final Path file = directory.resolve(each.getKey().substring(prefix.length()));
+                    Files.createDirectories(file.getParent());
+                    Files.write(file, each.getValue());
+                }
+            }
+        }
+
+        String generatedSource(String path) {
+            final byte[] bytes = generatedSources().get(path);
+            if (bytes == null) {
+                throw new AssertionError("Nothing generated at " + path + ", only " + generatedSources().keySet());
+            }
+            return new String(bytes);
+        }
+    }
+
+    private static class SourceFile extends SimpleJavaFileObject {
+        private final String source;
+
+        SourceFile(String className, String source) {
+            super(URI.create("mem:///" + className.replace('.', '/') + Kind.SOURCE.extension), Kind.SOURCE);
+            this.source = source;
+        }
+
+        @Override
+        public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+            return source;
+        }
+    }
+
+    private static class OutputFile extends SimpleJavaFileObject {
+        private final String key;
+        private final SortedMap<String, byte[]> outputs;
+
+        OutputFile(String key, Kind kind, SortedMap<String, byte[]> outputs) {
+            super(URI.create("mem:///" + key), kind);
+            this.key = key;
+            this.outputs = outputs;
+        }
+
+        @Override
+        public OutputStream openOutputStream() {
+            return new ByteArrayOutputStream() {
+                @Override
+                public void close() {
+                    outputs.put(key, toByteArray());
+                }
+            };
+        }
+
+        @Override
+        public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+            return new String(outputs.get(key));
+        }
+    }
+
+    private static class OutputCollector extends ForwardingJavaFileManager<StandardJavaFileManager> {
+        private final SortedMap<String, byte[]> outputs = new TreeMap<>();
+
+        OutputCollector(StandardJavaFileManager fileManager) {
+            super(fileManager);
+        }
+
+        @Override
+        public JavaFileObject getJavaFileForOutput(JavaFileManager.Location location, String className, JavaFileObject.Kind kind, FileObject sibling) {
+            return new OutputFile(location.getName() + "/" + className.replace('.', '/') + kind.extension, kind, outputs);
+        }
+
+        @Override
+        public FileObject getFileForOutput(JavaFileManager.Location location, String packageName, String relativeName, FileObject sibling) {
+            final String directory = packageName.isEmpty() ? "" : packageName.replace('.', '/') + "/";
+            return new OutputFile(location.getName() + "/" + directory + relativeName, JavaFileObject.Kind.OTHER, outputs);
+        }
+    }
+}
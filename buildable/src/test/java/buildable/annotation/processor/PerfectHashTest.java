@@ -0,0 +1,50 @@
+package buildable.annotation.processor;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class PerfectHashTest {
+
+    @Test public void placesEveryNameInItsOwnEntry() {
+        final List<String> names = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            names.add("field" + i);
+        }
+        final PerfectHash hash = PerfectHash.of(names);
+
+        for (int i = 0; i < names.size(); i++) {
+            assertEquals(i, hash.table[hash.indexOf(names.get(i).hashCode())]);
+        }
+        assertNull(hash.sameHash);
+    }
+
+    @Test public void keepsTablesSmallForThousandsOfNames() {
+        final List<String> names = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            names.add("someWhatLongerFieldName" + i);
+        }
+        final PerfectHash hash = PerfectHash.of(names);
+
+        for (int i = 0; i < names.size(); i++) {
+            assertEquals(i, hash.table[hash.indexOf(names.get(i).hashCode())]);
+        }
+        assertTrue("table of " + hash.table.length, hash.table.length <= 8192);
+    }
+
+    @Test public void chainsNamesWithTheSameHashCode() {
+        // "Aa" and "BB" are the classic String.hashCode() collision
+        final PerfectHash hash = PerfectHash.of(Arrays.asList("name", "Aa", "BB"));
+
+        assertEquals(1, hash.table[hash.indexOf("BB".hashCode())]);
+        assertEquals(2, hash.sameHash[1]);
+        assertEquals(-1, hash.sameHash[2]);
+        assertEquals(0, hash.table[hash.indexOf("name".hashCode())]);
+    }
+}
@@ -0,0 +1,129 @@
+package buildable.annotation.processor;
+
+import javax.tools.Diagnostic;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Reports how long the processors take over a sweep of synthetic codebases, how much heap javac allocates and
+ * retains doing so, and how much source they generate.
+ * <p>
+ * Run with <code>gradle processorBenchmark -Psizes=1000,5000 -Pdepth=8</code>. Only annotation processing runs, with
+ * <code>-proc:only</code>, unless <code>-Pfull=true</code> also compiles the synthetic and generated sources.
+ * Each size is compiled once to warm up before the measured compilation.
+ * </p>
+ */
+public class ProcessorBenchmark {
+
+    static final String HEADER = String.format("%8s %8s %10s %14s %12s %10s %14s",
+            "classes", "builders", "wall ms", "allocated MB", "retained MB", "generated", "generated KB");
+
+    private final int hierarchyDepth;
+    private final boolean full;
+
+    ProcessorBenchmark(int hierarchyDepth, boolean full) {
+        this.hierarchyDepth = hierarchyDepth;
+        this.full = full;
+    }
+
+    public static void main(String[] args) {
+        final int[] sizes = Arrays.stream((args.length > 0 ? args[0] : "250,500,1000,2000").split(","))
+                .map(String::trim).mapToInt(Integer::parseInt).toArray();
+        final int depth = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+        final boolean full = args.length > 2 && Boolean.parseBoolean(args[2]);
+
+        final ProcessorBenchmark benchmark = new ProcessorBenchmark(depth, full);
+        System.out.println("hierarchy depth " + depth + (full ? ", full compilation" : ", processing only"));
+        System.out.println(HEADER);
+        for (int each : sizes) {
+            benchmark.measure(each);
+            System.out.println(benchmark.measure(each));
+        }
+    }
+
+    Result measure(int size) {
+        final SyntheticSources synthetic = new SyntheticSources(size, hierarchyDepth);
+        final InMemoryCompiler compiler = new InMemoryCompiler();
+        for (Map.Entry<String, String> each : synthetic.generate().entrySet()) {
+            compiler.withSource(each.getKey(), each.getValue());
+        }
+        if (!full) {
+            compiler.withOptions("-proc:only");
+        }
+
+        final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        System.gc();
+        final long heapBefore = memory.getHeapMemoryUsage().getUsed();
+        final long allocatedBefore = allocatedBytes();
+        final long start = System.nanoTime();
+
+        final InMemoryCompiler.Compilation compilation = compiler.compile();
+
+        final long wallNanos = System.nanoTime() - start;
+        final long allocated = allocatedBytes() - allocatedBefore;
+        System.gc();
+        final long retained = memory.getHeapMemoryUsage().getUsed() - heapBefore;
+
+        if (!compilation.succeeded()) {
+            throw new IllegalStateException("Synthetic sources of size " + size + " failed to compile: " + compilation.diagnostics().stream()
+                    .filter(d -> d.getKind() == Diagnostic.Kind.ERROR).collect(Collectors.toList()));
+        }
+        final Map<String, byte[]> generated = compilation.generatedSources();
+        final long generatedBytes = generated.values().stream().mapToLong(bytes -> bytes.length).sum();
+        return new Result(size + synthetic.specTypeCount(), builderCount(generated), wallNanos, allocated, retained,
+                generated.size(), generatedBytes);
+    }
+
+    private static int builderCount(Map<String, byte[]> generated) {
+        final List<String> builders = new ArrayList<>();
+        for (String each : generated.keySet()) {
+            if (each.endsWith("Builder.java")) {
+                builders.add(each);
+            }
+        }
+        return builders.size();
+    }
+
+    /**
+     * Bytes allocated by this thread, which is the one javac runs the processors on, or -1 if the JVM can't say.
+     */
+    private static long allocatedBytes() {
+        final java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) threads).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+
+    static class Result {
+        final int classes;
+        final int builders;
+        final long wallNanos;
+        final long allocatedBytes;
+        final long retainedBytes;
+        final int generatedFiles;
+        final long generatedBytes;
+
+        Result(int classes, int builders, long wallNanos, long allocatedBytes, long retainedBytes, int generatedFiles, long generatedBytes) {
+            this.classes = classes;
+            this.builders = builders;
+            this.wallNanos = wallNanos;
+            this.allocatedBytes = allocatedBytes;
+            this.retainedBytes = retainedBytes;
+            this.generatedFiles = generatedFiles;
+            this.generatedBytes = generatedBytes;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%8d %8d %10d %14.1f %12.1f %10d %14.1f",
+                    classes, builders, wallNanos / 1_000_000, allocatedBytes / 1048576d, retainedBytes / 1048576d,
+                    generatedFiles, generatedBytes / 1024d);
+        }
+    }
+}
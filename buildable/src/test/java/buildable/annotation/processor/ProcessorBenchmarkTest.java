@@ -0,0 +1,25 @@
+package buildable.annotation.processor;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ProcessorBenchmarkTest {
+
+    @Test public void measuresASmallSyntheticCodebase() {
+        final ProcessorBenchmark.Result result = new ProcessorBenchmark(3, false).measure(60);
+
+        assertEquals(75, result.classes);
+        // along with the abstract builders of the 3 @BuildableSubclasses superclasses
+        assertEquals(78, result.builders);
+        assertTrue(result.generatedBytes > 0);
+        assertTrue(result.wallNanos > 0);
+    }
+
+    @Test public void compilesTheGeneratedBuilders() {
+        final ProcessorBenchmark.Result result = new ProcessorBenchmark(2, true).measure(20);
+
+        assertEquals(27, result.builders);
+    }
+}
@@ -0,0 +1,120 @@
+package buildable.annotation.processor;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Generates a synthetic codebase shaped like our biggest modules, for measuring the processors.
+ * <p>
+ * For a size of N there are N <code>@Buildable</code> classes, 50 to a package. Each has a field of every kind the
+ * builders handle, a field of the previous class so builders accept nested builders, and extends the deepest of a
+ * chain of <code>@BuildableSubclasses</code> superclasses. There are also N / 4 plain classes built through
+ * <code>@BuildableSpec</code> configs of 25 fields each.
+ * </p>
+ */
+class SyntheticSources {
+
+    static final int CLASSES_PER_PACKAGE = 50;
+    static final int SPECS_PER_CONFIG = 25;
+
+    private final int size;
+    private final int hierarchyDepth;
+
+    SyntheticSources(int size, int hierarchyDepth) {
+        this.size = size;
+        this.hierarchyDepth = hierarchyDepth;
+    }
+
+    int specTypeCount() {
+        return size / 4;
+    }
+
+    /**
+     * The sources keyed by qualified class name.
+     */
+    Map<String, String> generate() {
+        final Map<String, String> sources = new LinkedHashMap<>();
+        for (int level = 0; level < hierarchyDepth; level++) {
+            sources.put("synthetic.base.Base" + level, baseSource(level));
+        }
+        for (int i = 0; i < size; i++) {
+            sources.put(packageOf(i) + ".Buildable" + i, buildableSource(i));
+        }
+        for (int i = 0; i < specTypeCount(); i++) {
+            sources.put("synthetic.spec.Plain" + i, plainSource(i));
+        }
+        for (int config = 0; config * SPECS_PER_CONFIG < specTypeCount(); config++) {
+            sources.put("synthetic.spec.Config" + config, configSource(config));
+        }
+        return sources;
+    }
+
+    private static String packageOf(int index) {
+        return "synthetic.p" + index / CLASSES_PER_PACKAGE;
+    }
+
+    private static String baseSource(int level) {
+        return "package synthetic.base;\n"
+                + "@buildable.annotation.BuildableSubclasses\n"
+                + "public abstract class Base" + level + (level == 0 ? "" : " extends Base" + (level - 1)) + " {\n"
+                + "    protected String name" + level + ";\n"
+                + "    @buildable.annotation.BuiltWith(defaultValue = \"" + level + "\")\n"
+                + "    protected int rank" + level + ";\n"
+                + "}\n";
+    }
+
+    private String buildableSource(int index) {
+        final StringBuilder source = new StringBuilder()
+                .append("package ").append(packageOf(index)).append(";\n")
+                .append("@buildable.annotation.Buildable\n")
+                .append("public class Buildable").append(index);
+        if (hierarchyDepth > 0) {
+            source.append(" extends synthetic.base.Base").append(hierarchyDepth - 1);
+        }
+        source.append(" {\n")
+                .append("    private String text;\n")
+                .append("    private int count;\n")
+                .append("    private long total;\n")
+                .append("    private Double ratio;\n")
+                .append("    private boolean active;\n")
+                .append("    private java.util.UUID id;\n")
+                .append("    private java.util.Date created;\n")
+                .append("    @buildable.annotation.BuiltWith(methodName = \"tagged\", defaultValue = \"untagged\")\n")
+                .append("    private String tag;\n")
+                .append("    @buildable.annotation.BuiltWith(overrideMethod = buildable.annotation.BuiltWith.OverrideMethod.AddToList)\n")
+                .append("    private java.util.List<String> labels;\n");
+        if (index > 0) {
+            source.append("    private ").append(packageOf(index - 1)).append(".Buildable").append(index - 1).append(" previous;\n");
+        }
+        source.append("    public String getText() { return text; }\n")
+                .append("    public void setText(String text) { this.text = text; }\n")
+                .append("}\n");
+        return source.toString();
+    }
+
+    private static String plainSource(int index) {
+        return "package synthetic.spec;\n"
+                + "public class Plain" + index + " {\n"
+                + "    private String name;\n"
+                + "    private int quantity;\n"
+                + "    private java.math.BigDecimal price;\n"
+                + "    private java.util.Date updated;\n"
+                + (index > 0 ? "    private Plain" + (index - 1) + " parent;\n" : "")
+                + "    public String getName() { return name; }\n"
+                + "    public void setName(String name) { this.name = name; }\n"
+                + "}\n";
+    }
+
+    private String configSource(int config) {
+        final StringBuilder source = new StringBuilder("package synthetic.spec;\n")
+                .append("@buildable.spec.BuildableSpec\n")
+                .append("public class Config").append(config).append(" {\n");
+        final int last = Math.min(specTypeCount(), (config + 1) * SPECS_PER_CONFIG);
+        for (int i = config * SPECS_PER_CONFIG; i < last; i++) {
+            source.append("    @buildable.spec.InjectBuildable(excludedFields = \"updated\",\n")
+                    .append("            fields = @buildable.spec.BuildField(name = \"name\", value = @buildable.annotation.BuiltWith(methodName = \"named\")))\n")
+                    .append("    private Plain").append(i).append(" plain").append(i).append(";\n");
+        }
+        return source.append("}\n").toString();
+    }
+}
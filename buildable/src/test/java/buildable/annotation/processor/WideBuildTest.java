@@ -0,0 +1,98 @@
+package buildable.annotation.processor;
+
+import buildable.Builder;
+import buildable.runtime.BuilderMeta;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Builds a 500-field class in a separate JVM printing what HotSpot compiles, since methods over its 8000-byte
+ * HugeMethodLimit are silently left to the interpreter.
+ */
+public class WideBuildTest {
+
+    private static final int FIELDS = 500;
+    private static final int BUILDS = 20000;
+
+    @Test public void buildOfAVeryWideClassGetsCompiled() throws Exception {
+        final Path classes = Files.createTempDirectory("wide");
+        final InMemoryCompiler.Compilation compilation = new InMemoryCompiler().withSource("test.Wide", wideSource()).compile();
+        assertTrue(compilation.diagnostics().toString(), compilation.succeeded());
+        compilation.writeClassOutputTo(classes);
+
+        final String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        final Process process = new ProcessBuilder(java, "-Xbatch", "-XX:+PrintCompilation",
+                "-cp", classes + File.pathSeparator + System.getProperty("java.class.path"),
+                Driver.class.getName(), "test.WideBuilder", "aWide", Integer.toString(BUILDS))
+                .redirectErrorStream(true)
+                .start();
+        final String compiled;
+        try (BufferedReader output = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            compiled = output.lines().collect(Collectors.joining("\n"));
+        }
+        assertTrue(compiled, process.waitFor() == 0);
+
+        assertCompiled(compiled, "build");
+        assertCompiled(compiled, "writeFields");
+        assertCompiled(compiled, "writeFields0");
+        assertCompiled(compiled, "writeFields" + (FIELDS - 1) / 8);
+        assertCompiled(compiled, "isSet");
+        assertCompiled(compiled, "Meta::slotOf");
+        assertCompiled(compiled, "Meta::set");
+        assertCompiled(compiled, "Meta::set0");
+        assertCompiled(compiled, "Meta::set" + (FIELDS - 1) / 32);
+    }
+
+    private static void assertCompiled(String compiled, String methodName) {
+        final String method = methodName.contains("::") ? "WideBuilder$" + methodName : "WideBuilder::" + methodName;
+        final Matcher compilation = Pattern.compile("test\\." + Pattern.quote(method) + " \\(\\d+ bytes\\)").matcher(compiled);
+        assertTrue(method + "() was never compiled", compilation.find());
+    }
+
+    private static String wideSource() {
+        final StringBuilder source = new StringBuilder("package test;\n@buildable.annotation.Buildable\npublic class Wide {\n");
+        final String[] types = {"int", "String", "long", "double", "Integer"};
+        for (int i = 0; i < FIELDS; i++) {
+            source.append("    ").append(types[i % types.length]).append(" field").append(i).append(";\n");
+        }
+        return source.append("}\n").toString();
+    }
+
+    /**
+     * Builds instances with one field set, so build() takes both paths of the field writes, and another set by name
+     * through the builder's meta, going through each of the String fields in turn, which isSet() then looks up.
+     */
+    public static class Driver {
+
+        @SuppressWarnings("unchecked")
+        public static void main(String[] args) throws Exception {
+            final Class<?> builderClass = Class.forName(args[0]);
+            final java.lang.reflect.Method factory = builderClass.getMethod(args[1]);
+            final java.lang.reflect.Method withField0 = builderClass.getMethod("withField0", int.class);
+            final java.lang.reflect.Method isSet = builderClass.getMethod("isSet", String.class);
+            final BuilderMeta<Object, Builder<Object>> meta = (BuilderMeta<Object, Builder<Object>>) builderClass.getMethod("meta").invoke(null);
+            for (int i = 0; i < Integer.parseInt(args[2]); i++) {
+                final Builder<Object> builder = (Builder<Object>) factory.invoke(null);
+                withField0.invoke(builder, i);
+                meta.set(builder, meta.slotOf("field" + (1 + 5 * (i % (FIELDS / 5)))), "value");
+                if (!(Boolean) isSet.invoke(builder, "field" + (1 + 5 * (i % (FIELDS / 5))))) {
+                    throw new IllegalStateException("Field set by name isn't set");
+                }
+                if (builder.build() == null) {
+                    throw new IllegalStateException("Nothing built");
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package buildable.metrics;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class LatencyHistogramTest {
+
+    @Test public void reportsTheUpperBoundOfThePercentilesBucket() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < 99; i++) {
+            histogram.record(100);
+        }
+        histogram.record(5000);
+
+        assertEquals(100, histogram.count());
+        assertEquals(127, histogram.percentile(50));
+        assertEquals(127, histogram.percentile(99));
+        assertEquals(8191, histogram.percentile(100));
+    }
+
+    @Test public void reportsZeroWhenEmpty() {
+        assertEquals(0, new LatencyHistogram().percentile(99));
+    }
+}
@@ -0,0 +1,40 @@
+package buildable.pool;
+
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class ThreadLocalInstancePoolTest {
+
+    @Test public void dropsInstancesBeyondItsCapacity() {
+        ThreadLocalInstancePool<Object> pool = new ThreadLocalInstancePool<>(2);
+        Object first = new Object();
+        Object second = new Object();
+
+        pool.release(first);
+        pool.release(second);
+        pool.release(new Object());
+
+        assertEquals(2, pool.size());
+        assertSame(second, pool.acquire());
+        assertSame(first, pool.acquire());
+        assertNull(pool.acquire());
+    }
+
+    @Test public void keepsAPoolPerThread() throws Exception {
+        ThreadLocalInstancePool<Object> pool = new ThreadLocalInstancePool<>(2);
+        pool.release(new Object());
+
+        AtomicReference<Object> acquiredElsewhere = new AtomicReference<>(new Object());
+        Thread other = new Thread(() -> acquiredElsewhere.set(pool.acquire()));
+        other.start();
+        other.join();
+
+        assertNull(acquiredElsewhere.get());
+        assertEquals(1, pool.size());
+    }
+}
@@ -0,0 +1,90 @@
+package buildable.row;
+
+import org.junit.Test;
+
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class DelimitedRowTest {
+
+    private final DelimitedRow row = new DelimitedRow(',');
+
+    @Test public void splitsCellsIncludingEmptyOnes() {
+        row.reset("a,,\"b,c\",");
+
+        assertEquals(4, row.size());
+        assertEquals("a", row.getString(0));
+        assertTrue(row.isEmpty(1));
+        assertEquals("b,c", row.getString(2));
+        assertTrue(row.isEmpty(3));
+        assertTrue(row.isEmpty(4));
+    }
+
+    @Test public void parsesTheFullRangeOfLongs() {
+        row.reset("-9223372036854775808,9223372036854775807,+7");
+
+        assertEquals(Long.MIN_VALUE, row.getLong(0));
+        assertEquals(Long.MAX_VALUE, row.getLong(1));
+        assertEquals(7L, row.getLong(2));
+    }
+
+    @Test public void rejectsNumbersOutOfRange() {
+        for (String each : new String[]{"9223372036854775808", "2147483648", "12a", "-", ""}) {
+            row.reset(each);
+            try {
+                row.getInt(0);
+                fail(each);
+            } catch (IllegalArgumentException expected) {
+                // the cell isn't an int
+            }
+        }
+    }
+
+    @Test public void parsesDoublesLikeDoubleParseDouble() {
+        final String[] doubles = {"0", "-0.0", "3.14159", "1e22", "1e-22", "123456789012345", "0.1", "2.5E-3",
+                "1234567890123456789", "1e300", "4.9e-324", "NaN", "-Infinity", ".5", "5."};
+        for (String each : doubles) {
+            assertEquals(each, Double.parseDouble(each), row.reset(each).getDouble(0), 0d);
+            assertEquals(each, Double.doubleToLongBits(Double.parseDouble(each)), Double.doubleToLongBits(row.reset(each).getDouble(0)));
+        }
+    }
+
+    @Test public void parsesFloatsLikeFloatParseFloat() {
+        for (String each : new String[]{"0.1", "-1.5", "3.4028235e38", "1234567", "7e-10"}) {
+            assertEquals(each, Float.floatToIntBits(Float.parseFloat(each)), Float.floatToIntBits(row.reset(each).getFloat(0)));
+        }
+    }
+
+    @Test public void parsesBooleansCharsAndEnums() {
+        row.reset("TRUE,false,x,SECONDS");
+
+        assertTrue(row.getBoolean(0));
+        assertFalse(row.getBoolean(1));
+        assertEquals('x', row.getChar(2));
+        assertEquals(TimeUnit.SECONDS, row.getEnum(3, TimeUnit.values()));
+    }
+
+    @Test public void readsLinesLongerThanItsBuffer() throws Exception {
+        final StringBuilder longLine = new StringBuilder();
+        for (int i = 0; i < 100000; i++) {
+            longLine.append(i).append(',');
+        }
+        longLine.append("end");
+
+        try (DelimitedReader reader = new DelimitedReader(new StringReader("first\r\n" + longLine + "\nlast"), ',')) {
+            assertEquals("first", reader.next().getString(0));
+            final DelimitedRow second = reader.next();
+            assertEquals(100001, second.size());
+            assertEquals(99999, second.getInt(99999));
+            assertEquals("last", reader.next().getString(0));
+            assertNull(reader.next());
+            assertEquals(3, reader.getLineNumber());
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package buildable.runtime;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class AccessorsTest {
+
+    static class Parent {
+        private int inherited;
+    }
+
+    static class Child extends Parent {
+        private String name;
+        private String viaSetter;
+        private boolean setterCalled;
+
+        private Child() {}
+
+        public Child(String name) {
+            this.name = name;
+        }
+
+        private void setViaSetter(String viaSetter) {
+            this.viaSetter = viaSetter;
+            this.setterCalled = true;
+        }
+    }
+
+    @Test public void writesThroughTheSetterIfThereIsOne() {
+        Child child = Accessors.newInstance(Child.class);
+
+        Accessors.forField(Child.class, "viaSetter", String.class).set(child, "set");
+
+        assertEquals("set", child.viaSetter);
+        assertEquals(true, child.setterCalled);
+    }
+
+    @Test public void writesFieldsDeclaredBySuperclasses() {
+        Child child = Accessors.newInstance(Child.class);
+
+        Accessors.forField(Child.class, "inherited", int.class).set(child, 42);
+
+        assertEquals(42, ((Parent) child).inherited);
+    }
+
+    @Test public void sharesAccessorsPerTypeAndField() {
+        assertSame(Accessors.forField(Child.class, "name", String.class), Accessors.forField(Child.class, "name", String.class));
+    }
+
+    @Test public void createsInstancesWithConstructorArguments() {
+        Child child = Accessors.newInstance(Child.class, new Class<?>[]{String.class}, "constructed");
+
+        assertEquals("constructed", child.name);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void reportsMissingFields() {
+        Accessors.forField(Child.class, "missing", String.class).set(Accessors.newInstance(Child.class), "value");
+    }
+}
@@ -0,0 +1,64 @@
+package buildable.runtime;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class InternerTest {
+
+    @Test public void returnsTheInstanceBuiltForEqualState() {
+        final Interner<StringBuilder> interner = new Interner<>();
+        final AtomicInteger builds = new AtomicInteger();
+
+        final StringBuilder first = interner.intern(7, new Object[]{"a", 1}, () -> { builds.incrementAndGet(); return new StringBuilder(); });
+        final StringBuilder second = interner.intern(7, new Object[]{"a", 1}, () -> { builds.incrementAndGet(); return new StringBuilder(); });
+
+        assertSame(first, second);
+        assertEquals(1, builds.get());
+    }
+
+    @Test public void comparesArraysInTheStateByContent() {
+        final Interner<Object> interner = new Interner<>();
+        final int hash = Arrays.hashCode(new int[]{1, 2});
+
+        final Object first = interner.intern(hash, new Object[]{new int[]{1, 2}}, Object::new);
+
+        assertSame(first, interner.intern(hash, new Object[]{new int[]{1, 2}}, Object::new));
+        assertNotSame(first, interner.intern(hash, new Object[]{new int[]{2, 1}}, Object::new));
+    }
+
+    @Test public void doesNotHoldFailedBuilds() {
+        final Interner<Object> interner = new Interner<>(1);
+
+        assertNull(interner.intern(0, new Object[0], () -> null));
+        assertEquals(0, interner.size());
+    }
+
+    @Test public void concurrentCallersAllGetTheCanonicalInstance() throws Exception {
+        final Interner<Object> interner = new Interner<>(4);
+        final ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            final Callable<Object> intern = () -> interner.intern(42, new Object[]{"same"}, Object::new);
+            final Future<?>[] results = new Future<?>[64];
+            for (int i = 0; i < results.length; i++) {
+                results[i] = executor.submit(intern);
+            }
+            final Object canonical = interner.intern(42, new Object[]{"same"}, Object::new);
+            for (Future<?> each : results) {
+                assertSame(canonical, each.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package buildable.runtime;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class PersistentSlotsTest {
+
+    @Test public void returnsTheDefaultOfSlotsNeverSet() {
+        final PersistentSlots slots = PersistentSlots.empty(40);
+
+        assertFalse(slots.contains(39));
+        assertEquals("default", slots.get(39, "default"));
+        assertEquals(0, slots.size());
+    }
+
+    @Test public void leavesTheSlotsItWasDerivedFromUnchanged() {
+        final PersistentSlots base = PersistentSlots.empty(40).with(3, "base");
+
+        final PersistentSlots changed = base.with(3, "changed").with(35, "added");
+
+        assertEquals("base", base.get(3, null));
+        assertFalse(base.contains(35));
+        assertEquals(1, base.size());
+        assertEquals("changed", changed.get(3, null));
+        assertEquals("added", changed.get(35, null));
+        assertEquals(2, changed.size());
+    }
+
+    @Test public void slotsSetToNullAreSet() {
+        final PersistentSlots slots = PersistentSlots.empty(1).with(0, null);
+
+        assertTrue(slots.contains(0));
+        assertNull(slots.get(0, "default"));
+    }
+
+    @Test public void masksTheSlotsSet() {
+        final PersistentSlots slots = PersistentSlots.empty(70).with(1, "a").with(64, "b");
+
+        assertArrayEquals(new long[]{2L, 1L}, slots.mask());
+    }
+
+    @Test public void derivesVariantsOfSharedSlotsOnManyThreads() throws Exception {
+        final PersistentSlots base = PersistentSlots.empty(100).with(0, "base");
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final List<Future<PersistentSlots>> variants = new ArrayList<>();
+            for (int i = 0; i < 100; i++) {
+                final int slot = i;
+                variants.add(executor.submit((Callable<PersistentSlots>) () -> base.with(slot, slot)));
+            }
+            for (int i = 0; i < 100; i++) {
+                final PersistentSlots variant = variants.get(i).get();
+                assertEquals(i, variant.get(i, null));
+                assertEquals(i == 0 ? 1 : 2, variant.size());
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(1, base.size());
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void rejectsSlotsItDoesNotHold() {
+        PersistentSlots.empty(3).with(3, "a");
+    }
+}
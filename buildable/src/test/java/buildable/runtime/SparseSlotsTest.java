@@ -0,0 +1,66 @@
+package buildable.runtime;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class SparseSlotsTest {
+
+    @Test public void returnsTheDefaultOfSlotsNeverSet() {
+        final SparseSlots slots = new SparseSlots();
+
+        assertFalse(slots.contains(3));
+        assertEquals("default", slots.get(3, "default"));
+        assertEquals(0, slots.size());
+    }
+
+    @Test public void holdsTheLastValueOfEachSlot() {
+        final SparseSlots slots = new SparseSlots();
+
+        slots.put(3, "first");
+        slots.put(3, "second");
+
+        assertEquals("second", slots.get(3, "default"));
+        assertEquals(1, slots.size());
+    }
+
+    @Test public void slotsSetToNullAreSet() {
+        final SparseSlots slots = new SparseSlots();
+
+        slots.put(0, null);
+
+        assertTrue(slots.contains(0));
+        assertNull(slots.get(0, "default"));
+    }
+
+    @Test public void growsToHoldManySlots() {
+        final SparseSlots slots = new SparseSlots();
+        for (int i = 0; i < 500; i += 3) {
+            slots.put(i, i);
+        }
+
+        for (int i = 0; i < 500; i++) {
+            assertEquals(i % 3 == 0, slots.contains(i));
+            assertEquals(i % 3 == 0 ? i : -1, slots.get(i, -1));
+        }
+        assertEquals(167, slots.size());
+    }
+
+    @Test public void masksTheSlotsSet() {
+        final SparseSlots slots = new SparseSlots();
+        slots.put(1, "a");
+        slots.put(64, "b");
+
+        assertArrayEquals(new long[]{2L, 1L}, slots.mask(70));
+        assertArrayEquals(new long[]{0L}, new SparseSlots().mask(10));
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void rejectsNegativeSlots() {
+        new SparseSlots().put(-1, "a");
+    }
+}
@@ -0,0 +1,25 @@
+package buildable.example;
+
+import buildable.runtime.Builders;
+import buildable.spec.example.MessageBuilder;
+import buildable.spec.example.RecipientBuilder;
+
+/**
+ * The application StartupBenchmark launches: it builds one instance of each example type, through their builders and
+ * the registry, then reports that it is done.
+ */
+public class FirstBuild {
+
+    public static void main(String[] args) {
+        final Object[] built = {
+                UserBuilder.aUser().named("Jane").build(),
+                AccountBuilder.anAccount().buildShared(),
+                GroupBuilder.aGroup().withUsers(UserBuilder.aUser().build()).build(),
+                FieldTestObjectBuilder.anObject().withIntegerPrimitive(1).build(),
+                MessageBuilder.aNewMessage().withText("hello").build(),
+                RecipientBuilder.aRecipient().named("John").withLastName("Doe").build(),
+                Builders.forType(User.class).build()
+        };
+        System.out.println("built " + built.length);
+    }
+}
@@ -0,0 +1,55 @@
+package buildable.example;
+
+import buildable.spec.example.Message;
+import buildable.spec.example.MessageBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static buildable.spec.example.MessageBuilder.aNewMessage;
+
+/**
+ * Compares building short-lived Messages, which are pooled, with and without recycling them, against allocating
+ * them by hand. Run with <code>gradle benchmark -Pbenchmarks=InstancePool</code>, adding <code>-prof gc</code> to
+ * the benchmark arguments shows the allocation rate of each.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class InstancePoolBenchmark {
+
+    private final UUID id = UUID.randomUUID();
+
+    @Benchmark
+    public Message allocatedByHand() {
+        final Message message = new Message();
+        message.setText("hello");
+        message.setId(id);
+        return message;
+    }
+
+    @Benchmark
+    public Message builtWithoutRecycling() {
+        return aNewMessage().withText("hello").withId(id).build();
+    }
+
+    @Benchmark
+    public void builtFromThePool(Blackhole blackhole) {
+        final Message message = aNewMessage().withText("hello").withId(id).build();
+        blackhole.consume(message);
+        MessageBuilder.recycle(message);
+    }
+}
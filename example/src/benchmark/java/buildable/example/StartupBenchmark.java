@@ -0,0 +1,75 @@
+package buildable.example;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Compares the time to first build of a fresh JVM with the JDK's default CDS archive and with the AppCDS archive
+ * of the generated builders, by launching FirstBuild repeatedly and timing each launch until it reports its builds.
+ * <p>
+ * Run with <code>gradle startupBenchmark -Plaunches=20</code>, which builds the archive with the
+ * <code>buildableCdsArchive</code> task first. The arguments are the archive, the class path the archive was dumped
+ * with, which the launched JVMs must use unchanged, and the number of launches of each.
+ * </p>
+ */
+public class StartupBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        final String archive = args[0];
+        final String classPath = args[1] + File.pathSeparator + System.getProperty("java.class.path");
+        final int launches = args.length > 2 ? Integer.parseInt(args[2]) : 20;
+        final String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+
+        final List<String> withoutArchive = Arrays.asList(java, "-Xshare:auto", "-cp", classPath, FirstBuild.class.getName());
+        final List<String> withArchive = Arrays.asList(java, "-XX:SharedArchiveFile=" + archive, "-Xshare:auto", "-cp", classPath, FirstBuild.class.getName());
+
+        // the first launches of each warm the file system cache
+        launch(withoutArchive);
+        launch(withArchive);
+
+        final long[] without = new long[launches];
+        final long[] with = new long[launches];
+        for (int i = 0; i < launches; i++) {
+            without[i] = launch(withoutArchive);
+            with[i] = launch(withArchive);
+        }
+        System.out.println(String.format("%-19s %10s %10s %10s", "time to first build", "min ms", "median ms", "max ms"));
+        System.out.println(summary("default CDS", without));
+        System.out.println(summary("buildable AppCDS", with));
+    }
+
+    /**
+     * The milliseconds from starting the JVM until it printed that it had built.
+     */
+    private static long launch(List<String> command) throws IOException, InterruptedException {
+        final long start = System.nanoTime();
+        final Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+        final List<String> output = new ArrayList<>();
+        long elapsed = -1;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (elapsed < 0 && line.startsWith("built ")) {
+                    elapsed = (System.nanoTime() - start) / 1_000_000;
+                }
+                output.add(line);
+            }
+        }
+        if (process.waitFor() != 0 || elapsed < 0) {
+            throw new IllegalStateException("FirstBuild failed:\n" + String.join("\n", output));
+        }
+        return elapsed;
+    }
+
+    private static String summary(String name, long[] millis) {
+        final long[] sorted = millis.clone();
+        Arrays.sort(sorted);
+        return String.format("%-19s %10d %10d %10d", name, sorted[0], sorted[sorted.length / 2], sorted[sorted.length - 1]);
+    }
+}
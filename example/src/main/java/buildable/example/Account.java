@@ -7,7 +7,7 @@ import buildable.spec.example.Broker;
 /**
  * An example POJO that will help demonstrate the @BuiltWith annotations work when included in superclasses.
  */
-@Buildable
+@Buildable(shared = true)
 public class Account extends Identified {
 
     private static final String EMPTY_ACCOUNT_ID = "unassigned";
@@ -0,0 +1,14 @@
+package buildable.example;
+
+import buildable.annotation.Buildable;
+import buildable.annotation.BuiltWith;
+
+/**
+ * An example record that demonstrates generating a builder that calls the canonical constructor.
+ */
+@Buildable(cloneMethod = "copiedFrom", generateCodec = true)
+public record Coordinate(
+        @BuiltWith(methodName = "atLatitude", defaultValue = "37.7749") double latitude,
+        @BuiltWith(methodName = "atLongitude", defaultValue = "-122.4194") double longitude,
+        String label) {
+}
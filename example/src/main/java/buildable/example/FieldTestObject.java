@@ -3,7 +3,8 @@ package buildable.example;
 import buildable.annotation.Buildable;
 import buildable.annotation.BuiltWith;
 
-@Buildable(name = "FieldTestObjectBuilder", factoryMethod = "anObject")
+@Buildable(name = "FieldTestObjectBuilder", factoryMethod = "anObject", generateCodec = true, generateFlyweight = true,
+        generateBatch = true, generateRowBinder = true)
 public class FieldTestObject {
 
     @SuppressWarnings("UnusedDeclaration")
@@ -0,0 +1,70 @@
+package buildable.example;
+
+import buildable.annotation.Buildable;
+import buildable.annotation.BuiltWith;
+
+import java.util.List;
+
+/**
+ * An example POJO whose immutable builder can be configured once and shared between threads as a template.
+ */
+@Buildable(immutable = true, shared = true, cloneMethod = "copiedFrom")
+public class Order extends Identified {
+
+    @SuppressWarnings("UnusedDeclaration")
+    @BuiltWith(methodName = "of", defaultValue = "widget")
+    private String product;
+
+    @SuppressWarnings("UnusedDeclaration")
+    @BuiltWith(defaultValue = "1")
+    private int quantity;
+
+    @SuppressWarnings("UnusedDeclaration")
+    private double price;
+
+    @SuppressWarnings("UnusedDeclaration")
+    private boolean express;
+
+    @SuppressWarnings("UnusedDeclaration")
+    @BuiltWith(overrideMethod = BuiltWith.OverrideMethod.AddToList)
+    private List<String> notes;
+
+    @SuppressWarnings("UnusedDeclaration")
+    @BuiltWith(defaultValue = "new java.util.ArrayList<String>()")
+    private List<String> labels;
+
+    @SuppressWarnings("UnusedDeclaration")
+    private Account account;
+
+    protected Order() {
+        super(null);
+    }
+
+    public String getProduct() {
+        return product;
+    }
+
+    public int getQuantity() {
+        return quantity;
+    }
+
+    public double getPrice() {
+        return price;
+    }
+
+    public boolean getExpress() {
+        return express;
+    }
+
+    public List<String> getNotes() {
+        return notes;
+    }
+
+    public List<String> getLabels() {
+        return labels;
+    }
+
+    public Account getAccount() {
+        return account;
+    }
+}
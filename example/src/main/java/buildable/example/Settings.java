@@ -0,0 +1,165 @@
+package buildable.example;
+
+import buildable.annotation.Buildable;
+import buildable.annotation.BuiltWith;
+
+/**
+ * An example of a wide type that is mostly left at its defaults, whose builder only holds the values it was given.
+ */
+@Buildable(sparse = true, shared = true, cloneMethod = "copiedFrom")
+public class Settings {
+
+    @SuppressWarnings("UnusedDeclaration")
+    @BuiltWith(methodName = "themed", defaultValue = "light")
+    private String theme;
+
+    @SuppressWarnings("UnusedDeclaration")
+    @BuiltWith(defaultValue = "12")
+    private int fontSize;
+
+    @SuppressWarnings("UnusedDeclaration")
+    private String locale;
+
+    @SuppressWarnings("UnusedDeclaration")
+    private String timeZone;
+
+    @SuppressWarnings("UnusedDeclaration")
+    private String dateFormat;
+
+    @SuppressWarnings("UnusedDeclaration")
+    private String currency;
+
+    @SuppressWarnings("UnusedDeclaration")
+    private boolean notifications;
+
+    @SuppressWarnings("UnusedDeclaration")
+    private boolean autoSave;
+
+    @SuppressWarnings("UnusedDeclaration")
+    private boolean spellCheck;
+
+    @SuppressWarnings("UnusedDeclaration")
+    private int pageSize;
+
+    @SuppressWarnings("UnusedDeclaration")
+    private int retries;
+
+    @SuppressWarnings("UnusedDeclaration")
+    private long quota;
+
+    @SuppressWarnings("UnusedDeclaration")
+    private long sessionTimeout;
+
+    @SuppressWarnings("UnusedDeclaration")
+    @BuiltWith(defaultValue = "1.0")
+    private double zoom;
+
+    @SuppressWarnings("UnusedDeclaration")
+    private double volume;
+
+    @SuppressWarnings("UnusedDeclaration")
+    private Integer lineHeight;
+
+    @SuppressWarnings("UnusedDeclaration")
+    @BuiltWith(overrideMethod = BuiltWith.OverrideMethod.AddToList)
+    private java.util.List<String> tags;
+
+    @SuppressWarnings("UnusedDeclaration")
+    @BuiltWith(defaultValue = "new java.util.ArrayList<String>()")
+    private java.util.List<String> bookmarks;
+
+    @SuppressWarnings("UnusedDeclaration")
+    private Account account;
+
+    @SuppressWarnings("UnusedDeclaration")
+    private String signature;
+
+    @SuppressWarnings("UnusedDeclaration")
+    private String homePage;
+
+    protected Settings(){}
+
+    public String getTheme() {
+        return theme;
+    }
+
+    public int getFontSize() {
+        return fontSize;
+    }
+
+    public String getLocale() {
+        return locale;
+    }
+
+    public String getTimeZone() {
+        return timeZone;
+    }
+
+    public String getDateFormat() {
+        return dateFormat;
+    }
+
+    public String getCurrency() {
+        return currency;
+    }
+
+    public boolean getNotifications() {
+        return notifications;
+    }
+
+    public boolean getAutoSave() {
+        return autoSave;
+    }
+
+    public boolean getSpellCheck() {
+        return spellCheck;
+    }
+
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    public int getRetries() {
+        return retries;
+    }
+
+    public long getQuota() {
+        return quota;
+    }
+
+    public long getSessionTimeout() {
+        return sessionTimeout;
+    }
+
+    public double getZoom() {
+        return zoom;
+    }
+
+    public double getVolume() {
+        return volume;
+    }
+
+    public Integer getLineHeight() {
+        return lineHeight;
+    }
+
+    public java.util.List<String> getTags() {
+        return tags;
+    }
+
+    public java.util.List<String> getBookmarks() {
+        return bookmarks;
+    }
+
+    public Account getAccount() {
+        return account;
+    }
+
+    public String getSignature() {
+        return signature;
+    }
+
+    public String getHomePage() {
+        return homePage;
+    }
+}
@@ -12,7 +12,7 @@ import buildable.spec.InjectBuildable;
 @BuildableSpec
 public class BuilderConfig {
 
-    @InjectBuildable(value = @Buildable(factoryMethod = "aNewMessage", cloneMethod = "copyOf"),
+    @InjectBuildable(value = @Buildable(factoryMethod = "aNewMessage", cloneMethod = "copyOf", generateCodec = true, pooled = true),
             excludedFields = "timestamp",
             fields = {
                     @BuildField(name = "text", value = @BuiltWith(defaultValue = "hello")),
@@ -24,7 +24,7 @@ public class BuilderConfig {
     @InjectBuildable(value = @Buildable(makeAbstract = true))
     private Person person;
 
-    @InjectBuildable(excludedFields = "privateInfo")
+    @InjectBuildable(value = @Buildable(generateCodec = true), excludedFields = "privateInfo")
     private Sender sender;
 
     @InjectBuildable(excludedFields = "username")
@@ -34,6 +34,6 @@ public class BuilderConfig {
     })
     private Recipient recipient;
 
-    @InjectBuildable(fields = @BuildField(name = "name", value = @BuiltWith(methodName = "named")))
+    @InjectBuildable(value = @Buildable(shared = true), fields = @BuildField(name = "name", value = @BuiltWith(methodName = "named")))
     private Broker broker;
 }
@@ -0,0 +1,36 @@
+package buildable.example;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static buildable.example.UserBuilder.aUser;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class ApplyToTest {
+
+    @Test public void writesOnlyTheFieldsThatWereSet() {
+        User existing = aUser().named("jDoe").withEmail("jdoe@example.com").withSsn("123-45-6789").build();
+
+        User updated = aUser().withEmail("john@example.com").withSsn(null).applyTo(existing);
+
+        assertSame(existing, updated);
+        assertEquals("jDoe", existing.getName());
+        assertEquals("john@example.com", existing.getEmail());
+        assertNull(existing.getSsn());
+    }
+
+    @Test public void appliesTheSameChangesToEveryInstance() {
+        List<User> users = Arrays.asList(aUser().named("a").build(), aUser().named("b").build());
+
+        aUser().livingInZip(10001).applyTo(users);
+
+        assertEquals("a", users.get(0).getName());
+        assertEquals("b", users.get(1).getName());
+        assertEquals(Integer.valueOf(10001), users.get(0).getZipCode());
+        assertEquals(Integer.valueOf(10001), users.get(1).getZipCode());
+    }
+}
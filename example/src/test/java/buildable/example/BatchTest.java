@@ -0,0 +1,56 @@
+package buildable.example;
+
+import org.junit.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class BatchTest {
+
+    @Test public void fillsColumnsAndBuildsRowsOnDemand() {
+        FieldTestObjectBatch batch = new FieldTestObjectBatch(100)
+                .generateIntegerPrimitive(i -> i * 2)
+                .generateLongObject(i -> i % 2 == 0 ? null : (long) i)
+                .fillCharPrimitive('c')
+                .copyDoublePrimitive(new double[]{0.5, 1.5});
+
+        FieldTestObject row = batch.get(51);
+        assertEquals(102, row.integerPrimitive);
+        assertEquals(Long.valueOf(51), row.longObject);
+        assertEquals('c', row.charPrimitive);
+        assertEquals(0d, row.doublePrimitive, 0d);
+        assertNull(batch.get(50).longObject);
+        assertEquals(1.5d, batch.get(1).doublePrimitive, 0d);
+    }
+
+    @Test public void unfilledColumnsKeepBuilderDefaults() {
+        FieldTestObject row = new FieldTestObjectBatch(1).get(0);
+        assertEquals("default value", row.stringWithSpecifiedMethodNameAndSpecifiedDefaultValue);
+    }
+
+    @Test public void rowsPastAShorterCopiedArrayKeepBuilderDefaults() {
+        FieldTestObjectBatch batch = new FieldTestObjectBatch(3)
+                .copyStringWithSpecifiedMethodNameAndSpecifiedDefaultValue(new String[]{"copied"})
+                .fillLongObject(null)
+                .copyLongObject(new long[]{5L});
+
+        assertEquals("copied", batch.get(0).stringWithSpecifiedMethodNameAndSpecifiedDefaultValue);
+        assertEquals("default value", batch.get(2).stringWithSpecifiedMethodNameAndSpecifiedDefaultValue);
+        assertEquals(Long.valueOf(5L), batch.get(0).longObject);
+        assertNull(batch.get(2).longObject);
+    }
+
+    @Test public void streamsEveryRow() {
+        List<String> strings = new FieldTestObjectBatch(3)
+                .generateStringWithNoSpecifiedMethodNameAndNoSpecifiedDefaultValue(i -> "row" + i)
+                .stream()
+                .map(o -> o.stringWithNoSpecifiedMethodNameAndNoSpecifiedDefaultValue)
+                .collect(Collectors.toList());
+        assertEquals("row0", strings.get(0));
+        assertEquals("row2", strings.get(2));
+        assertEquals(3, strings.size());
+    }
+}
@@ -0,0 +1,91 @@
+package buildable.example;
+
+import buildable.jfr.BuildEvent;
+import buildable.spec.example.MessageBuilder;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static buildable.example.UserBuilder.aUser;
+import static buildable.spec.example.MessageBuilder.aNewMessage;
+import static buildable.spec.example.SenderBuilder.aSender;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class BuildEventTest {
+
+    @Test public void recordsAnEventForEachBuild() throws Exception {
+        aUser().named("not recorded").build();
+
+        final Path file = Files.createTempFile("builds", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(BuildEvent.NAME).withoutStackTrace();
+            recording.start();
+            aUser().named("jDoe").withEmail("jdoe@example.com").build();
+            aNewMessage().withText("hi").withSender(aSender().withUsername("jDoe")).build();
+            recording.stop();
+            recording.dump(file);
+        }
+
+        try {
+            final List<RecordedEvent> events = RecordingFile.readAllEvents(file).stream()
+                    .filter(e -> e.getEventType().getName().equals(BuildEvent.NAME))
+                    .collect(Collectors.toList());
+            assertEquals(3, events.size());
+
+            final RecordedEvent user = eventOf(events, UserBuilder.class);
+            assertEquals(User.class.getName(), user.getClass("builtType").getName());
+            assertEquals(2, user.getInt("fieldsSet"));
+            assertEquals(0, user.getInt("nestedBuilds"));
+            assertTrue(!user.getDuration().isNegative());
+
+            final RecordedEvent message = eventOf(events, MessageBuilder.class);
+            assertEquals(2, message.getInt("fieldsSet"));
+            assertEquals(1, message.getInt("nestedBuilds"));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test public void countsTheNestedBuildsOfEachBuildWhileRecording() throws Exception {
+        final MessageBuilder builder = aNewMessage().withSender(aSender().withUsername("not recorded"));
+
+        final Path file = Files.createTempFile("builds", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(BuildEvent.NAME).withoutStackTrace();
+            recording.start();
+            builder.build();
+            builder.withSender(aSender().withUsername("jDoe")).build();
+            builder.withSender(aSender().withUsername("jRoe")).build();
+            recording.stop();
+            recording.dump(file);
+        }
+
+        try {
+            final List<Integer> nestedBuilds = RecordingFile.readAllEvents(file).stream()
+                    .filter(e -> e.getEventType().getName().equals(BuildEvent.NAME))
+                    .filter(e -> e.getClass("builderType").getName().equals(MessageBuilder.class.getName()))
+                    .sorted(Comparator.comparing(RecordedEvent::getStartTime))
+                    .map(e -> e.getInt("nestedBuilds"))
+                    .collect(Collectors.toList());
+            assertEquals(Arrays.asList(0, 1, 1), nestedBuilds);
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    private static RecordedEvent eventOf(List<RecordedEvent> events, Class<?> builderType) {
+        return events.stream()
+                .filter(e -> e.getClass("builderType").getName().equals(builderType.getName()))
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("No event for " + builderType.getName()));
+    }
+}
@@ -0,0 +1,32 @@
+package buildable.example;
+
+import buildable.metrics.BuildMetrics;
+import buildable.metrics.BuildMetricsRegistry;
+import org.junit.Test;
+
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+
+import static buildable.example.UserBuilder.aUser;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+public class BuildMetricsTest {
+
+    @Test public void countsBuildsOfInstrumentedBuilders() throws Exception {
+        aUser().build();
+        BuildMetrics metrics = BuildMetricsRegistry.get(UserBuilder.class.getName());
+        assertNotNull("UserBuilder registers its metrics when initialized", metrics);
+
+        long before = metrics.getBuildCount();
+        for (int i = 0; i < 10; i++) {
+            aUser().named("user" + i).build();
+        }
+
+        assertEquals(before + 10, metrics.getBuildCount());
+        assertEquals(0, metrics.getFailureCount());
+
+        ObjectName name = new ObjectName("buildable.metrics:type=BuildMetrics,name=" + ObjectName.quote(UserBuilder.class.getName()));
+        assertEquals(metrics.getBuildCount(), ManagementFactory.getPlatformMBeanServer().getAttribute(name, "BuildCount"));
+    }
+}
@@ -0,0 +1,43 @@
+package buildable.example;
+
+import buildable.spec.example.Broker;
+import org.junit.Test;
+
+import static buildable.example.AccountBuilder.anAccount;
+import static buildable.spec.example.BrokerBuilder.aBroker;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+public class BuildSharedTest {
+
+    @Test public void buildersWithTheSameStateShareAnInstance() {
+        Broker first = aBroker().named("Acme").withId("1").buildShared();
+        Broker second = aBroker().named("Acme").withId("1").buildShared();
+
+        assertSame(first, second);
+        assertEquals("Acme", first.getName());
+    }
+
+    @Test public void buildersWithDifferentStateDoNot() {
+        Broker first = aBroker().named("Acme").withId("1").buildShared();
+        Broker second = aBroker().named("Acme").withId("2").buildShared();
+
+        assertNotSame(first, second);
+        assertEquals("2", second.getId());
+    }
+
+    @Test public void buildStillBuildsNewInstances() {
+        assertNotSame(aBroker().named("Acme").build(), aBroker().named("Acme").build());
+    }
+
+    @Test public void nestedSharedInstancesAreShared() {
+        Broker broker = aBroker().named("Acme").buildShared();
+
+        Account first = anAccount().named("savings").withBroker(broker).buildShared();
+        Account second = anAccount().named("savings").withBroker(aBroker().named("Acme").buildShared()).buildShared();
+
+        assertSame(first, second);
+        assertSame(broker, first.getBroker());
+    }
+}
@@ -3,7 +3,10 @@ package buildable.example;
 import org.junit.Test;
 
 import static buildable.example.AccountBuilder.anAccount;
+import static buildable.example.DefaultFieldTestObjectBuilder.aDefaultFieldTestObject;
 import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertFalse;
+import static junit.framework.Assert.assertTrue;
 
 public class BuildableWithSubclassTest {
 
@@ -17,4 +20,42 @@ public class BuildableWithSubclassTest {
         assertEquals("123", account.getId());
         assertEquals("Checking", account.getName());
     }
+
+    @Test public void subclassBuildersExtendTheBuilderOfTheirSuperclass() {
+        assertEquals(AbstractIdentifiedBuilder.class, AccountBuilder.class.getSuperclass());
+        assertEquals(AbstractSuperclassWithFieldsBuilder.class, DefaultFieldTestObjectBuilder.class.getSuperclass());
+
+        AccountBuilder builder = anAccount().identifiedBy("123");
+        assertEquals("Checking", builder.named("Checking").build().getName());
+    }
+
+    @Test public void superclassFieldsKeepTheirDefaults() {
+        assertEquals("id_123", anAccount().build().getId());
+        assertEquals("abc", aDefaultFieldTestObject().withIdentifier("abc").build().getIdentifier());
+    }
+
+    @Test public void tracksSuperclassFieldsGivenAValue() {
+        AccountBuilder builder = anAccount().identifiedBy("123");
+
+        assertTrue(builder.isSet("id"));
+        assertFalse(builder.isSet("name"));
+    }
+
+    @Test public void appliesSuperclassFieldsThatWereSet() {
+        Account account = anAccount().named("Savings").build();
+
+        anAccount().identifiedBy("456").applyTo(account);
+
+        assertEquals("456", account.getId());
+        assertEquals("Savings", account.getName());
+    }
+
+    @Test public void metaSetsSuperclassFields() {
+        AccountBuilder builder = AccountBuilder.meta().newBuilder();
+
+        AccountBuilder.meta().set(builder, AccountBuilder.meta().slotOf("id"), "789");
+
+        assertTrue(builder.isSet("id"));
+        assertEquals("789", builder.build().getId());
+    }
 }
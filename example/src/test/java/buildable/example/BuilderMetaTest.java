@@ -0,0 +1,75 @@
+package buildable.example;
+
+import buildable.runtime.BuilderMeta;
+import buildable.spec.example.Recipient;
+import buildable.spec.example.RecipientBuilder;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class BuilderMetaTest {
+
+    @Test public void findsEverySlotByName() {
+        final BuilderMeta<FieldTestObject, FieldTestObjectBuilder> meta = FieldTestObjectBuilder.meta();
+
+        assertEquals(17, meta.slotCount());
+        for (int slot = 0; slot < meta.slotCount(); slot++) {
+            assertEquals(slot, meta.slotOf(meta.nameOf(slot)));
+        }
+        assertEquals(-1, meta.slotOf("noSuchField"));
+        assertEquals(-1, meta.slotOf(""));
+        assertEquals(int.class, meta.typeOf(meta.slotOf("integerPrimitive")));
+        assertEquals(Long.class, meta.typeOf(meta.slotOf("longObject")));
+    }
+
+    @Test public void setsFieldsByTheirSlot() {
+        final BuilderMeta<FieldTestObject, FieldTestObjectBuilder> meta = FieldTestObjectBuilder.meta();
+        final FieldTestObjectBuilder builder = meta.newBuilder();
+
+        meta.setInt(builder, meta.slotOf("integerPrimitive"), 42);
+        meta.setLong(builder, meta.slotOf("longPrimitive"), 7L);
+        meta.setDouble(builder, meta.slotOf("doublePrimitive"), 0.5d);
+        meta.setInt(builder, meta.slotOf("integerObject"), 3);
+        meta.set(builder, meta.slotOf("charPrimitive"), 'c');
+        meta.set(builder, meta.slotOf("stringWithNoSpecifiedMethodNameAndNoSpecifiedDefaultValue"), "set");
+
+        final FieldTestObject built = builder.build();
+        assertEquals(42, built.integerPrimitive);
+        assertEquals(7L, built.longPrimitive);
+        assertEquals(0.5d, built.doublePrimitive, 0d);
+        assertEquals(Integer.valueOf(3), built.integerObject);
+        assertEquals('c', built.charPrimitive);
+        assertEquals("set", built.stringWithNoSpecifiedMethodNameAndNoSpecifiedDefaultValue);
+        assertTrue(builder.isSet("integerPrimitive"));
+        assertFalse(builder.isSet("shortPrimitive"));
+    }
+
+    @Test public void setsListsAndConstructorArguments() {
+        final BuilderMeta<Group, GroupBuilder> groupMeta = GroupBuilder.meta();
+        final GroupBuilder group = groupMeta.newBuilder();
+        groupMeta.set(group, groupMeta.slotOf("users"), Arrays.asList(UserBuilder.aUser().build()));
+        assertEquals(1, group.build().getUsers().size());
+
+        final BuilderMeta<Recipient, RecipientBuilder> recipientMeta = RecipientBuilder.meta();
+        final RecipientBuilder recipient = recipientMeta.newBuilder();
+        recipientMeta.set(recipient, recipientMeta.slotOf("firstName"), "John");
+        recipientMeta.set(recipient, recipientMeta.slotOf("lastName"), "Doe");
+        assertEquals("John Doe", recipient.build().getUsername());
+    }
+
+    @Test(expected = ClassCastException.class)
+    public void rejectsValuesOfTheWrongType() {
+        final BuilderMeta<FieldTestObject, FieldTestObjectBuilder> meta = FieldTestObjectBuilder.meta();
+        meta.set(meta.newBuilder(), meta.slotOf("integerPrimitive"), "42");
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void rejectsUnknownSlots() {
+        final BuilderMeta<FieldTestObject, FieldTestObjectBuilder> meta = FieldTestObjectBuilder.meta();
+        meta.set(meta.newBuilder(), meta.slotCount(), 1);
+    }
+}
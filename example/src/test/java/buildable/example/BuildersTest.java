@@ -0,0 +1,40 @@
+package buildable.example;
+
+import buildable.Builder;
+import buildable.runtime.Builders;
+import buildable.spec.example.Message;
+import buildable.spec.example.MessageBuilder;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+
+public class BuildersTest {
+
+    @Test public void findsTheBuilderOfAType() {
+        Builder<User> builder = Builders.forType(User.class);
+
+        assertTrue(builder instanceof UserBuilder);
+        assertEquals("jDoe", ((UserBuilder) builder).named("jDoe").build().getName());
+    }
+
+    @Test public void honorsCustomFactoryMethods() {
+        assertTrue(Builders.forType(Message.class) instanceof MessageBuilder);
+    }
+
+    @Test public void createsANewBuilderEachTime() {
+        assertNotSame(Builders.forType(User.class), Builders.forType(User.class));
+    }
+
+    @Test public void leavesOutAbstractBuilders() {
+        assertTrue(Builders.hasBuilder(User.class));
+        assertFalse(Builders.hasBuilder(Admin.class));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsTypesWithoutBuilders() {
+        Builders.forType(String.class);
+    }
+}
@@ -0,0 +1,53 @@
+package buildable.example;
+
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks the generated AppCDS class list against the classes it names, since -Xshare:dump only warns about classes
+ * it can't find.
+ */
+public class ClassListTest {
+
+    private static final String LOCATION = "META-INF/buildable/classlist";
+
+    @Test public void namesOnlyClassesThatExist() throws Exception {
+        for (String each : readClassList()) {
+            assertNotNull(Class.forName(each.replace('/', '.'), false, getClass().getClassLoader()));
+        }
+    }
+
+    @Test public void listsBuildersTheirNestedClassesAndTheRuntime() throws Exception {
+        final List<String> classList = readClassList();
+
+        assertTrue(classList.contains("buildable/example/UserBuilder"));
+        assertTrue(classList.contains("buildable/example/UserBuilder$Meta"));
+        assertTrue(classList.contains("buildable/example/User"));
+        assertTrue(classList.contains("buildable/example/FieldTestObjectCodec"));
+        assertTrue(classList.contains("buildable/spec/example/RecipientBuilder"));
+        assertTrue(classList.contains("buildable/runtime/Accessors"));
+        assertTrue(classList.stream().anyMatch(each -> each.startsWith("buildable/example/BuildableRegistry_")));
+    }
+
+    private static List<String> readClassList() throws Exception {
+        final List<String> classList = new ArrayList<>();
+        try (InputStream in = ClassListTest.class.getClassLoader().getResourceAsStream(LOCATION)) {
+            assertNotNull(LOCATION + " was not generated", in);
+            final BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+            String line;
+            while ((line = reader.readLine()) != null) {
+                classList.add(line);
+            }
+        }
+        return classList;
+    }
+}
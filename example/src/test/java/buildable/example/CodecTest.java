@@ -0,0 +1,86 @@
+package buildable.example;
+
+import buildable.spec.example.Message;
+import buildable.spec.example.MessageCodec;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.UUID;
+
+import static buildable.example.FieldTestObjectBuilder.anObject;
+import static buildable.spec.example.MessageBuilder.aNewMessage;
+import static buildable.spec.example.SenderBuilder.aSender;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class CodecTest {
+
+    @Test public void roundTripsEveryPrimitiveAndBoxedField() {
+        FieldTestObject original = anObject()
+                .withStringWithNoSpecifiedMethodNameAndNoSpecifiedDefaultValue("h\u00e9llo \u2603")
+                .aString("specified")
+                .withFloatObject(1.5f).withFloatPrimitive(-2.5f)
+                .withIntegerObject(-300).withIntegerPrimitive(Integer.MAX_VALUE)
+                .withDoubleObject(3.25).withDoublePrimitive(Double.MIN_VALUE)
+                .withShortObject((short) -7).withShortPrimitive(Short.MIN_VALUE)
+                .withLongObject(Long.MIN_VALUE).withLongPrimitive(123456789012L)
+                .withCharObject('x').withCharPrimitive('\u2603')
+                .withByteObject((byte) -1).withBytePrimitive(Byte.MAX_VALUE)
+                .build();
+
+        FieldTestObject decoded = roundTrip(original);
+
+        assertEquals(original.stringWithNoSpecifiedMethodNameAndNoSpecifiedDefaultValue, decoded.stringWithNoSpecifiedMethodNameAndNoSpecifiedDefaultValue);
+        assertEquals(original.stringWithSpecifiedMethodNameButNoSpecifiedDefaultValue, decoded.stringWithSpecifiedMethodNameButNoSpecifiedDefaultValue);
+        assertEquals(original.stringWithSpecifiedMethodNameAndSpecifiedDefaultValue, decoded.stringWithSpecifiedMethodNameAndSpecifiedDefaultValue);
+        assertEquals(original.floatObject, decoded.floatObject);
+        assertEquals(original.floatPrimitive, decoded.floatPrimitive, 0f);
+        assertEquals(original.integerObject, decoded.integerObject);
+        assertEquals(original.integerPrimitive, decoded.integerPrimitive);
+        assertEquals(original.doubleObject, decoded.doubleObject);
+        assertEquals(original.doublePrimitive, decoded.doublePrimitive, 0d);
+        assertEquals(original.shortObject, decoded.shortObject);
+        assertEquals(original.shortPrimitive, decoded.shortPrimitive);
+        assertEquals(original.longObject, decoded.longObject);
+        assertEquals(original.longPrimitive, decoded.longPrimitive);
+        assertEquals(original.charObject, decoded.charObject);
+        assertEquals(original.charPrimitive, decoded.charPrimitive);
+        assertEquals(original.byteObject, decoded.byteObject);
+        assertEquals(original.bytePrimitive, decoded.bytePrimitive);
+    }
+
+    @Test public void roundTripsNullsInsteadOfBuilderDefaults() {
+        FieldTestObject decoded = roundTrip(anObject().aString(null).withIntegerObject(null).build());
+
+        assertNull(decoded.stringWithSpecifiedMethodNameAndSpecifiedDefaultValue);
+        assertNull(decoded.integerObject);
+    }
+
+    @Test public void roundTripsMessageWithNestedSender() {
+        UUID id = UUID.randomUUID();
+        Message original = aNewMessage().withText("Some message").withId(id)
+                .withSender(aSender().withUsername("jDoe").withId("sender-1"))
+                .build();
+
+        ByteBuffer buffer = ByteBuffer.allocate(256);
+        MessageCodec.INSTANCE.encode(original, buffer);
+        buffer.flip();
+        Message decoded = MessageCodec.INSTANCE.decode(buffer);
+
+        assertEquals(0, buffer.remaining());
+        assertEquals("Some message", decoded.getText());
+        assertEquals(id, decoded.getId());
+        assertEquals("jDoe", decoded.getSender().getUsername());
+        assertEquals("sender-1", decoded.getSender().getId());
+        assertNull(decoded.getRecipient());
+    }
+
+    private static FieldTestObject roundTrip(FieldTestObject original) {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(256);
+        FieldTestObjectCodec.INSTANCE.encode(original, buffer);
+        buffer.flip();
+        FieldTestObject decoded = FieldTestObjectCodec.INSTANCE.decode(buffer);
+        assertEquals(0, buffer.remaining());
+        return decoded;
+    }
+}
@@ -0,0 +1,60 @@
+package buildable.example;
+
+import buildable.codec.FixtureStore;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static buildable.example.FieldTestObjectBuilder.anObject;
+import static org.junit.Assert.assertEquals;
+
+public class FixtureStoreTest {
+
+    @Rule public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test public void decodesTheRecordsThatAreUsed() throws Exception {
+        final Path file = folder.newFile("objects.fixtures").toPath();
+        final List<FieldTestObject> fixtures = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            fixtures.add(anObject().withIntegerPrimitive(i).withStringWithNoSpecifiedMethodNameAndNoSpecifiedDefaultValue("fixture " + i).build());
+        }
+
+        FieldTestObjectCodec.writeFixtures(file, fixtures);
+        final FixtureStore<FieldTestObject, FieldTestObjectBuilder> store = FieldTestObjectCodec.openFixtures(file);
+
+        assertEquals(5000, store.size());
+        assertEquals(4321, store.get(4321).integerPrimitive);
+        assertEquals("fixture 17", store.get(17).stringWithNoSpecifiedMethodNameAndNoSpecifiedDefaultValue);
+    }
+
+    @Test public void recordsDecodeIntoBuildersThatCanBeChanged() throws Exception {
+        final Path file = folder.newFile("one.fixtures").toPath();
+        FieldTestObjectCodec.writeFixtures(file, Collections.singletonList(anObject().withLongPrimitive(7L).build()));
+
+        final FieldTestObject changed = FieldTestObjectCodec.openFixtures(file).builder(0).withIntegerPrimitive(3).build();
+
+        assertEquals(7L, changed.longPrimitive);
+        assertEquals(3, changed.integerPrimitive);
+    }
+
+    @Test public void opensEmptyStores() throws Exception {
+        final Path file = folder.newFile("empty.fixtures").toPath();
+        FieldTestObjectCodec.writeFixtures(file, Collections.<FieldTestObject>emptyList());
+
+        assertEquals(0, FieldTestObjectCodec.openFixtures(file).size());
+    }
+
+    @Test(expected = IOException.class)
+    public void rejectsStoresOfOtherTypes() throws Exception {
+        final Path file = folder.newFile("other.fixtures").toPath();
+        FieldTestObjectCodec.writeFixtures(file, Collections.<FieldTestObject>emptyList());
+
+        FixtureStore.open(file, User.class, in -> UserBuilder.aUser());
+    }
+}
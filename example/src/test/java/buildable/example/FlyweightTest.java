@@ -0,0 +1,53 @@
+package buildable.example;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+
+import static buildable.example.FieldTestObjectBuilder.anObject;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class FlyweightTest {
+
+    @Test public void readsBuilderStateInPlace() {
+        ByteBuffer records = FieldTestObjectFlyweight.allocate(1000);
+        for (int i = 0; i < 1000; i++) {
+            anObject().withIntegerPrimitive(i).withLongObject(i * 10L).withDoublePrimitive(i / 2d).writeTo(records, i);
+        }
+
+        FieldTestObjectFlyweight flyweight = new FieldTestObjectFlyweight(records);
+        assertEquals(1000, flyweight.capacity());
+        for (int i = 0; i < 1000; i++) {
+            flyweight.moveTo(i);
+            assertEquals(i, flyweight.getIntegerPrimitive());
+            assertTrue(flyweight.hasLongObject());
+            assertEquals(i * 10L, flyweight.getLongObject());
+            assertEquals(i / 2d, flyweight.getDoublePrimitive(), 0d);
+            assertFalse(flyweight.hasIntegerObject());
+        }
+    }
+
+    @Test public void materializesABuilderFromARecord() {
+        ByteBuffer records = FieldTestObjectFlyweight.allocate(2);
+        anObject().withCharPrimitive('z').withShortObject((short) 12).withBytePrimitive((byte) 3).writeTo(records, 1);
+
+        FieldTestObject built = new FieldTestObjectFlyweight(records).moveTo(1).toBuilder().build();
+
+        assertEquals('z', built.charPrimitive);
+        assertEquals(Short.valueOf((short) 12), built.shortObject);
+        assertEquals(3, built.bytePrimitive);
+        assertEquals(null, built.floatObject);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsMoreRecordsThanABufferCanHold() {
+        FieldTestObjectFlyweight.allocate(Integer.MAX_VALUE / FieldTestObjectFlyweight.RECORD_SIZE + 1);
+    }
+
+    @Test(expected = ArithmeticException.class)
+    public void rejectsIndexesPastAnyBuffer() {
+        anObject().writeTo(FieldTestObjectFlyweight.allocate(1), Integer.MAX_VALUE / FieldTestObjectFlyweight.RECORD_SIZE + 1);
+    }
+}
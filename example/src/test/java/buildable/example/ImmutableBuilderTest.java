@@ -0,0 +1,127 @@
+package buildable.example;
+
+import org.junit.Test;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static buildable.example.AccountBuilder.anAccount;
+import static buildable.example.OrderBuilder.anOrder;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class ImmutableBuilderTest {
+
+    @Test public void onlyHasFinalFields() {
+        for (Field each : OrderBuilder.class.getDeclaredFields()) {
+            assertTrue(each.getName() + " is final", Modifier.isFinal(each.getModifiers()));
+        }
+    }
+
+    @Test public void fluentMethodsReturnNewBuilders() {
+        final OrderBuilder base = anOrder().of("gadget");
+
+        final OrderBuilder variant = base.withQuantity(3);
+
+        assertNotSame(base, variant);
+        assertFalse(base.isSet("quantity"));
+        assertTrue(variant.isSet("quantity"));
+        assertEquals(1, base.build().getQuantity());
+        assertEquals(3, variant.build().getQuantity());
+        assertEquals("gadget", variant.build().getProduct());
+    }
+
+    @Test public void buildsUnsetFieldsWithTheirDefaults() {
+        final Order order = anOrder().build();
+
+        assertEquals("widget", order.getProduct());
+        assertEquals(1, order.getQuantity());
+        assertEquals("id_123", order.getId());
+        assertFalse(order.getExpress());
+    }
+
+    @Test public void holdsTheFieldsOfSuperclassesToo() {
+        final Order order = anOrder().identifiedBy("o-1").withPrice(9.5).withNotes("fragile", "gift")
+                .withAccount(anAccount().named("Checking"))
+                .build();
+
+        assertEquals("o-1", order.getId());
+        assertEquals(9.5, order.getPrice(), 0);
+        assertEquals(Arrays.asList("fragile", "gift"), order.getNotes());
+        assertEquals("Checking", order.getAccount().getName());
+    }
+
+    @Test public void derivesVariantsOfASharedTemplateOnManyThreads() throws Exception {
+        final OrderBuilder template = anOrder().of("gadget").withExpress(true);
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final List<Future<Order>> orders = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                final int quantity = i;
+                orders.add(executor.submit((Callable<Order>) () -> template.withQuantity(quantity).identifiedBy("o-" + quantity).build()));
+            }
+            for (int i = 0; i < 200; i++) {
+                final Order order = orders.get(i).get();
+                assertEquals(i, order.getQuantity());
+                assertEquals("o-" + i, order.getId());
+                assertEquals("gadget", order.getProduct());
+                assertTrue(order.getExpress());
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertFalse(template.isSet("quantity"));
+    }
+
+    @Test public void givesEachInstanceOfASharedTemplateItsOwnMutableDefault() throws Exception {
+        final OrderBuilder template = anOrder().of("gadget");
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        final List<Order> orders = new ArrayList<>();
+        try {
+            final List<Future<Order>> built = new ArrayList<>();
+            for (int i = 0; i < 20; i++) {
+                built.add(executor.submit((Callable<Order>) template::build));
+            }
+            for (Future<Order> each : built) {
+                orders.add(each.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        orders.get(0).getLabels().add("urgent");
+
+        for (Order each : orders.subList(1, orders.size())) {
+            assertNotSame(orders.get(0).getLabels(), each.getLabels());
+            assertTrue(each.getLabels().isEmpty());
+        }
+    }
+
+    @Test public void copiesIntoANewBuilder() {
+        final Order original = anOrder().of("gadget").withQuantity(2).build();
+        final OrderBuilder empty = anOrder();
+
+        final Order copy = empty.copiedFrom(original).withPrice(1.5).build();
+
+        assertEquals("gadget", copy.getProduct());
+        assertEquals(2, copy.getQuantity());
+        assertEquals(1.5, copy.getPrice(), 0);
+        assertFalse(empty.isSet("product"));
+    }
+
+    @Test public void sharesInstancesBuiltFromTheSameValues() {
+        final OrderBuilder template = anOrder().of("gadget");
+
+        assertSame(template.withQuantity(5).buildShared(), template.withQuantity(5).buildShared());
+    }
+}
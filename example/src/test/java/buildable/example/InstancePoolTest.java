@@ -0,0 +1,75 @@
+package buildable.example;
+
+import buildable.pool.InstancePool;
+import buildable.pool.ThreadLocalInstancePool;
+import buildable.spec.example.Message;
+import buildable.spec.example.MessageBuilder;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.Date;
+
+import static buildable.spec.example.MessageBuilder.aNewMessage;
+import static buildable.spec.example.SenderBuilder.aSender;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class InstancePoolTest {
+
+    private final ThreadLocalInstancePool<Message> pool = new ThreadLocalInstancePool<>(4);
+
+    @After public void restoreDefaultPool() {
+        MessageBuilder.useInstancePool(new ThreadLocalInstancePool<>());
+    }
+
+    @Test public void buildsRecycledInstancesWithTheirFieldsCleared() {
+        MessageBuilder.useInstancePool(pool);
+        Message first = aNewMessage().withText("first").withSender(aSender().withUsername("jDoe")).build();
+
+        MessageBuilder.recycle(first);
+        assertEquals(1, pool.size());
+        Message second = aNewMessage().withText("second").build();
+
+        assertSame(first, second);
+        assertEquals(0, pool.size());
+        assertEquals("second", second.getText());
+        assertNull(second.getSender());
+    }
+
+    @Test public void clearsFieldsExcludedFromTheBuilderToo() {
+        MessageBuilder.useInstancePool(pool);
+        Message first = aNewMessage().build();
+        first.setTimestamp(new Date());
+
+        MessageBuilder.recycle(first);
+        Message second = aNewMessage().build();
+
+        assertSame(first, second);
+        assertNull(second.getTimestamp());
+    }
+
+    @Test public void allocatesWhenThePoolIsEmpty() {
+        MessageBuilder.useInstancePool(pool);
+
+        assertNotSame(aNewMessage().build(), aNewMessage().build());
+    }
+
+    @Test public void usesTheSuppliedPool() {
+        final Message pooled = new Message();
+        MessageBuilder.useInstancePool(new InstancePool<Message>() {
+            @Override
+            public Message acquire() {
+                return pooled;
+            }
+
+            @Override
+            public void release(Message instance) {
+            }
+        });
+
+        assertSame(pooled, aNewMessage().withText("from the pool").build());
+        assertEquals("from the pool", pooled.getText());
+    }
+}
@@ -0,0 +1,43 @@
+package buildable.example;
+
+import org.junit.Test;
+
+import static buildable.example.UserBuilder.aUser;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class IsSetTest {
+
+    @Test public void tracksTheFieldsGivenAValue() {
+        UserBuilder builder = aUser().named("jDoe").withSsn(null);
+
+        assertTrue(builder.isSet("name"));
+        assertTrue(builder.isSet("ssn"));
+        assertFalse(builder.isSet("email"));
+        assertFalse(builder.isSet("zipCode"));
+    }
+
+    @Test public void copiedFieldsAreSet() {
+        User original = aUser().build();
+
+        UserBuilder copy = aUser().copiedFrom(original);
+
+        assertTrue(copy.isSet("name"));
+        assertTrue(copy.isSet("account"));
+    }
+
+    @Test public void buildsUnsetFieldsWithTheirDefaults() {
+        User user = aUser().build();
+
+        assertEquals("John Doe", user.getName());
+        assertNull(user.getSsn());
+        assertEquals("123-45-6789", aUser().withSsn("123-45-6789").build().getSsn());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsUnknownFields() {
+        aUser().isSet("nickname");
+    }
+}
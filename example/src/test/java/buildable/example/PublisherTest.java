@@ -0,0 +1,86 @@
+package buildable.example;
+
+import org.junit.Test;
+
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class PublisherTest {
+
+    @Test public void publishesCustomizedInstancesOnDemand() throws Exception {
+        final long count = 2_000_000;
+        final AtomicLong sum = new AtomicLong();
+        final AtomicLong received = new AtomicLong();
+        final CountDownLatch done = new CountDownLatch(1);
+
+        FieldTestObjectBuilder.publisher(count,
+                (builder, index) -> builder.withIntegerPrimitive((int) index),
+                (builder, index) -> builder.withStringWithNoSpecifiedMethodNameAndNoSpecifiedDefaultValue(index % 2 == 0 ? "even" : "odd"))
+                .subscribe(new Flow.Subscriber<FieldTestObject>() {
+                    private Flow.Subscription subscription;
+
+                    @Override
+                    public void onSubscribe(Flow.Subscription subscription) {
+                        this.subscription = subscription;
+                        subscription.request(64);
+                    }
+
+                    @Override
+                    public void onNext(FieldTestObject item) {
+                        assertEquals(item.integerPrimitive % 2 == 0 ? "even" : "odd", item.stringWithNoSpecifiedMethodNameAndNoSpecifiedDefaultValue);
+                        sum.addAndGet(item.integerPrimitive);
+                        if (received.incrementAndGet() % 64 == 0) {
+                            subscription.request(64);
+                        }
+                    }
+
+                    @Override
+                    public void onError(Throwable throwable) {
+                        throw new AssertionError(throwable);
+                    }
+
+                    @Override
+                    public void onComplete() {
+                        done.countDown();
+                    }
+                });
+
+        assertTrue(done.await(1, TimeUnit.MINUTES));
+        assertEquals(count, received.get());
+        assertEquals(count * (count - 1) / 2, sum.get());
+    }
+
+    @Test public void feedsOtherPublishers() throws Exception {
+        final CountDownLatch received = new CountDownLatch(10);
+        try (SubmissionPublisher<User> downstream = new SubmissionPublisher<>()) {
+            downstream.consume(each -> received.countDown());
+            UserBuilder.publisher(10, (builder, index) -> builder.named("user" + index)).subscribe(new Flow.Subscriber<User>() {
+                @Override
+                public void onSubscribe(Flow.Subscription subscription) {
+                    subscription.request(Long.MAX_VALUE);
+                }
+
+                @Override
+                public void onNext(User item) {
+                    downstream.submit(item);
+                }
+
+                @Override
+                public void onError(Throwable throwable) {
+                    downstream.closeExceptionally(throwable);
+                }
+
+                @Override
+                public void onComplete() {
+                }
+            });
+            assertTrue(received.await(1, TimeUnit.MINUTES));
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package buildable.example;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+
+import static buildable.example.CoordinateBuilder.aCoordinate;
+import static org.junit.Assert.assertEquals;
+
+public class RecordBuilderTest {
+
+    @Test public void buildsRecordThroughCanonicalConstructor() {
+        Coordinate coordinate = aCoordinate().atLatitude(1.5).withLabel("home").build();
+        assertEquals(new Coordinate(1.5, -122.4194, "home"), coordinate);
+    }
+
+    @Test public void copiesRecordComponents() {
+        Coordinate original = new Coordinate(1, 2, "original");
+        assertEquals(new Coordinate(1, 2, "copy"), aCoordinate().copiedFrom(original).withLabel("copy").build());
+    }
+
+    @Test public void encodesRecordComponentsThroughAccessors() {
+        Coordinate original = aCoordinate().withLabel("encoded").build();
+        ByteBuffer buffer = ByteBuffer.allocate(64);
+        CoordinateCodec.INSTANCE.encode(original, buffer);
+        buffer.flip();
+        assertEquals(original, CoordinateCodec.INSTANCE.decode(buffer));
+    }
+}
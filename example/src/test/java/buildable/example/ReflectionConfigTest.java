@@ -0,0 +1,98 @@
+package buildable.example;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks the generated native-image configuration against the classes it names, since a member missing from it
+ * only shows up once a native image is built.
+ */
+public class ReflectionConfigTest {
+
+    private static final String LOCATION = "META-INF/native-image/com.bradneighbors.buildable/example/reflect-config.json";
+    private static final Pattern TYPE = Pattern.compile("\\{\\s*\"name\": \"([^\"]+)\"(.*?)\\n  }", Pattern.DOTALL);
+    private static final Pattern FIELD = Pattern.compile("\\{\"name\": \"([^\"]+)\"(, \"allowWrite\": true)?}");
+    private static final Pattern METHOD = Pattern.compile("\\{\"name\": \"([^\"]+)\", \"parameterTypes\": \\[([^]]*)]}");
+
+    @Test public void namesOnlyMembersThatExist() throws Exception {
+        final Matcher types = TYPE.matcher(readConfig());
+        int typeCount = 0;
+        while (types.find()) {
+            final Class<?> type = Class.forName(types.group(1));
+            final Matcher fields = FIELD.matcher(types.group(2));
+            while (fields.find()) {
+                assertNotNull(type.getDeclaredField(fields.group(1)));
+            }
+            final Matcher methods = METHOD.matcher(types.group(2));
+            while (methods.find()) {
+                final Class<?>[] parameterTypes = parameterTypesOf(methods.group(2));
+                if (methods.group(1).equals("<init>")) {
+                    assertNotNull(type.getDeclaredConstructor(parameterTypes));
+                } else {
+                    assertNotNull(type.getDeclaredMethod(methods.group(1), parameterTypes));
+                }
+            }
+            typeCount++;
+        }
+        assertTrue(typeCount > 0);
+    }
+
+    @Test public void registersConstructorsAndFieldsTheBuildersUse() throws Exception {
+        final String config = readConfig();
+
+        assertTrue(config.contains("\"name\": \"buildable.example.User\""));
+        assertTrue(config.contains("{\"name\": \"<init>\", \"parameterTypes\": [\"java.lang.String\", \"java.lang.String\"]}"));
+        assertTrue(config.contains("{\"name\": \"email\"}"));
+    }
+
+    private static Class<?>[] parameterTypesOf(String names) throws ClassNotFoundException {
+        final List<Class<?>> types = new ArrayList<>();
+        for (String each : names.split(",")) {
+            final String name = each.trim().replace("\"", "");
+            if (!name.isEmpty()) {
+                types.add(classOf(name));
+            }
+        }
+        return types.toArray(new Class<?>[0]);
+    }
+
+    private static Class<?> classOf(String name) throws ClassNotFoundException {
+        switch (name) {
+            case "boolean": return boolean.class;
+            case "byte": return byte.class;
+            case "char": return char.class;
+            case "short": return short.class;
+            case "int": return int.class;
+            case "long": return long.class;
+            case "float": return float.class;
+            case "double": return double.class;
+            default:
+                return name.endsWith("[]")
+                        ? java.lang.reflect.Array.newInstance(classOf(name.substring(0, name.length() - 2)), 0).getClass()
+                        : Class.forName(name);
+        }
+    }
+
+    private static String readConfig() throws IOException {
+        try (InputStream in = ReflectionConfigTest.class.getClassLoader().getResourceAsStream(LOCATION)) {
+            assertNotNull("No " + LOCATION + " on the classpath", in);
+            final ByteArrayOutputStream out = new ByteArrayOutputStream();
+            final byte[] buffer = new byte[4096];
+            for (int read; (read = in.read(buffer)) != -1; ) {
+                out.write(buffer, 0, read);
+            }
+            return new String(out.toByteArray(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package buildable.example;
+
+import buildable.row.DelimitedReader;
+import buildable.row.DelimitedRow;
+import org.junit.Test;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class RowBinderTest {
+
+    @Test public void bindsEachColumnToItsField() {
+        final String[] cells = new String[FieldTestObjectRowBinder.COLUMNS.size()];
+        Arrays.fill(cells, "");
+        cells[FieldTestObjectRowBinder.STRING_WITH_NO_SPECIFIED_METHOD_NAME_AND_NO_SPECIFIED_DEFAULT_VALUE_COLUMN] = "\"quoted, with \"\"quotes\"\"\"";
+        cells[FieldTestObjectRowBinder.INTEGER_PRIMITIVE_COLUMN] = "-42";
+        cells[FieldTestObjectRowBinder.LONG_OBJECT_COLUMN] = "9223372036854775807";
+        cells[FieldTestObjectRowBinder.DOUBLE_PRIMITIVE_COLUMN] = "1.25e3";
+        cells[FieldTestObjectRowBinder.FLOAT_OBJECT_COLUMN] = "0.1";
+        cells[FieldTestObjectRowBinder.CHAR_PRIMITIVE_COLUMN] = "x";
+        cells[FieldTestObjectRowBinder.BYTE_OBJECT_COLUMN] = "-128";
+
+        final FieldTestObject bound = FieldTestObjectRowBinder.INSTANCE.bind(new DelimitedRow(DelimitedReader.CSV).reset(String.join(",", cells))).build();
+
+        assertEquals("quoted, with \"quotes\"", bound.stringWithNoSpecifiedMethodNameAndNoSpecifiedDefaultValue);
+        assertEquals(-42, bound.integerPrimitive);
+        assertEquals(Long.valueOf(Long.MAX_VALUE), bound.longObject);
+        assertEquals(1250d, bound.doublePrimitive, 0d);
+        assertEquals(Float.valueOf(0.1f), bound.floatObject);
+        assertEquals('x', bound.charPrimitive);
+        assertEquals(Byte.valueOf((byte) -128), bound.byteObject);
+    }
+
+    @Test public void emptyCellsKeepTheBuildersDefaults() {
+        final FieldTestObject bound = FieldTestObjectRowBinder.INSTANCE.bind(new DelimitedRow('\t').reset("")).build();
+
+        assertNull(bound.integerObject);
+        assertEquals(FieldTestObjectBuilder.anObject().build().stringWithSpecifiedMethodNameAndSpecifiedDefaultValue,
+                bound.stringWithSpecifiedMethodNameAndSpecifiedDefaultValue);
+    }
+
+    @Test public void streamsEveryLineOfTheInput() throws Exception {
+        final StringBuilder tsv = new StringBuilder(String.join("\t", FieldTestObjectRowBinder.COLUMNS)).append('\n');
+        for (int i = 0; i < 100000; i++) {
+            final String[] cells = new String[FieldTestObjectRowBinder.COLUMNS.size()];
+            Arrays.fill(cells, "");
+            cells[FieldTestObjectRowBinder.INTEGER_PRIMITIVE_COLUMN] = Integer.toString(i);
+            tsv.append(String.join("\t", cells)).append("\r\n");
+        }
+        final List<Integer> values = new ArrayList<>();
+
+        FieldTestObjectRowBinder.INSTANCE.forEach(new StringReader(tsv.toString()), DelimitedReader.TSV, true, each -> values.add(each.integerPrimitive));
+
+        assertEquals(100000, values.size());
+        assertEquals(Integer.valueOf(99999), values.get(99999));
+    }
+}
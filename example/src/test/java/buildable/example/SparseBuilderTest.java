@@ -0,0 +1,107 @@
+package buildable.example;
+
+import org.junit.Test;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static buildable.example.AccountBuilder.anAccount;
+import static buildable.example.SettingsBuilder.aSettings;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class SparseBuilderTest {
+
+    @Test public void holdsTheValuesSetInASingleTable() {
+        final List<String> instanceFields = new ArrayList<>();
+        for (Field each : SettingsBuilder.class.getDeclaredFields()) {
+            // instrumented builders also count their nested builds
+            if (!Modifier.isStatic(each.getModifiers()) && !each.getName().equals("nestedBuilds")) {
+                instanceFields.add(each.getName());
+            }
+        }
+
+        assertEquals(Collections.singletonList("slots"), instanceFields);
+    }
+
+    @Test public void buildsUnsetFieldsWithTheirDefaults() {
+        final Settings settings = aSettings().build();
+
+        assertEquals("light", settings.getTheme());
+        assertEquals(12, settings.getFontSize());
+        assertEquals(1.0, settings.getZoom(), 0);
+        assertEquals(0L, settings.getQuota());
+        assertFalse(settings.getNotifications());
+        assertNull(settings.getLocale());
+    }
+
+    @Test public void evaluatesDefaultsThatAreNotLiteralsForEachInstance() {
+        final SettingsBuilder builder = aSettings();
+        final Settings first = builder.build();
+        final Settings second = builder.build();
+
+        first.getBookmarks().add("home");
+
+        assertNotSame(first.getBookmarks(), second.getBookmarks());
+        assertTrue(second.getBookmarks().isEmpty());
+    }
+
+    @Test public void buildsTheValuesSet() {
+        final Settings settings = aSettings().themed("dark").withFontSize(14).withQuota(5_000_000_000L)
+                .withNotifications(true).withLocale(null).withTags("a", "b")
+                .withAccount(anAccount().named("Savings"))
+                .build();
+
+        assertEquals("dark", settings.getTheme());
+        assertEquals(14, settings.getFontSize());
+        assertEquals(5_000_000_000L, settings.getQuota());
+        assertTrue(settings.getNotifications());
+        assertNull(settings.getLocale());
+        assertEquals(Arrays.asList("a", "b"), settings.getTags());
+        assertEquals("Savings", settings.getAccount().getName());
+    }
+
+    @Test public void tracksTheSlotsSet() {
+        final SettingsBuilder builder = aSettings().withLocale(null).withRetries(3);
+
+        assertTrue(builder.isSet("locale"));
+        assertTrue(builder.isSet("retries"));
+        assertFalse(builder.isSet("theme"));
+    }
+
+    @Test public void copiesAndAppliesTheValuesSet() {
+        final Settings original = aSettings().themed("dark").withPageSize(50).build();
+
+        final Settings copy = aSettings().copiedFrom(original).withRetries(2).build();
+        assertEquals("dark", copy.getTheme());
+        assertEquals(50, copy.getPageSize());
+        assertEquals(2, copy.getRetries());
+
+        aSettings().withSignature("regards").applyTo(original);
+        assertEquals("regards", original.getSignature());
+        assertEquals(50, original.getPageSize());
+    }
+
+    @Test public void sharesInstancesBuiltFromTheSameValues() {
+        assertSame(aSettings().withZoom(1.5).buildShared(), aSettings().withZoom(1.5).buildShared());
+    }
+
+    @Test public void metaSetsSlotsByIndex() {
+        final SettingsBuilder builder = SettingsBuilder.meta().newBuilder();
+
+        SettingsBuilder.meta().setLong(builder, SettingsBuilder.meta().slotOf("sessionTimeout"), 30L);
+        SettingsBuilder.meta().set(builder, SettingsBuilder.meta().slotOf("currency"), "EUR");
+
+        final Settings settings = builder.build();
+        assertEquals(30L, settings.getSessionTimeout());
+        assertEquals("EUR", settings.getCurrency());
+    }
+}